@@ -0,0 +1,78 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.ExecutionMode;
+import com.mimo.scheduler.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares submitting a large fan-out job with {@link Scheduler#runAll(java.util.Collection)} against one
+ * {@link Scheduler#run(Callable)} call per task, including the time until every task finished.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSubmissionBenchmark {
+
+    @Param({"PLATFORM", "SHARDED"})
+    public ExecutionMode mode;
+
+    @Param({"50000"})
+    public int tasks;
+
+    private Scheduler scheduler;
+    private List<Callable<Integer>> callables;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(4, mode);
+        callables = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int value = i;
+            callables.add(() -> value);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+
+    @Benchmark
+    public List<Integer> runAll() {
+        return scheduler.runAll(callables).join();
+    }
+
+
+    @Benchmark
+    public Object runEach() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+        for (int i = 0; i < tasks; i++) {
+            futures[i] = scheduler.run(callables.get(i));
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.cron.CronExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to compute the next fire time of a large number of distinct cron jobs, like a
+ * {@link com.mimo.scheduler.Scheduler} does when all of them are registered at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronExpressionBenchmark {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+    private static final Instant NOW = Instant.parse("2026-03-29T00:30:00Z");
+
+    @Param({"100000"})
+    public int jobs;
+
+    private String[] expressions;
+    private CronExpression[] parsed;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expressions = new String[jobs];
+        parsed = new CronExpression[jobs];
+        for (int i = 0; i < jobs; i++) {
+            expressions[i] = switch (i % 4) {
+                case 0 -> (i % 60) + " " + (i / 60 % 24) + " * * *";
+                case 1 -> (i % 60) + " " + (i / 60 % 60) + " */" + (1 + i % 12) + " * * MON-FRI";
+                case 2 -> "0 " + (i % 60) + " " + (i % 24) + " " + (1 + i % 28) + " " + (1 + i / 28 % 12) + " *";
+                default -> (i % 60) + "/" + (1 + i % 7) + " " + (i % 24) + " 13 * FRI";
+            };
+            parsed[i] = CronExpression.parse(expressions[i]);
+        }
+    }
+
+
+    @Benchmark
+    public void nextFireTimes(Blackhole blackhole) {
+        for (CronExpression expression : parsed) {
+            blackhole.consume(expression.next(NOW, ZONE));
+        }
+    }
+
+
+    @Benchmark
+    public void parseAndNextFireTimes(Blackhole blackhole) {
+        for (String expression : expressions) {
+            blackhole.consume(CronExpression.parse(expression).next(NOW, ZONE));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.internal.AfterTaskExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching one event through the {@link AfterTaskExecutor} as the number of registered
+ * classes, each with one listener of the event, grows. {@code fire} invokes the listeners on the calling thread,
+ * {@code fireAsync} also includes the future that every dispatch of a task creates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+    private static final Executor DIRECT = Runnable::run;
+
+    @Param({"1", "4", "16"})
+    public int registeredClasses;
+
+    private AfterTaskExecutor afterTaskExecutor;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        afterTaskExecutor = new AfterTaskExecutor();
+        for (Class<?> clazz : Listeners.CLASSES.subList(0, registeredClasses)) {
+            afterTaskExecutor.register(clazz);
+        }
+    }
+
+
+    @Benchmark
+    public int fire() throws InvocationTargetException {
+        afterTaskExecutor.fire(Listeners.EVENT);
+        return Listeners.calls;
+    }
+
+
+    @Benchmark
+    public Object fireAsync() {
+        return afterTaskExecutor.fireAsync(Listeners.EVENT, DIRECT).join();
+    }
+
+
+    @Benchmark
+    public int fireUnknownEvent() throws InvocationTargetException {
+        afterTaskExecutor.fire("unknown");
+        return Listeners.calls;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.Scheduler;
+import com.mimo.scheduler.timer.HashedWheelTimerEngine;
+import com.mimo.scheduler.timer.PrecisionTimerEngine;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples how long it takes from scheduling a task with a delay of {@code delayMicros} until it finished, so the
+ * reported distribution minus the delay is how late the task fired. The percentiles of the sample time mode show
+ * the jitter of the timer, not only its mean. {@code Precision} runs the delays on a {@link PrecisionTimerEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiringPrecisionBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"ScheduledExecutor", "HashedWheel", "Precision"})
+    public String engine;
+
+    @Param({"100", "1000", "10000"})
+    public long delayMicros;
+
+    private Scheduler scheduler;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(1, "HashedWheel".equals(engine) ? new HashedWheelTimerEngine() : new ScheduledExecutorTimerEngine());
+        if ("Precision".equals(engine)) {
+            scheduler.setPrecisionTimer(new PrecisionTimerEngine());
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+
+    @Benchmark
+    public Object scheduleAndAwait() throws Exception {
+        return scheduler.scheduleWithFixedDelay(delayMicros, TimeUnit.MICROSECONDS, NOOP).get();
+    }
+}
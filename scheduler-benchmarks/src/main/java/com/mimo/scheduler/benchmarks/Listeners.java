@@ -0,0 +1,218 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.aftertask.AfterTask;
+
+import java.util.List;
+
+/**
+ * Classes with {@link AfterTask} methods for {@link EventDispatchBenchmark}. Every class listens to the shared
+ * {@link #EVENT} and to one event of its own, so the event index grows together with the number of classes.
+ */
+final class Listeners {
+    static final String EVENT = "benchmark";
+
+    static final List<Class<?>> CLASSES = List.of(
+            Listener01.class, Listener02.class, Listener03.class, Listener04.class,
+            Listener05.class, Listener06.class, Listener07.class, Listener08.class,
+            Listener09.class, Listener10.class, Listener11.class, Listener12.class,
+            Listener13.class, Listener14.class, Listener15.class, Listener16.class);
+
+    /// Written by the listeners so their invocation can not be optimized away.
+    static int calls;
+
+    private Listeners() {
+    }
+
+
+    static final class Listener01 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other01")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener02 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other02")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener03 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other03")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener04 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other04")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener05 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other05")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener06 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other06")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener07 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other07")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener08 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other08")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener09 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other09")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener10 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other10")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener11 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other11")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener12 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other12")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener13 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other13")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener14 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other14")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener15 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other15")
+        static void onOther() {
+            calls--;
+        }
+    }
+
+    static final class Listener16 {
+        @AfterTask(name = EVENT)
+        static void onEvent() {
+            calls++;
+        }
+
+        @AfterTask(name = "other16")
+        static void onOther() {
+            calls--;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.internal.ScheduledTask;
+import com.mimo.scheduler.metrics.LatencyHistogram;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import com.mimo.scheduler.timer.TimerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link SchedulerMetrics} add to the run of a single task, by running empty tasks on the benchmark
+ * thread with the metrics enabled and disabled, and what recording a single value into a {@link LatencyHistogram}
+ * costs when several threads record at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private static final Callable<Object> EMPTY = () -> null;
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private TimerEngine timerEngine;
+    private SchedulerMetrics metrics;
+    private LatencyHistogram histogram;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timerEngine = new ScheduledExecutorTimerEngine();
+        metrics = new SchedulerMetrics(timerEngine, null);
+        metrics.setEnabled(enabled);
+        histogram = new LatencyHistogram();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        metrics.close();
+        timerEngine.shutdownNow();
+    }
+
+
+    @Benchmark
+    public Object runTask() {
+        ScheduledTask<Object> task = new ScheduledTask<>(EMPTY, 0, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+        task.run();
+        return task;
+    }
+
+
+    @Benchmark
+    @Threads(4)
+    public void recordValue() {
+        histogram.record(1_000);
+    }
+}
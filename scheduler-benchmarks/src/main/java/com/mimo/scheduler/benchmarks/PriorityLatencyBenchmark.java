@@ -0,0 +1,93 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.ExecutionMode;
+import com.mimo.scheduler.Priority;
+import com.mimo.scheduler.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the latency of critical tasks in a mixed workload. A background producer keeps {@code backlog} bulk tasks
+ * of 20 microseconds each queued, submitted without a priority, so the scheduler is saturated all the time, while the
+ * benchmark thread runs empty {@link Priority#CRITICAL} tasks and waits for them. Without priority dispatch the bulk
+ * tasks go straight to the executor and a critical task waits behind the whole backlog, with it the critical task
+ * starts after the bulk tasks that are already running. The percentiles of the sample time mode show the tail latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriorityLatencyBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"PLATFORM", "SHARDED"})
+    public ExecutionMode mode;
+
+    @Param({"true", "false"})
+    public boolean priorityDispatch;
+
+    @Param({"100", "1000"})
+    public int backlog;
+
+    private Scheduler scheduler;
+    private Semaphore queued;
+    private Thread producer;
+    private volatile boolean running;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(2, mode);
+        scheduler.setPriorityDispatch(priorityDispatch);
+        queued = new Semaphore(backlog);
+        running = true;
+        Runnable bulk = () -> {
+            long end = System.nanoTime() + 20_000;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            queued.release();
+        };
+        producer = Thread.ofPlatform().name("bulk-producer").start(() -> {
+            while (running) {
+                try {
+                    if (queued.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                        scheduler.run(bulk);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        producer.join();
+        scheduler.shutdownNow();
+    }
+
+
+    @Benchmark
+    public Object critical() {
+        return scheduler.run(Priority.CRITICAL, NOOP).join();
+    }
+}
@@ -0,0 +1,111 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.ExecutionMode;
+import com.mimo.scheduler.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many tasks per second a growing number of producer threads can hand to {@link Scheduler#run(Runnable)}
+ * in every {@link ExecutionMode}, including the {@link com.mimo.scheduler.internal.ScheduledTask} that every call
+ * creates. Every producer keeps at most {@link #MAX_IN_FLIGHT} of its tasks queued, so the workers have to keep up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunThroughputBenchmark {
+    private static final long MAX_IN_FLIGHT = 4096;
+
+    @Param({"PLATFORM", "VIRTUAL", "SHARDED"})
+    public ExecutionMode mode;
+
+    @Param({"8"})
+    public int numThreads;
+
+    private Scheduler scheduler;
+    private ExecutorService executor;
+
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private final AtomicLong inFlight = new AtomicLong();
+        private final Runnable task = inFlight::decrementAndGet;
+    }
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(numThreads, mode);
+        executor = scheduler.getExecutor();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        scheduler.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+
+    private Object run(Producer producer) {
+        while (producer.inFlight.get() >= MAX_IN_FLIGHT) {
+            Thread.onSpinWait();
+        }
+        producer.inFlight.incrementAndGet();
+        return scheduler.run(producer.task);
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    public Object producers01(Producer producer) {
+        return run(producer);
+    }
+
+
+    @Benchmark
+    @Threads(2)
+    public Object producers02(Producer producer) {
+        return run(producer);
+    }
+
+
+    @Benchmark
+    @Threads(4)
+    public Object producers04(Producer producer) {
+        return run(producer);
+    }
+
+
+    @Benchmark
+    @Threads(8)
+    public Object producers08(Producer producer) {
+        return run(producer);
+    }
+
+
+    @Benchmark
+    @Threads(16)
+    public Object producers16(Producer producer) {
+        return run(producer);
+    }
+}
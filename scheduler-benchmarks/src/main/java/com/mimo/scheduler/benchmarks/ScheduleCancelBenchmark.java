@@ -0,0 +1,66 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.Scheduler;
+import com.mimo.scheduler.timer.HashedWheelTimerEngine;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link Scheduler#scheduleWithFixedDelay(long, TimeUnit, Runnable)} followed by a cancel of the
+ * returned future, while {@code 10^3} to {@code 10^6} other delayed tasks are pending in the timer of the scheduler.
+ * Unlike {@link TimerEngineBenchmark} this includes the task that the scheduler wraps around every timeout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleCancelBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"ScheduledExecutor", "HashedWheel"})
+    public String engine;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int pendingTimers;
+
+    private Scheduler scheduler;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(1, "HashedWheel".equals(engine) ? new HashedWheelTimerEngine() : new ScheduledExecutorTimerEngine());
+        for (int i = 0; i < pendingTimers; i++) {
+            scheduler.scheduleWithFixedDelay(60 + (i % 3600), TimeUnit.MINUTES, NOOP);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(30, TimeUnit.MINUTES, NOOP);
+        return future.cancel(false);
+    }
+}
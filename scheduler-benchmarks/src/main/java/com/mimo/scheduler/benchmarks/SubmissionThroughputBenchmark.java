@@ -0,0 +1,125 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.ExecutionMode;
+import com.mimo.scheduler.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many tasks per second a growing number of producer threads can submit to a {@link Scheduler}
+ * in {@link ExecutionMode#PLATFORM}, where all of them share one queue, and in {@link ExecutionMode#SHARDED}.
+ * Every producer keeps at most {@link #MAX_IN_FLIGHT} of its tasks queued, so the workers have to keep up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubmissionThroughputBenchmark {
+    private static final long MAX_IN_FLIGHT = 4096;
+
+    @Param({"PLATFORM", "SHARDED"})
+    public ExecutionMode mode;
+
+    @Param({"8"})
+    public int numThreads;
+
+    private Scheduler scheduler;
+    private ExecutorService executor;
+
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private final AtomicLong inFlight = new AtomicLong();
+        private final Runnable task = inFlight::decrementAndGet;
+    }
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = new Scheduler(numThreads, mode);
+        executor = scheduler.getExecutor();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        scheduler.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+
+    private void submit(Producer producer) {
+        while (producer.inFlight.get() >= MAX_IN_FLIGHT) {
+            Thread.onSpinWait();
+        }
+        producer.inFlight.incrementAndGet();
+        executor.execute(producer.task);
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    public void producers01(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(2)
+    public void producers02(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(4)
+    public void producers04(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(8)
+    public void producers08(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(16)
+    public void producers16(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(32)
+    public void producers32(Producer producer) {
+        submit(producer);
+    }
+
+
+    @Benchmark
+    @Threads(64)
+    public void producers64(Producer producer) {
+        submit(producer);
+    }
+}
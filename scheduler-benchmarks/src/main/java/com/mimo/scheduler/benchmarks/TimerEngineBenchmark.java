@@ -0,0 +1,76 @@
+package com.mimo.scheduler.benchmarks;
+
+import com.mimo.scheduler.timer.HashedWheelTimerEngine;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import com.mimo.scheduler.timer.Timeout;
+import com.mimo.scheduler.timer.TimerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of scheduling and cancelling a timeout in the {@link HashedWheelTimerEngine} against the
+ * {@link ScheduledExecutorTimerEngine} while a growing number of other timeouts is pending.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerEngineBenchmark {
+    private static final Runnable NOOP = () -> { };
+    private static final Executor DIRECT = Runnable::run;
+
+    @Param({"ScheduledExecutor", "HashedWheel"})
+    public String engine;
+
+    @Param({"1000", "100000", "1000000"})
+    public int pendingTimers;
+
+    private TimerEngine timerEngine;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timerEngine = "HashedWheel".equals(engine) ? new HashedWheelTimerEngine() : new ScheduledExecutorTimerEngine();
+        for (int i = 0; i < pendingTimers; i++) {
+            timerEngine.newTimeout(NOOP, 60 + (i % 3600), TimeUnit.MINUTES, DIRECT);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timerEngine.shutdownNow();
+    }
+
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        Timeout timeout = timerEngine.newTimeout(NOOP, 30, TimeUnit.MINUTES, DIRECT);
+        return timeout.cancel();
+    }
+
+
+    @Benchmark
+    @Threads(8)
+    public boolean scheduleAndCancelContended() {
+        Timeout timeout = timerEngine.newTimeout(NOOP, 30, TimeUnit.MINUTES, DIRECT);
+        return timeout.cancel();
+    }
+}
@@ -0,0 +1,253 @@
+package com.mimo.scheduler.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Generates an {@code AfterTaskDispatcher} for every class that declares {@code @AfterTask} methods, with direct
+ * calls of the static methods and calls of the instance methods bound to a listener, both together with their
+ * {@code order} and {@code parallel} attributes.
+ * The generated dispatchers are registered as services, which lets the {@code Scheduler} fire events without
+ * scanning the classes with reflection. Classes that can not be reached from a generated class in their package,
+ * like private nested classes, are skipped and keep using reflection.
+ */
+@SupportedAnnotationTypes(AfterTaskProcessor.AFTER_TASK)
+public class AfterTaskProcessor extends AbstractProcessor {
+    static final String AFTER_TASK = "com.mimo.scheduler.aftertask.AfterTask";
+    static final String DISPATCHER = "com.mimo.scheduler.aftertask.AfterTaskDispatcher";
+    static final String LISTENER = "com.mimo.scheduler.aftertask.AfterTaskListener";
+    static final String SUFFIX = "_AfterTaskDispatcher";
+
+    private final Map<TypeElement, Map<String, List<ExecutableElement>>> methods = new LinkedHashMap<>();
+    private final Set<String> dispatchers = new LinkedHashSet<>();
+
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                collect((ExecutableElement) element);
+            }
+        }
+        for (Map.Entry<TypeElement, Map<String, List<ExecutableElement>>> entry : methods.entrySet()) {
+            writeDispatcher(entry.getKey(), entry.getValue());
+        }
+        methods.clear();
+        if (roundEnv.processingOver() && !dispatchers.isEmpty()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+
+    private void collect(ExecutableElement method) {
+        Messager messager = processingEnv.getMessager();
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@AfterTask methods must not be private", method);
+            return;
+        }
+        if (!method.getParameters().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@AfterTask methods must not have parameters", method);
+            return;
+        }
+        TypeElement type = (TypeElement) method.getEnclosingElement();
+        if (!isReachable(type)) {
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    "No AfterTaskDispatcher is generated for " + type + ", it falls back to reflection", type);
+            return;
+        }
+        methods.computeIfAbsent(type, key -> new LinkedHashMap<>())
+                .computeIfAbsent(String.valueOf(attribute(method, "name")), key -> new ArrayList<>())
+                .add(method);
+    }
+
+
+    private boolean isReachable(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement typeElement) {
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                    || typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+
+    /// Returns the value of an attribute of the @AfterTask annotation, including its default value.
+    private Object attribute(ExecutableElement method, String name) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(AFTER_TASK)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                        : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals(name)) {
+                        return value.getValue().getValue();
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Missing " + name + " of @AfterTask on " + method);
+    }
+
+
+    private void writeDispatcher(TypeElement type, Map<String, List<ExecutableElement>> events) {
+        Elements elements = processingEnv.getElementUtils();
+        PackageElement packageElement = elements.getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String simpleName = dispatcherName(type);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String target = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/// Generated by ").append(AfterTaskProcessor.class.getName()).append(", do not edit.\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(DISPATCHER).append(" {\n\n");
+        source.append("    @Override\n");
+        source.append("    public Class<?> target() {\n");
+        source.append("        return ").append(target).append(".class;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.Map<String, Runnable[]> invokers() {\n");
+        appendEntries(source, events, true, "Runnable", method -> invoker(target, method));
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.Map<String, ").append(LISTENER).append("[]> listeners() {\n");
+        appendEntries(source, events, true, LISTENER, method -> listener(invoker(target, method), method));
+        source.append("    }\n");
+        if (events.values().stream().flatMap(List::stream).anyMatch(method -> !method.getModifiers().contains(Modifier.STATIC))) {
+            source.append("\n");
+            source.append("    @Override\n");
+            source.append("    public java.util.Map<String, ").append(LISTENER).append("[]> listeners(Object listener) {\n");
+            source.append("        ").append(target).append(" target = (").append(target).append(") listener;\n");
+            appendEntries(source, events, false, LISTENER, method -> listener(invoker("target", method), method));
+            source.append("    }\n");
+        }
+        source.append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+            dispatchers.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+
+    /// Appends a return statement with a map from every event name to an array of the static or the instance methods.
+    private void appendEntries(StringBuilder source, Map<String, List<ExecutableElement>> events, boolean statics,
+                               String elementType, Function<ExecutableElement, String> element) {
+        Elements elements = processingEnv.getElementUtils();
+        source.append("        return java.util.Map.ofEntries(");
+        String entrySeparator = "\n";
+        for (Map.Entry<String, List<ExecutableElement>> event : events.entrySet()) {
+            List<ExecutableElement> methods = event.getValue().stream()
+                    .filter(method -> method.getModifiers().contains(Modifier.STATIC) == statics)
+                    .toList();
+            if (methods.isEmpty()) {
+                continue;
+            }
+            source.append(entrySeparator);
+            source.append("                java.util.Map.entry(").append(elements.getConstantExpression(event.getKey()))
+                    .append(", new ").append(elementType).append("[] {");
+            String elementSeparator = "\n";
+            for (ExecutableElement method : methods) {
+                source.append(elementSeparator).append("                        ").append(element.apply(method));
+                elementSeparator = ",\n";
+            }
+            source.append("\n                })");
+            entrySeparator = ",\n";
+        }
+        source.append("\n        );\n");
+    }
+
+
+    private String listener(String invoker, ExecutableElement method) {
+        return "new " + LISTENER + "(" + invoker + ", " + attribute(method, "order") + ", " + attribute(method, "parallel") + ")";
+    }
+
+
+    private String invoker(String target, ExecutableElement method) {
+        String call = target + "." + method.getSimpleName() + "()";
+        if (method.getThrownTypes().isEmpty()) {
+            return "() -> " + call;
+        }
+        return "() -> {\n"
+                + "                            try {\n"
+                + "                                " + call + ";\n"
+                + "                            } catch (RuntimeException | Error e) {\n"
+                + "                                throw e;\n"
+                + "                            } catch (Throwable t) {\n"
+                + "                                throw new java.lang.reflect.UndeclaredThrowableException(t);\n"
+                + "                            }\n"
+                + "                        }";
+    }
+
+
+    private static String dispatcherName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element current = type.getEnclosingElement();
+        while (current.getKind() != ElementKind.PACKAGE) {
+            name.insert(0, current.getSimpleName() + "_");
+            current = current.getEnclosingElement();
+        }
+        return name.append(SUFFIX).toString();
+    }
+
+
+    private void writeServiceFile() {
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + DISPATCHER);
+            try (Writer writer = file.openWriter()) {
+                for (String dispatcher : dispatchers) {
+                    writer.write(dispatcher);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write the AfterTaskDispatcher service file: " + e.getMessage());
+        }
+    }
+}
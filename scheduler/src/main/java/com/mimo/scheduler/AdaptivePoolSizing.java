@@ -0,0 +1,153 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Lets a {@link Scheduler} size its worker pool to the load, between {@code minThreads} and {@code maxThreads}.
+ * <p>
+ * Every sample interval the queue lag, the time a new task waits for a worker, is estimated with Little's law from
+ * the number of queued tasks and the throughput of the last interval. Once the lag exceeds the target the pool grows
+ * in proportion to it, at most doubling per sample. The pool only shrinks after the lag stayed below half the target
+ * for the idle timeout, by at most a quarter per step and never below what the busiest sample of that time needed,
+ * so it does not flap around the target.
+ */
+public class AdaptivePoolSizing {
+    private final int minThreads;
+    private final int maxThreads;
+    private long targetQueueLagNanos;
+    private long sampleIntervalNanos;
+    private long idleTimeoutNanos;
+    private Consumer<PoolResize> resizeListener;
+
+
+    /**
+     * Creates a sizing between the given bounds that targets a queue lag of 50 milliseconds, samples twice a second
+     * and shrinks after 10 seconds of low load.
+     *
+     * @param minThreads the smallest number of workers
+     * @param maxThreads the largest number of workers
+     *
+     * @throws IllegalArgumentException if {@code minThreads} is not positive or greater than {@code maxThreads}
+     **/
+    public AdaptivePoolSizing(int minThreads, int maxThreads) {
+        if (minThreads < 1 || minThreads > maxThreads) {
+            throw new IllegalArgumentException("Bounds must satisfy 0 < minThreads <= maxThreads: " + minThreads + ", " + maxThreads);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetQueueLagNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(500);
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+    }
+
+
+    /**
+     * Returns the smallest number of workers.
+     *
+     * @return the lower bound of the pool size
+     **/
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+
+    /**
+     * Returns the largest number of workers.
+     *
+     * @return the upper bound of the pool size
+     **/
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+
+    /**
+     * Sets the queue lag above which the pool grows.
+     *
+     * @param targetQueueLag the longest time a task should wait for a worker
+     * @param unit the {@code TimeUnit} of the target
+     **/
+    public void setTargetQueueLag(long targetQueueLag, TimeUnit unit) {
+        this.targetQueueLagNanos = Math.max(unit.toNanos(targetQueueLag), 1);
+    }
+
+
+    /**
+     * Returns the queue lag above which the pool grows.
+     *
+     * @param unit the {@code TimeUnit} of the returned target
+     *
+     * @return the target queue lag
+     **/
+    public long getTargetQueueLag(TimeUnit unit) {
+        return unit.convert(targetQueueLagNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets how often the queue lag and the throughput are sampled.
+     *
+     * @param sampleInterval the time between two samples
+     * @param unit the {@code TimeUnit} of the interval
+     **/
+    public void setSampleInterval(long sampleInterval, TimeUnit unit) {
+        this.sampleIntervalNanos = Math.max(unit.toNanos(sampleInterval), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+
+    /**
+     * Returns how often the queue lag and the throughput are sampled.
+     *
+     * @param unit the {@code TimeUnit} of the returned interval
+     *
+     * @return the sample interval
+     **/
+    public long getSampleInterval(TimeUnit unit) {
+        return unit.convert(sampleIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets how long the load has to stay low before the pool shrinks by one step.
+     *
+     * @param idleTimeout the time of low load per shrinking step
+     * @param unit the {@code TimeUnit} of the timeout
+     **/
+    public void setIdleTimeout(long idleTimeout, TimeUnit unit) {
+        this.idleTimeoutNanos = unit.toNanos(Math.max(idleTimeout, 0));
+    }
+
+
+    /**
+     * Returns how long the load has to stay low before the pool shrinks by one step.
+     *
+     * @param unit the {@code TimeUnit} of the returned timeout
+     *
+     * @return the idle timeout
+     **/
+    public long getIdleTimeout(TimeUnit unit) {
+        return unit.convert(idleTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets the {@link Consumer} that is told about every resize decision. It is called on the timer thread, so it
+     * should return quickly.
+     *
+     * @param resizeListener the {@code Consumer} of the decisions, or {@code null}
+     **/
+    public void setResizeListener(Consumer<PoolResize> resizeListener) {
+        this.resizeListener = resizeListener;
+    }
+
+
+    /**
+     * Returns the {@link Consumer} that is told about every resize decision.
+     *
+     * @return the {@code Consumer} of the decisions, or {@code null}
+     **/
+    public Consumer<PoolResize> getResizeListener() {
+        return resizeListener;
+    }
+}
@@ -0,0 +1,104 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how much work a {@link Scheduler} accepts, so a burst of tasks degrades predictably instead of filling
+ * the memory. The number of tasks that wait for the executor is bounded by {@code maxPendingTasks} and handled by
+ * the {@link OverloadPolicy}, the number of pending timeouts is bounded by {@code maxPendingTimers} and tasks beyond
+ * it are rejected right away.
+ */
+public class AdmissionLimits {
+    /**
+     * The limit that never rejects anything.
+     */
+    public static final int UNBOUNDED = 0;
+
+    private final int maxPendingTasks;
+    private final int maxPendingTimers;
+    private OverloadPolicy overloadPolicy;
+    private long blockTimeoutNanos;
+
+
+    /**
+     * Creates limits that reject tasks beyond them and wait at most one second with {@link OverloadPolicy#BLOCK}.
+     *
+     * @param maxPendingTasks the number of tasks that may wait for the executor, or {@link #UNBOUNDED}
+     * @param maxPendingTimers the number of timeouts that may wait in the timer, or {@link #UNBOUNDED}
+     *
+     * @throws IllegalArgumentException if a limit is negative
+     **/
+    public AdmissionLimits(int maxPendingTasks, int maxPendingTimers) {
+        if (maxPendingTasks < 0 || maxPendingTimers < 0) {
+            throw new IllegalArgumentException("Limits must not be negative: " + maxPendingTasks + ", " + maxPendingTimers);
+        }
+        this.maxPendingTasks = maxPendingTasks;
+        this.maxPendingTimers = maxPendingTimers;
+        this.overloadPolicy = OverloadPolicy.REJECT;
+        this.blockTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+    }
+
+
+    /**
+     * Returns the number of tasks that may wait for the executor. Tasks whose delay passed are handed to the executor
+     * without being counted.
+     *
+     * @return the limit of pending tasks, or {@link #UNBOUNDED}
+     **/
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+
+    /**
+     * Returns the number of timeouts that may wait inside the {@link com.mimo.scheduler.timer.TimerEngine}.
+     *
+     * @return the limit of pending timers, or {@link #UNBOUNDED}
+     **/
+    public int getMaxPendingTimers() {
+        return maxPendingTimers;
+    }
+
+
+    /**
+     * Sets what happens to a task that arrives while {@link #getMaxPendingTasks()} tasks are pending.
+     *
+     * @param overloadPolicy the {@code OverloadPolicy} of the limits
+     **/
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
+
+    /**
+     * Returns what happens to a task that arrives while {@link #getMaxPendingTasks()} tasks are pending.
+     *
+     * @return the {@link OverloadPolicy} of the limits
+     **/
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+
+    /**
+     * Sets how long a submitting thread waits for room with {@link OverloadPolicy#BLOCK}.
+     *
+     * @param timeout the longest time to wait
+     * @param unit the {@code TimeUnit} of the timeout
+     **/
+    public void setBlockTimeout(long timeout, TimeUnit unit) {
+        this.blockTimeoutNanos = unit.toNanos(Math.max(timeout, 0));
+    }
+
+
+    /**
+     * Returns how long a submitting thread waits for room with {@link OverloadPolicy#BLOCK}.
+     *
+     * @param unit the {@code TimeUnit} of the returned timeout
+     *
+     * @return the block timeout
+     **/
+    public long getBlockTimeout(TimeUnit unit) {
+        return unit.convert(blockTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,25 @@
+package com.mimo.scheduler;
+
+/**
+ * Decides how long a {@link RetryPolicy} waits before the next attempt of a failed task. Every delay is capped at
+ * {@link RetryPolicy#getMaxDelay(java.util.concurrent.TimeUnit)}.
+ */
+public enum Backoff {
+
+    /**
+     * The delay starts at the initial delay and grows by the multiplier after every attempt. This is the default.
+     */
+    EXPONENTIAL,
+
+    /**
+     * The delay is a random value between zero and the exponential delay, which spreads the retries of many tasks
+     * that failed at once.
+     */
+    FULL_JITTER,
+
+    /**
+     * The delay is a random value between the initial delay and three times the previous delay, so it grows like the
+     * exponential delay without the attempts of different tasks falling into step.
+     */
+    DECORRELATED_JITTER
+}
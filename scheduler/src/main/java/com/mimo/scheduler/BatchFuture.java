@@ -0,0 +1,65 @@
+package com.mimo.scheduler;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The aggregate future of a batch of tasks that were submitted together to a {@link Scheduler}.
+ * It completes with the results of all tasks in submission order once every task finished, or exceptionally with
+ * the first failure once every task finished when any of them failed or got cancelled.
+ * The futures of the single tasks are available through {@link #getFutures()}.
+ *
+ * @param <T> the result type of the tasks
+ */
+public class BatchFuture<T> extends CompletableFuture<List<T>> {
+    private final List<CompletableFuture<T>> futures;
+
+
+    /**
+     * Creates a {@code BatchFuture} for the given futures. The batch completes it once the last task finished.
+     *
+     * @param futures the futures of the single tasks in submission order
+     **/
+    public BatchFuture(List<? extends CompletableFuture<T>> futures) {
+        this.futures = List.copyOf(futures);
+    }
+
+
+    /**
+     * Returns the futures of the single tasks in submission order.
+     *
+     * @return an unmodifiable list with one {@link CompletableFuture} per task
+     **/
+    public List<CompletableFuture<T>> getFutures() {
+        return futures;
+    }
+
+
+    /**
+     * Returns the number of tasks in the batch.
+     *
+     * @return the number of tasks
+     **/
+    public int size() {
+        return futures.size();
+    }
+
+
+    /**
+     * Cancels every task of the batch that did not finish yet, and the batch itself.
+     *
+     * @param mayInterruptIfRunning whether running tasks are interrupted
+     *
+     * @return {@code true} if the batch got cancelled by this call
+     **/
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            for (CompletableFuture<T> future : futures) {
+                future.cancel(mayInterruptIfRunning);
+            }
+        }
+        return cancelled;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mimo.scheduler;
+
+/**
+ * Describes on which kind of threads a {@link Scheduler} runs its tasks.
+ * In every mode the delays are kept by a small timer core that only hands due tasks over to the workers.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Tasks run on a fixed pool of {@code numThreads} platform threads.
+     * Suits CPU bound tasks, since no more tasks than threads can run at once.
+     */
+    PLATFORM,
+
+    /**
+     * Every task runs on its own virtual thread and at most {@code numThreads} tasks run at once.
+     * Suits blocking I/O bound tasks, since tens of thousands of them can wait at the same time without
+     * needing a matching number of operating system threads.
+     */
+    VIRTUAL,
+
+    /**
+     * Tasks run on {@code numThreads} independent shards, each with one platform thread and its own lock-free
+     * submission queue, and delays are kept by one timer per shard. Every submitting thread sticks to one shard,
+     * tasks can be pinned to a shard with a key, and idle shards steal tasks from busy ones.
+     * Suits many threads that submit short tasks at a high rate, since they do not contend on a single queue.
+     */
+    SHARDED
+}
@@ -1,7 +1,6 @@
 package com.mimo.scheduler;
 
 import com.mimo.scheduler.aftertask.AfterTask;
-import java.lang.reflect.InvocationTargetException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -9,7 +8,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class Main {
 
-    public static void main(String[] args) throws InvocationTargetException, IllegalAccessException, InterruptedException {
+    public static void main(String[] args) {
 
         /// There needs to be a new Scheduler class declared to gain access to the library methods.
         /// The numThreads argument tell the scheduler how many tasks it can do at once. So numThreads = 2
@@ -30,10 +29,11 @@ public class Main {
         /// that has the name argument that matches the given eventName also gets executed. As long as the methods class
         /// is inside the classes list of the Scheduler instance which is why we added a class to the list with:
         /// scheduler.addCheckingClass(Main.class);
+        /// The method returns right away with a CompletableFuture, the event is fired once the task actually finished.
         scheduler.scheduleWithFixedDelay(1, TimeUnit.SECONDS, () -> printQuestion(), "dialogEvent");
 
         /// The previously declared Scheduler instance always needs to be shut down somewhere so the code can
-        /// stop and won't run infinitely after.
+        /// stop and won't run infinitely after. Tasks that are still waiting for their delay are run before it stops.
         scheduler.shutdown();
     }
 
@@ -41,7 +41,8 @@ public class Main {
     /// Because the value for name is the same as the eventName from the called method the
     /// printHello() method is going to execute after the printQuestion() method is finished running.
     /// For a method to be able to be called like this the method needs to be static and have
-    /// no parameters it can get elsewhere.
+    /// no parameters it can get elsewhere. Non-static methods work too once their instance was added
+    /// with scheduler.addListener(instance).
     @AfterTask(name = "dialogEvent")
     public static void printHello() {
         System.out.println("Hello!");
@@ -62,7 +63,9 @@ public class Main {
     }
 
     /// Here the method has the same name value as the eventName from the top which means it also gets invoked.
-    @AfterTask(name = "dialogEvent")
+    /// The order value makes it wait until printHello() finished, methods with the parallel value set to true
+    /// would instead run at the same time as the other methods with the same order.
+    @AfterTask(name = "dialogEvent", order = 1)
     public static void printBye() {
         System.out.println("Bye!");
     }
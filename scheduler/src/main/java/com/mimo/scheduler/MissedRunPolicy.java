@@ -0,0 +1,24 @@
+package com.mimo.scheduler;
+
+/**
+ * Decides what a {@link RepeatMode#FIXED_RATE} job does when a run finished after the next runs were already due,
+ * for example because the task took longer than its period or the executor was saturated.
+ * Runs of the same job never overlap.
+ */
+public enum MissedRunPolicy {
+
+    /**
+     * The missed runs are dropped and the job waits for the next run that is still in the future.
+     */
+    SKIP,
+
+    /**
+     * The missed runs are merged into a single run that starts right away. This is the default.
+     */
+    COALESCE,
+
+    /**
+     * Every missed run is executed, back to back, until the job caught up with its schedule.
+     */
+    CATCH_UP
+}
@@ -0,0 +1,36 @@
+package com.mimo.scheduler;
+
+/**
+ * Decides what a {@link Scheduler} does with a task that should run right away while the executor already holds
+ * {@link AdmissionLimits#getMaxPendingTasks()} tasks that did not start yet. Batches are not subject to it, they
+ * reach the executor as a few drainers and their tasks never wait in it.
+ */
+public enum OverloadPolicy {
+
+    /**
+     * Submitting the task throws a {@link java.util.concurrent.RejectedExecutionException}. This is the default.
+     */
+    REJECT,
+
+    /**
+     * The task runs on the submitting thread before the submit call returns, which slows the producer down.
+     */
+    CALLER_RUNS,
+
+    /**
+     * The submitting thread waits up to {@link AdmissionLimits#getBlockTimeout(java.util.concurrent.TimeUnit)} for a
+     * task to start, and the task is rejected when none did.
+     */
+    BLOCK,
+
+    /**
+     * The oldest task that did not start yet is cancelled to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The submit call returns right away and the task waits outside the executor until another task started.
+     * At most {@link AdmissionLimits#getMaxPendingTasks()} tasks wait at once, further tasks are rejected.
+     */
+    ASYNC
+}
@@ -0,0 +1,22 @@
+package com.mimo.scheduler;
+
+/**
+ * Decides what a {@link Scheduler} does with a task whose absolute deadline already passed when it is scheduled.
+ */
+public enum PastDeadlinePolicy {
+
+    /**
+     * The task is handed to the executor right away. This is the default.
+     */
+    RUN_IMMEDIATELY,
+
+    /**
+     * The task never runs and the returned future is already cancelled.
+     */
+    SKIP,
+
+    /**
+     * Scheduling the task throws an {@link IllegalArgumentException}.
+     */
+    REJECT
+}
@@ -0,0 +1,149 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes when the runs of a periodic job of a {@link Scheduler} are due.
+ * By default a schedule repeats forever at a {@link RepeatMode#FIXED_RATE}, starts one period from now and
+ * coalesces missed runs.
+ */
+public class PeriodicSchedule {
+    /**
+     * The number of repeats of a job that only stops when it is deleted.
+     */
+    public static final int UNBOUNDED = -1;
+
+    private final long period;
+    private final TimeUnit unit;
+    private long initialDelay;
+    private int numRepeats;
+    private RepeatMode repeatMode;
+    private MissedRunPolicy missedRunPolicy;
+
+
+    /**
+     * Creates a schedule with the given {@code period} between runs.
+     *
+     * @param period the time between two runs
+     * @param unit the {@code TimeUnit} of the period and the initial delay
+     *
+     * @throws IllegalArgumentException if the period is not positive
+     **/
+    public PeriodicSchedule(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0: " + period);
+        }
+        this.period = period;
+        this.unit = unit;
+        this.initialDelay = period;
+        this.numRepeats = UNBOUNDED;
+        this.repeatMode = RepeatMode.FIXED_RATE;
+        this.missedRunPolicy = MissedRunPolicy.COALESCE;
+    }
+
+
+    /**
+     * Returns the time between two runs in the {@link TimeUnit} of the schedule.
+     *
+     * @return the period
+     **/
+    public long getPeriod() {
+        return period;
+    }
+
+
+    /**
+     * Returns the {@link TimeUnit} of the period and the initial delay.
+     *
+     * @return the {@code TimeUnit} of the schedule
+     **/
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+
+    /**
+     * Sets the delay before the first run. By default the first run is one period from now.
+     *
+     * @param initialDelay the delay before the first run in the {@link TimeUnit} of the schedule
+     **/
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = Math.max(initialDelay, 0);
+    }
+
+
+    /**
+     * Returns the delay before the first run in the {@link TimeUnit} of the schedule.
+     *
+     * @return the initial delay
+     **/
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+
+    /**
+     * Sets how many runs the job executes before it completes, or {@link #UNBOUNDED} to repeat until it is deleted.
+     * A job with {@code 0} runs completes right away.
+     *
+     * @param numRepeats the number of runs
+     *
+     * @throws IllegalArgumentException if {@code numRepeats} is negative and not {@link #UNBOUNDED}
+     **/
+    public void setNumRepeats(int numRepeats) {
+        if (numRepeats < 0 && numRepeats != UNBOUNDED) {
+            throw new IllegalArgumentException("numRepeats must not be negative: " + numRepeats);
+        }
+        this.numRepeats = numRepeats;
+    }
+
+
+    /**
+     * Returns how many runs the job executes before it completes, or {@link #UNBOUNDED}.
+     *
+     * @return the number of runs
+     **/
+    public int getNumRepeats() {
+        return numRepeats;
+    }
+
+
+    /**
+     * Sets how the runs are placed in time.
+     *
+     * @param repeatMode the {@code RepeatMode} of the job
+     **/
+    public void setRepeatMode(RepeatMode repeatMode) {
+        this.repeatMode = repeatMode;
+    }
+
+
+    /**
+     * Returns how the runs are placed in time.
+     *
+     * @return the {@code RepeatMode} of the job
+     **/
+    public RepeatMode getRepeatMode() {
+        return repeatMode;
+    }
+
+
+    /**
+     * Sets what happens with runs of a {@link RepeatMode#FIXED_RATE} job that were missed.
+     *
+     * @param missedRunPolicy the {@code MissedRunPolicy} of the job
+     **/
+    public void setMissedRunPolicy(MissedRunPolicy missedRunPolicy) {
+        this.missedRunPolicy = missedRunPolicy;
+    }
+
+
+    /**
+     * Returns what happens with runs of a {@link RepeatMode#FIXED_RATE} job that were missed.
+     *
+     * @return the {@code MissedRunPolicy} of the job
+     **/
+    public MissedRunPolicy getMissedRunPolicy() {
+        return missedRunPolicy;
+    }
+}
@@ -0,0 +1,190 @@
+package com.mimo.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A directed acyclic graph of typed tasks that run on a {@link Scheduler}, created with {@link Scheduler#newPipeline()}.
+ * <p>
+ * Every {@link Stage} is a task that receives the results of the stages it was added with. Stages without inputs start
+ * as soon as the pipeline is started, and every other stage is submitted by the thread that completed its last input,
+ * so independent branches run in parallel and nothing blocks between stages. A stage that fails or gets cancelled
+ * cancels every stage that depends on it, while independent branches keep running.
+ * Stages can only be added to a pipeline that was not started yet, and only stages of the same pipeline are inputs.
+ */
+public final class Pipeline {
+    private final Scheduler scheduler;
+    private final List<Stage<?>> stages;
+    private boolean started;
+
+
+    Pipeline(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.stages = new ArrayList<>();
+    }
+
+
+    /**
+     * Adds a stage without inputs that starts as soon as the pipeline is started.
+     *
+     * @param task the {@code Callable<T>} of the stage
+     *
+     * @return the {@link Stage} that completes with the result of the task
+     **/
+    public synchronized <T> Stage<T> add(Callable<T> task) {
+        return add(List.of(), task);
+    }
+
+
+    /**
+     * Adds a stage that receives the result of the {@code input} once it completed.
+     *
+     * @param input the stage whose result the task receives
+     * @param task the function of the stage
+     *
+     * @return the {@link Stage} that completes with the result of the task
+     **/
+    public synchronized <A, T> Stage<T> then(Stage<A> input, StageFunction<? super A, ? extends T> task) {
+        return add(List.of(input), () -> task.apply(input.join()));
+    }
+
+
+    /**
+     * Adds a stage that receives the results of two stages once both completed.
+     *
+     * @param first the stage whose result is the first argument
+     * @param second the stage whose result is the second argument
+     * @param task the function of the stage
+     *
+     * @return the {@link Stage} that completes with the result of the task
+     **/
+    public synchronized <A, B, T> Stage<T> join(Stage<A> first, Stage<B> second,
+                                                StageBiFunction<? super A, ? super B, ? extends T> task) {
+        return add(List.of(first, second), () -> task.apply(first.join(), second.join()));
+    }
+
+
+    /**
+     * Adds a stage that receives the results of all {@code inputs}, in their order, once every one of them completed.
+     *
+     * @param inputs the stages whose results the task receives
+     * @param task the function of the stage
+     *
+     * @return the {@link Stage} that completes with the result of the task
+     **/
+    public synchronized <A, T> Stage<T> joinAll(List<? extends Stage<? extends A>> inputs,
+                                                StageFunction<? super List<A>, ? extends T> task) {
+        List<Stage<? extends A>> copy = List.copyOf(inputs);
+        return add(List.copyOf(copy), () -> {
+            List<A> results = new ArrayList<>(copy.size());
+            for (Stage<? extends A> input : copy) {
+                results.add(input.join());
+            }
+            return task.apply(results);
+        });
+    }
+
+
+    /**
+     * Returns the number of stages in the pipeline.
+     *
+     * @return the number of stages
+     **/
+    public synchronized int size() {
+        return stages.size();
+    }
+
+
+    /**
+     * Starts the pipeline. The returned future completes once every stage finished, exceptionally with the first
+     * failure if any stage failed. Cancelling it cancels every stage that did not finish yet.
+     *
+     * @return a {@link CompletableFuture} that completes when the whole pipeline finished
+     **/
+    public CompletableFuture<Void> start() {
+        List<Stage<?>> all;
+        synchronized (this) {
+            if (started) {
+                throw new IllegalStateException("The pipeline was already started");
+            }
+            started = true;
+            all = List.copyOf(stages);
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(all.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (Stage<?> stage : all) {
+            stage.whenComplete((ignored, throwable) -> {
+                if (throwable != null && !(throwable instanceof CancellationException)) {
+                    failure.compareAndSet(null, throwable);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (failure.get() != null) {
+                        completion.completeExceptionally(failure.get());
+                    } else if (all.stream().anyMatch(CompletableFuture::isCancelled)) {
+                        completion.cancel(false);
+                    } else {
+                        completion.complete(null);
+                    }
+                }
+            });
+        }
+        completion.whenComplete((ignored, throwable) -> {
+            if (completion.isCancelled()) {
+                all.forEach(stage -> stage.cancel(false));
+            }
+        });
+        if (all.isEmpty()) {
+            completion.complete(null);
+        }
+        for (Stage<?> stage : all) {
+            stage.launch(scheduler);
+        }
+        return completion;
+    }
+
+
+    private <T> Stage<T> add(List<Stage<?>> inputs, Callable<? extends T> task) {
+        if (started) {
+            throw new IllegalStateException("Stages can not be added to a started pipeline");
+        }
+        for (Stage<?> input : inputs) {
+            if (input.getPipeline() != this) {
+                throw new IllegalArgumentException("The input stage belongs to another pipeline");
+            }
+        }
+        Stage<T> stage = new Stage<>(this, inputs, task::call);
+        stages.add(stage);
+        return stage;
+    }
+
+
+    /**
+     * The task of a stage with a single input, which may throw like a {@link Callable}.
+     *
+     * @param <A> the result type of the input
+     * @param <T> the result type of the stage
+     */
+    @FunctionalInterface
+    public interface StageFunction<A, T> {
+        T apply(A input) throws Exception;
+    }
+
+
+    /**
+     * The task of a stage with two inputs, which may throw like a {@link Callable}.
+     *
+     * @param <A> the result type of the first input
+     * @param <B> the result type of the second input
+     * @param <T> the result type of the stage
+     */
+    @FunctionalInterface
+    public interface StageBiFunction<A, B, T> {
+        T apply(A first, B second) throws Exception;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mimo.scheduler;
+
+/**
+ * A decision of {@link AdaptivePoolSizing} to change the number of workers of a {@link Scheduler}.
+ *
+ * @param previousSize the number of workers before the decision
+ * @param newSize the number of workers after the decision
+ * @param queueLagNanos the estimated time a new task waited for a worker, or {@code Long.MAX_VALUE} if tasks were
+ *                      queued but none finished during the sample
+ * @param throughput the number of tasks that finished per second during the sample
+ */
+public record PoolResize(int previousSize, int newSize, long queueLagNanos, double throughput) {
+}
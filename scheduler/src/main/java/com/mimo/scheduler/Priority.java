@@ -0,0 +1,30 @@
+package com.mimo.scheduler;
+
+/**
+ * The class of a task that decides how urgently a {@link Scheduler} runs it once it is ready.
+ * Ready tasks of a more urgent class start before those of a less urgent class, and within a class the task with
+ * the earliest deadline starts first. Tasks that waited long enough are aged into more urgent classes, see
+ * {@link Scheduler#setPriorityAging(long, java.util.concurrent.TimeUnit)}.
+ */
+public enum Priority {
+
+    /**
+     * For latency sensitive tasks that start before every other task.
+     */
+    CRITICAL,
+
+    /**
+     * For tasks that start before normal ones.
+     */
+    HIGH,
+
+    /**
+     * The class of every task that was submitted without a priority.
+     */
+    NORMAL,
+
+    /**
+     * For background and bulk work that only starts when no more urgent task is ready.
+     */
+    LOW
+}
@@ -0,0 +1,111 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often the tasks of a key start, for example to respect the quota of a downstream system.
+ * <p>
+ * The limit allows {@code permits} tasks per {@code period}, spaced evenly, and up to {@code burst} tasks at once
+ * after the key was idle. A task that arrives too early is not held on a worker thread, it waits inside the timer
+ * until its turn. Tasks that would wait longer than the {@code maxDelay} are rejected instead.
+ * <p>
+ * A {@link Scheduler} takes over the values of the limit when it is set, so changes made afterwards only apply once
+ * the limit is set again with {@link Scheduler#setRateLimit(Object, RateLimit)}.
+ */
+public class RateLimit {
+    private final long permits;
+    private final long periodNanos;
+    private int burst;
+    private long maxDelayNanos;
+
+
+    /**
+     * Creates a limit of {@code permits} tasks per {@code period} without bursts and without a maximum delay.
+     *
+     * @param permits the number of tasks that may start per period
+     * @param period the length of the period
+     * @param unit the {@code TimeUnit} of the period
+     *
+     * @throws IllegalArgumentException if {@code permits} or {@code period} is not positive
+     **/
+    public RateLimit(long permits, long period, TimeUnit unit) {
+        if (permits < 1 || period < 1) {
+            throw new IllegalArgumentException("permits and period must be greater than 0: " + permits + ", " + period);
+        }
+        this.permits = permits;
+        this.periodNanos = unit.toNanos(period);
+        this.burst = 1;
+        this.maxDelayNanos = Long.MAX_VALUE;
+    }
+
+
+    /**
+     * Returns the number of tasks that may start per period.
+     *
+     * @return the permits per period
+     **/
+    public long getPermits() {
+        return permits;
+    }
+
+
+    /**
+     * Returns the length of the period.
+     *
+     * @param unit the {@code TimeUnit} of the returned period
+     *
+     * @return the period
+     **/
+    public long getPeriod(TimeUnit unit) {
+        return unit.convert(periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets how many tasks may start at once after the key was idle. With the default of {@code 1} tasks always start
+     * at least one period divided by the permits apart.
+     *
+     * @param burst the number of tasks that may start at once
+     *
+     * @throws IllegalArgumentException if {@code burst} is not positive
+     **/
+    public void setBurst(int burst) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be greater than 0: " + burst);
+        }
+        this.burst = burst;
+    }
+
+
+    /**
+     * Returns how many tasks may start at once after the key was idle.
+     *
+     * @return the burst size
+     **/
+    public int getBurst() {
+        return burst;
+    }
+
+
+    /**
+     * Sets how long a task may wait for its turn before it is rejected. By default tasks wait as long as needed.
+     *
+     * @param maxDelay the longest time a task waits for its turn
+     * @param unit the {@code TimeUnit} of the maximum delay
+     **/
+    public void setMaxDelay(long maxDelay, TimeUnit unit) {
+        this.maxDelayNanos = unit.toNanos(Math.max(maxDelay, 0));
+    }
+
+
+    /**
+     * Returns how long a task may wait for its turn before it is rejected.
+     *
+     * @param unit the {@code TimeUnit} of the returned delay
+     *
+     * @return the maximum delay, or {@code Long.MAX_VALUE} nanoseconds converted to the unit if tasks wait as long as needed
+     **/
+    public long getMaxDelay(TimeUnit unit) {
+        return unit.convert(maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+}
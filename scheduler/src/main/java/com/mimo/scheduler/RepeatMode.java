@@ -0,0 +1,18 @@
+package com.mimo.scheduler;
+
+/**
+ * Describes how a periodic job of a {@link Scheduler} places its runs in time.
+ */
+public enum RepeatMode {
+
+    /**
+     * Run {@code n} is due at the start time plus {@code n} periods, no matter how long the runs take.
+     * The rate does not drift, and runs that could not start in time are handled by the {@link MissedRunPolicy}.
+     */
+    FIXED_RATE,
+
+    /**
+     * Every run is due one period after the previous run finished.
+     */
+    FIXED_DELAY
+}
@@ -0,0 +1,55 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the results of {@link Scheduler#runShared(Object, java.util.concurrent.Callable)} after they completed, so
+ * later calls with the same key reuse them instead of running the task again.
+ * <p>
+ * A result stays for the {@code timeToLive} after it completed. Once more than {@code maxEntries} results are kept,
+ * the oldest ones are evicted first. Failed tasks are never kept, the next call runs the task again.
+ */
+public class ResultCaching {
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+
+
+    /**
+     * Creates a caching that keeps at most {@code maxEntries} results for the given time each.
+     *
+     * @param maxEntries the largest number of kept results
+     * @param timeToLive how long a result is kept after it completed
+     * @param unit the {@code TimeUnit} of the time to live
+     *
+     * @throws IllegalArgumentException if {@code maxEntries} or {@code timeToLive} is not positive
+     **/
+    public ResultCaching(int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries < 1 || timeToLive < 1) {
+            throw new IllegalArgumentException("maxEntries and timeToLive must be greater than 0: " + maxEntries + ", " + timeToLive);
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+
+    /**
+     * Returns the largest number of kept results.
+     *
+     * @return the maximum number of entries
+     **/
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+
+    /**
+     * Returns how long a result is kept after it completed.
+     *
+     * @param unit the {@code TimeUnit} of the returned time
+     *
+     * @return the time to live
+     **/
+    public long getTimeToLive(TimeUnit unit) {
+        return unit.convert(timeToLiveNanos, TimeUnit.NANOSECONDS);
+    }
+}
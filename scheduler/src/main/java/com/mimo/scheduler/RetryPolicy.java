@@ -0,0 +1,210 @@
+package com.mimo.scheduler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Decides whether and when a failed task of {@link Scheduler#runWithRetry(RetryPolicy, java.util.concurrent.Callable)}
+ * runs again.
+ * <p>
+ * A task runs at most {@code maxAttempts} times. After a failure that the retry predicate accepts, the next attempt
+ * waits inside the timer for the delay of the {@link Backoff}, so no worker thread is held in between. No attempt
+ * starts after the overall deadline, which counts from the submission of the task.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private Backoff backoff;
+    private long initialDelayNanos;
+    private long maxDelayNanos;
+    private double multiplier;
+    private long deadlineNanos;
+    private Predicate<Throwable> retryOn;
+
+
+    /**
+     * Creates a policy of at most {@code maxAttempts} attempts with an exponential backoff that starts at
+     * 100 milliseconds, doubles after every attempt and stops growing at 30 seconds. Every {@link Exception}
+     * is retried and there is no overall deadline.
+     *
+     * @param maxAttempts the largest number of attempts, including the first one
+     *
+     * @throws IllegalArgumentException if {@code maxAttempts} is not positive
+     **/
+    public RetryPolicy(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoff = Backoff.EXPONENTIAL;
+        this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        this.maxDelayNanos = TimeUnit.SECONDS.toNanos(30);
+        this.multiplier = 2;
+        this.deadlineNanos = Long.MAX_VALUE;
+        this.retryOn = failure -> failure instanceof Exception;
+    }
+
+
+    /**
+     * Returns the largest number of attempts, including the first one.
+     *
+     * @return the maximum number of attempts
+     **/
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+
+    /**
+     * Sets how the delay between two attempts is chosen.
+     *
+     * @param backoff the {@code Backoff} of the policy
+     **/
+    public void setBackoff(Backoff backoff) {
+        this.backoff = backoff;
+    }
+
+
+    /**
+     * Returns how the delay between two attempts is chosen.
+     *
+     * @return the {@link Backoff} of the policy
+     **/
+    public Backoff getBackoff() {
+        return backoff;
+    }
+
+
+    /**
+     * Sets the delay before the second attempt and the cap of every delay.
+     *
+     * @param initialDelay the delay before the second attempt
+     * @param maxDelay the longest delay between two attempts
+     * @param unit the {@code TimeUnit} of both delays
+     *
+     * @throws IllegalArgumentException if {@code initialDelay} is negative or greater than {@code maxDelay}
+     **/
+    public void setDelays(long initialDelay, long maxDelay, TimeUnit unit) {
+        if (initialDelay < 0 || initialDelay > maxDelay) {
+            throw new IllegalArgumentException("Delays must satisfy 0 <= initialDelay <= maxDelay: " + initialDelay + ", " + maxDelay);
+        }
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+
+    /**
+     * Returns the delay before the second attempt.
+     *
+     * @param unit the {@code TimeUnit} of the returned delay
+     *
+     * @return the initial delay
+     **/
+    public long getInitialDelay(TimeUnit unit) {
+        return unit.convert(initialDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Returns the longest delay between two attempts.
+     *
+     * @param unit the {@code TimeUnit} of the returned delay
+     *
+     * @return the maximum delay
+     **/
+    public long getMaxDelay(TimeUnit unit) {
+        return unit.convert(maxDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets the factor by which the delay of {@link Backoff#EXPONENTIAL} and {@link Backoff#FULL_JITTER} grows after
+     * every attempt.
+     *
+     * @param multiplier the growth factor, at least {@code 1}
+     *
+     * @throws IllegalArgumentException if {@code multiplier} is less than {@code 1}
+     **/
+    public void setMultiplier(double multiplier) {
+        if (!(multiplier >= 1)) {
+            throw new IllegalArgumentException("multiplier must be at least 1: " + multiplier);
+        }
+        this.multiplier = multiplier;
+    }
+
+
+    /**
+     * Returns the factor by which the exponential delay grows after every attempt.
+     *
+     * @return the growth factor
+     **/
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+
+    /**
+     * Sets the time after the submission from which no further attempt starts. The last failure is reported instead.
+     *
+     * @param deadline the time after the submission
+     * @param unit the {@code TimeUnit} of the deadline
+     **/
+    public void setDeadline(long deadline, TimeUnit unit) {
+        this.deadlineNanos = unit.toNanos(Math.max(deadline, 0));
+    }
+
+
+    /**
+     * Returns the time after the submission from which no further attempt starts.
+     *
+     * @param unit the {@code TimeUnit} of the returned deadline
+     *
+     * @return the deadline, or {@code Long.MAX_VALUE} nanoseconds converted to the unit if there is none
+     **/
+    public long getDeadline(TimeUnit unit) {
+        return unit.convert(deadlineNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Sets which failures are retried. Failures the predicate rejects are reported right away.
+     *
+     * @param retryOn the {@code Predicate} that accepts the failures to retry
+     **/
+    public void setRetryOn(Predicate<Throwable> retryOn) {
+        this.retryOn = retryOn;
+    }
+
+
+    /**
+     * Returns which failures are retried.
+     *
+     * @return the {@code Predicate} that accepts the failures to retry
+     **/
+    public Predicate<Throwable> getRetryOn() {
+        return retryOn;
+    }
+
+
+    /**
+     * Returns the delay in nanoseconds before the attempt after the given one.
+     *
+     * @param attempt the number of the attempt that just failed, starting at {@code 1}
+     * @param previousDelay the delay before that attempt in nanoseconds, {@code 0} for the first attempt
+     *
+     * @return the delay before the next attempt in nanoseconds
+     **/
+    public long nextDelay(int attempt, long previousDelay) {
+        double exponential = Math.min(initialDelayNanos * Math.pow(multiplier, attempt - 1), maxDelayNanos);
+        return switch (backoff) {
+            case EXPONENTIAL -> (long) exponential;
+            case FULL_JITTER -> (long) (ThreadLocalRandom.current().nextDouble() * exponential);
+            case DECORRELATED_JITTER -> {
+                long lower = Math.max(previousDelay, initialDelayNanos);
+                /// The bound of nextLong is exclusive, so a saturated maximum has to leave room for the + 1.
+                long upper = Math.min(lower > maxDelayNanos / 3 ? maxDelayNanos : lower * 3, Long.MAX_VALUE - 1);
+                yield upper > initialDelayNanos ? ThreadLocalRandom.current().nextLong(initialDelayNanos, upper + 1) : upper;
+            }
+        };
+    }
+}
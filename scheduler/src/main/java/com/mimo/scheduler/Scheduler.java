@@ -0,0 +1,2239 @@
+package com.mimo.scheduler;
+
+import com.mimo.scheduler.cluster.ClusterNode;
+import com.mimo.scheduler.cron.CronExpression;
+import com.mimo.scheduler.internal.AdmissionController;
+import com.mimo.scheduler.internal.AfterTaskExecutor;
+import com.mimo.scheduler.internal.ConcurrencyLimitedExecutor;
+import com.mimo.scheduler.internal.CronTask;
+import com.mimo.scheduler.internal.DeadlineScheduler;
+import com.mimo.scheduler.internal.KeyedTasks;
+import com.mimo.scheduler.internal.PeriodicTask;
+import com.mimo.scheduler.internal.PoolSizeController;
+import com.mimo.scheduler.internal.PriorityDispatcher;
+import com.mimo.scheduler.internal.RateLimiter;
+import com.mimo.scheduler.internal.RetryingTask;
+import com.mimo.scheduler.internal.ScheduledTask;
+import com.mimo.scheduler.internal.ShardedExecutor;
+import com.mimo.scheduler.internal.SharedResults;
+import com.mimo.scheduler.internal.TaskBatch;
+import com.mimo.scheduler.journal.JobDescriptor;
+import com.mimo.scheduler.journal.JobJournal;
+import com.mimo.scheduler.journal.PendingJob;
+import com.mimo.scheduler.metrics.LatencyHistogram;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.PrecisionTimerEngine;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import com.mimo.scheduler.timer.ShardedTimerEngine;
+import com.mimo.scheduler.timer.Timeout;
+import com.mimo.scheduler.timer.TimerEngine;
+
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+public class Scheduler {
+    private final ExecutorService executor;
+    private final ExecutionMode executionMode;
+    private final int numThreads;
+    private final TimerEngine timerEngine;
+    private final DeadlineScheduler deadlineScheduler;
+    private final KeyedTasks keyedTasks;
+    private final SchedulerMetrics metrics;
+    private final PriorityDispatcher priorityDispatcher;
+    private final Executor readyExecutor;
+    private final Map<String, Consumer<byte[]>> jobHandlers;
+    private final Set<Long> armedJobs;
+    private final Map<Object, RateLimiter> rateLimiters;
+    private final SharedResults sharedResults;
+    private final AfterTaskExecutor afterTaskExecutor;
+    private volatile Executor eventExecutor;
+    private volatile PastDeadlinePolicy pastDeadlinePolicy;
+    private volatile JobJournal journal;
+    private volatile ClusterNode cluster;
+    private volatile AdmissionLimits admissionLimits;
+    private volatile AdmissionController admission;
+    private final List<AdmissionController> replacedAdmissions;
+    private volatile boolean priorityDispatch;
+    private volatile PrecisionTimerEngine precisionTimer;
+    private volatile AdaptivePoolSizing adaptivePoolSizing;
+    private PoolSizeController poolSizeController;
+    final ArrayList<Class<?>> classes;
+
+
+    /**
+     * Creates a {@code Scheduler} that runs its tasks on {@code numThreads} platform threads.
+     *
+     * @param numThreads the number of tasks the scheduler can run at once
+     **/
+    public Scheduler(int numThreads) {
+        this(numThreads, ExecutionMode.PLATFORM);
+    }
+
+
+    /**
+     * Creates a {@code Scheduler} that runs its tasks on {@code numThreads} platform threads and keeps its
+     * delayed tasks inside the given {@link TimerEngine}.
+     * Once a delay passed the task is handed to the executor of the {@code Scheduler}.
+     * The {@code Scheduler} shuts the {@code TimerEngine} down when it is shut down itself.
+     *
+     * @param numThreads the number of tasks the scheduler can run at once
+     * @param timerEngine the {@code TimerEngine} that keeps track of the delayed tasks
+     **/
+    public Scheduler(int numThreads, TimerEngine timerEngine) {
+        this(numThreads, ExecutionMode.PLATFORM, timerEngine);
+    }
+
+
+    /**
+     * Creates a {@code Scheduler} that runs its tasks in the given {@link ExecutionMode}.
+     * The delays are kept by a single platform thread which hands due tasks over to the executor,
+     * or by one {@link ShardedTimerEngine} shard per thread in {@link ExecutionMode#SHARDED}.
+     *
+     * @param numThreads the number of tasks the scheduler can run at once
+     * @param executionMode the {@code ExecutionMode} that decides on which threads tasks run
+     **/
+    public Scheduler(int numThreads, ExecutionMode executionMode) {
+        this(numThreads, executionMode, executionMode == ExecutionMode.SHARDED
+                ? new ShardedTimerEngine(Math.max(numThreads, 1)) : new ScheduledExecutorTimerEngine());
+    }
+
+
+    /**
+     * Creates a {@code Scheduler} that runs its tasks in the given {@link ExecutionMode} and keeps its
+     * delayed tasks inside the given {@link TimerEngine}.
+     * The {@code Scheduler} shuts the {@code TimerEngine} down when it is shut down itself.
+     *
+     * @param numThreads the number of tasks the scheduler can run at once
+     * @param executionMode the {@code ExecutionMode} that decides on which threads tasks run
+     * @param timerEngine the {@code TimerEngine} that keeps track of the delayed tasks
+     **/
+    public Scheduler(int numThreads, ExecutionMode executionMode, TimerEngine timerEngine) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be greater than 0: " + numThreads);
+        }
+        this.executionMode = executionMode;
+        this.numThreads = numThreads;
+        this.executor = switch (executionMode) {
+            case PLATFORM -> Executors.newFixedThreadPool(numThreads);
+            case VIRTUAL -> new ConcurrencyLimitedExecutor(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("scheduler-virtual-", 0).factory()), numThreads);
+            case SHARDED -> new ShardedExecutor(numThreads, "scheduler-shard-");
+        };
+        this.timerEngine = timerEngine;
+        this.metrics = new SchedulerMetrics(timerEngine, executor);
+        this.priorityDispatcher = new PriorityDispatcher(executor, metrics, TimeUnit.MILLISECONDS.toNanos(100));
+        this.readyExecutor = command -> readyTarget().execute(command);
+        this.deadlineScheduler = new DeadlineScheduler(timerEngine, readyExecutor, Clock.systemDefaultZone());
+        this.keyedTasks = new KeyedTasks(timerEngine, readyExecutor, metrics, this::admitTimer);
+        this.jobHandlers = new ConcurrentHashMap<>();
+        this.armedJobs = ConcurrentHashMap.newKeySet();
+        this.rateLimiters = new ConcurrentHashMap<>();
+        this.sharedResults = new SharedResults(metrics);
+        this.replacedAdmissions = new ArrayList<>();
+        this.pastDeadlinePolicy = PastDeadlinePolicy.RUN_IMMEDIATELY;
+        afterTaskExecutor = new AfterTaskExecutor();
+        afterTaskExecutor.setMetrics(metrics);
+        eventExecutor = executor;
+        classes = new ArrayList<>();
+    }
+
+
+    /**
+     * Sets the {@code classes} attribute of the {@code Scheduler} class.
+     * The {@link com.mimo.scheduler.aftertask.AfterTask} methods of the class are indexed right away.
+     **/
+    public void setCheckingClasses(Class<?> clazzes) {
+        clearCheckingClasses();
+        addCheckingClass(clazzes);
+    }
+
+
+    /**
+     * Returns an {@link ArrayList} with {@link Class} instances inside from
+     * the {@code classes} attribute of the {@code Scheduler} class.
+     * The returned list is a copy, use {@link #addCheckingClass(Class)} to change the {@code classes} attribute.
+     *
+     * @return a copy of the {@code classes} attribute from the {@code Scheduler}
+     **/
+    public ArrayList<Class<?>> getCheckingClasses() {
+        return new ArrayList<>(this.classes);
+    }
+
+
+    /**
+     * Adds {@link Class} instances to the {@code classes} attribute of the {@code Scheduler} class.
+     * The static {@link com.mimo.scheduler.aftertask.AfterTask} methods of the class are indexed right away,
+     * so firing an event later on does not need to look through the classes again.
+     *
+     * @throws IllegalArgumentException if an annotated method has parameters or is not accessible
+     **/
+    public void addCheckingClass(Class<?> clazz) {
+        afterTaskExecutor.register(clazz);
+        this.classes.add(clazz);
+    }
+
+
+    /**
+     * Clears the {@code classes} attribute of the {@code Scheduler} class.
+     * */
+    public void clearCheckingClasses(){
+        this.classes.clear();
+        afterTaskExecutor.clear();
+    }
+
+
+    /**
+     * Adds a listener instance whose non-static {@link com.mimo.scheduler.aftertask.AfterTask} methods are invoked
+     * whenever their event is fired, bound to the instance. The methods its class inherits from its superclasses are
+     * found as well, and the listener stays registered until it is removed, also when the classes are cleared.
+     *
+     * @param listener the instance whose methods listen to events
+     *
+     * @throws IllegalArgumentException if the class of the listener declares no instance {@code AfterTask} methods,
+     * or an annotated method has parameters or is not accessible
+     **/
+    public void addListener(Object listener) {
+        afterTaskExecutor.addListener(listener);
+    }
+
+
+    /**
+     * Removes a listener instance that was added with {@link #addListener(Object)}.
+     *
+     * @param listener the instance to remove
+     *
+     * @return {@code true} if the listener was registered
+     **/
+    public boolean removeListener(Object listener) {
+        return afterTaskExecutor.removeListener(listener);
+    }
+
+
+    /**
+     * Returns an int for the size of the {@code classes} attribute of the {@code Scheduler} class.
+     *
+     * @return the size of the {@code classes} attribute
+     * */
+    public int getCheckingClassesSize() {
+        return this.classes.size();
+    }
+
+
+    /**
+     * Returns the {@link ExecutorService} from the {@code Scheduler} class, on which every task runs.
+     *
+     * @return an {@link ExecutorService} instance
+     **/
+    public ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+
+    /**
+     * Returns the {@link ExecutionMode} from the {@code Scheduler} class.
+     *
+     * @return the {@code ExecutionMode} the scheduler was created with
+     **/
+    public ExecutionMode getExecutionMode() {
+        return this.executionMode;
+    }
+
+
+    /**
+     * Returns the number of workers the {@code Scheduler} runs its tasks with right now. It starts at
+     * {@code numThreads} and only changes with {@link #setAdaptivePoolSizing(AdaptivePoolSizing)}.
+     *
+     * @return the current pool size
+     **/
+    public int getPoolSize() {
+        return PoolSizeController.poolSize(executor);
+    }
+
+
+    /**
+     * Returns the {@link TimerEngine} from the {@code Scheduler} class.
+     *
+     * @return a {@link TimerEngine} instance
+     **/
+    public TimerEngine getTimerEngine() {
+        return this.timerEngine;
+    }
+
+
+    /**
+     * Opts {@code scheduleWithFixedDelay} and the periodic jobs into the given {@link PrecisionTimerEngine}, which spins
+     * before every deadline for sub-millisecond accuracy. All other delays stay on the regular {@link TimerEngine}.
+     * Jobs that were scheduled before keep their engine. A replaced engine is shut down once its timeouts expired, and
+     * the {@code Scheduler} shuts the engine down when it is shut down itself.
+     *
+     * @param precisionTimer the {@code PrecisionTimerEngine}, or {@code null} to keep every delay on the regular engine
+     **/
+    public synchronized void setPrecisionTimer(PrecisionTimerEngine precisionTimer) {
+        PrecisionTimerEngine previous = this.precisionTimer;
+        this.precisionTimer = precisionTimer;
+        if (previous != null && previous != precisionTimer) {
+            previous.shutdown();
+        }
+    }
+
+
+    /**
+     * Returns the {@link PrecisionTimerEngine} of the {@code Scheduler}, whose jitter shows the accuracy of the
+     * precise jobs, or {@code null} if none was set.
+     *
+     * @return a {@link PrecisionTimerEngine} instance
+     **/
+    public PrecisionTimerEngine getPrecisionTimer() {
+        return this.precisionTimer;
+    }
+
+
+    /**
+     * Sets the {@link Executor} on which the {@link com.mimo.scheduler.aftertask.AfterTask} methods of fired events
+     * are invoked. By default the executor of the {@code Scheduler} is used.
+     *
+     * @param eventExecutor the {@code Executor} to invoke the event methods on
+     **/
+    public void setEventExecutor(Executor eventExecutor) {
+        this.eventExecutor = eventExecutor;
+    }
+
+
+    /**
+     * Returns the {@link Executor} on which the {@link com.mimo.scheduler.aftertask.AfterTask} methods of fired events are invoked.
+     *
+     * @return an {@link Executor} instance
+     **/
+    public Executor getEventExecutor() {
+        return this.eventExecutor;
+    }
+
+
+    /**
+     * Sets the {@link Clock} that absolute deadlines are compared against. Tasks that already wait for their
+     * deadline are re-armed against the new clock. By default the system clock in the system time zone is used.
+     *
+     * @param clock the {@code Clock} for absolute deadlines
+     **/
+    public void setClock(Clock clock) {
+        deadlineScheduler.setClock(clock);
+    }
+
+
+    /**
+     * Returns the {@link Clock} that absolute deadlines are compared against.
+     *
+     * @return a {@link Clock} instance
+     **/
+    public Clock getClock() {
+        return deadlineScheduler.getClock();
+    }
+
+
+    /**
+     * Sets the {@link PastDeadlinePolicy} that decides what happens with tasks whose absolute deadline already passed.
+     *
+     * @param pastDeadlinePolicy the {@code PastDeadlinePolicy} for deadlines in the past
+     **/
+    public void setPastDeadlinePolicy(PastDeadlinePolicy pastDeadlinePolicy) {
+        this.pastDeadlinePolicy = pastDeadlinePolicy;
+    }
+
+
+    /**
+     * Returns the {@link PastDeadlinePolicy} that decides what happens with tasks whose absolute deadline already passed.
+     *
+     * @return the {@code PastDeadlinePolicy} for deadlines in the past
+     **/
+    public PastDeadlinePolicy getPastDeadlinePolicy() {
+        return this.pastDeadlinePolicy;
+    }
+
+
+    /**
+     * Sets the {@link AdmissionLimits} that bound the tasks waiting for the executor and the pending timers.
+     * Tasks that were accepted before keep the limits they were accepted with. By default nothing is limited.
+     * <p>
+     * Batches of {@link #runAll(Collection)} and {@link #scheduleAll(long, TimeUnit, Collection)} are exempt from the
+     * {@code maxPendingTasks}, since a batch reaches the executor as at most {@code numThreads} drainers and its tasks
+     * never wait in the executor. Delayed batches and keyed tasks count against the {@code maxPendingTimers} like
+     * every other timer.
+     *
+     * @param admissionLimits the {@code AdmissionLimits}, or {@code null} to remove the limits
+     **/
+    public synchronized void setAdmissionLimits(AdmissionLimits admissionLimits) {
+        AdmissionController previous = this.admission;
+        this.admissionLimits = admissionLimits;
+        this.admission = admissionLimits == null || admissionLimits.getMaxPendingTasks() == AdmissionLimits.UNBOUNDED
+                ? null : new AdmissionController(admissionLimits, metrics);
+        /// Tasks may still wait in a replaced controller, so a shutdown has to find them there.
+        replacedAdmissions.removeIf(replaced -> !replaced.hasWaiting());
+        if (previous != null) {
+            replacedAdmissions.add(previous);
+        }
+    }
+
+
+    /**
+     * Returns the {@link AdmissionLimits} of the {@code Scheduler}, or {@code null} if nothing is limited.
+     *
+     * @return an {@link AdmissionLimits} instance
+     **/
+    public AdmissionLimits getAdmissionLimits() {
+        return this.admissionLimits;
+    }
+
+
+    /**
+     * Sets the {@link RateLimit} of the tasks that are submitted with {@link #runRateLimited(Object, Runnable)} under
+     * the given {@code key}. Replacing a limit starts the key over, tasks that already wait keep their turn.
+     * The values of the {@code rateLimit} are read once here, changing it later needs another call of this method.
+     *
+     * @param key the key that identifies the rate limited group, for example a downstream system
+     * @param rateLimit the {@code RateLimit} of the key, or {@code null} to remove it
+     **/
+    public void setRateLimit(Object key, RateLimit rateLimit) {
+        if (rateLimit == null) {
+            rateLimiters.remove(key);
+        } else {
+            rateLimiters.put(key, new RateLimiter(rateLimit));
+        }
+    }
+
+
+    /**
+     * Returns the {@link RateLimit} of the given {@code key}, or {@code null} if the key is not limited.
+     *
+     * @param key the key that identifies the rate limited group
+     *
+     * @return a {@link RateLimit} instance
+     **/
+    public RateLimit getRateLimit(Object key) {
+        RateLimiter limiter = rateLimiters.get(key);
+        return limiter == null ? null : limiter.getLimit();
+    }
+
+
+    /**
+     * Sets the {@link ResultCaching} that keeps the results of {@link #runShared(Object, Callable)} after they
+     * completed. Replacing it drops every kept result. By default results are only shared while their task runs.
+     *
+     * @param resultCaching the {@code ResultCaching}, or {@code null} to keep no results
+     **/
+    public void setResultCaching(ResultCaching resultCaching) {
+        sharedResults.setCaching(resultCaching);
+    }
+
+
+    /**
+     * Returns the {@link ResultCaching} of the {@code Scheduler}, or {@code null} if no results are kept.
+     *
+     * @return a {@link ResultCaching} instance
+     **/
+    public ResultCaching getResultCaching() {
+        return sharedResults.getCaching();
+    }
+
+
+    /**
+     * Lets the worker pool grow and shrink with the load within the bounds of the given {@link AdaptivePoolSizing}.
+     * The pool is moved into the bounds right away. Removing the sizing restores {@code numThreads} workers.
+     * Only {@link ExecutionMode#PLATFORM} and {@link ExecutionMode#VIRTUAL} can be resized, the shards of
+     * {@link ExecutionMode#SHARDED} are bound to the shards of their timer.
+     *
+     * @param adaptivePoolSizing the {@code AdaptivePoolSizing}, or {@code null} to return to a fixed size
+     *
+     * @throws UnsupportedOperationException if the scheduler runs in {@link ExecutionMode#SHARDED}
+     **/
+    public synchronized void setAdaptivePoolSizing(AdaptivePoolSizing adaptivePoolSizing) {
+        PoolSizeController next = adaptivePoolSizing == null ? null
+                : new PoolSizeController(executor, timerEngine, adaptivePoolSizing, metrics);
+        if (poolSizeController != null) {
+            poolSizeController.stop();
+        }
+        this.poolSizeController = next;
+        this.adaptivePoolSizing = adaptivePoolSizing;
+        if (next != null) {
+            next.start();
+        } else if (PoolSizeController.supports(executor)) {
+            PoolSizeController.resize(executor, numThreads);
+        }
+    }
+
+
+    /**
+     * Returns the {@link AdaptivePoolSizing} of the {@code Scheduler}, or {@code null} if the pool has a fixed size.
+     *
+     * @return an {@link AdaptivePoolSizing} instance
+     **/
+    public AdaptivePoolSizing getAdaptivePoolSizing() {
+        return this.adaptivePoolSizing;
+    }
+
+
+    /**
+     * Turns priority dispatch for every ready task on or off. Tasks that are submitted with a {@link Priority} are
+     * always ordered by it, but while priority dispatch is off all other tasks go straight to the executor and
+     * queue there in FIFO order, so an urgent task still waits behind them. With priority dispatch on, tasks without a
+     * priority, delayed tasks, keyed tasks and the runs of periodic and cron jobs are ordered as {@link Priority#NORMAL}
+     * tasks, at the cost of one concurrent skip list insertion and removal per task. A batch is ordered by its
+     * drainers, each of which runs tasks of the batch until it is exhausted. Priority dispatch is off by default.
+     *
+     * @param priorityDispatch whether every ready task is ordered by priority
+     **/
+    public void setPriorityDispatch(boolean priorityDispatch) {
+        this.priorityDispatch = priorityDispatch;
+    }
+
+
+    /**
+     * Returns whether every ready task is ordered by priority.
+     *
+     * @return {@code true} if priority dispatch is on
+     **/
+    public boolean isPriorityDispatch() {
+        return this.priorityDispatch;
+    }
+
+
+    /**
+     * Sets the aging step of priority dispatch. A ready task counts as one {@link Priority} more urgent for every
+     * step it waited, so tasks of a less urgent class can not starve while more urgent tasks keep arriving.
+     * A {@link Priority#LOW} task that waited three steps competes with a {@link Priority#CRITICAL} task that just
+     * became ready. The default is 100 milliseconds.
+     *
+     * @param agingStep the time a task has to wait to count as one class more urgent
+     * @param unit the {@code TimeUnit} to describe the aging step
+     **/
+    public void setPriorityAging(long agingStep, TimeUnit unit) {
+        priorityDispatcher.setAging(unit.toNanos(agingStep));
+    }
+
+
+    /**
+     * Returns the aging step of priority dispatch in the given {@link TimeUnit}.
+     *
+     * @param unit the {@code TimeUnit} of the returned aging step
+     *
+     * @return the time a task has to wait to count as one class more urgent
+     **/
+    public long getPriorityAging(TimeUnit unit) {
+        return unit.convert(priorityDispatcher.getAging(), TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Returns the {@link SchedulerMetrics} of the {@code Scheduler}, which hold the scheduling lag and execution time
+     * histograms of its tasks, the dispatch times of its events and its gauges. Metrics are enabled by default.
+     *
+     * @return the {@link SchedulerMetrics} instance
+     **/
+    public SchedulerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+
+    /**
+     * Sets the {@link JobJournal} that durable jobs are recorded in. Without a journal durable jobs can not be scheduled.
+     * The journal is not closed by the {@code Scheduler}.
+     *
+     * @param journal the {@code JobJournal} for durable jobs
+     **/
+    public void setJournal(JobJournal journal) {
+        this.journal = journal;
+    }
+
+
+    /**
+     * Returns the {@link JobJournal} that durable jobs are recorded in, or {@code null} if none was set.
+     *
+     * @return a {@link JobJournal} instance
+     **/
+    public JobJournal getJournal() {
+        return this.journal;
+    }
+
+
+    /**
+     * Sets the {@link ClusterNode} that decides which runs of clustered jobs execute on this {@code Scheduler}.
+     * Without a node clustered jobs can not be scheduled. The node is neither started nor closed by the {@code Scheduler}.
+     *
+     * @param cluster the started {@code ClusterNode}, or {@code null}
+     **/
+    public void setCluster(ClusterNode cluster) {
+        this.cluster = cluster;
+    }
+
+
+    /**
+     * Returns the {@link ClusterNode} of the {@code Scheduler}, or {@code null} if none was set.
+     *
+     * @return a {@link ClusterNode} instance
+     **/
+    public ClusterNode getCluster() {
+        return this.cluster;
+    }
+
+
+    /**
+     * Registers the handler that runs durable jobs of the given {@code jobType} with the payload of their {@link JobDescriptor}.
+     * Handlers have to be registered before jobs of their type are scheduled or recovered.
+     *
+     * @param jobType the type of the jobs
+     * @param handler the {@code Consumer} that runs the payload of a job
+     **/
+    public void registerJobHandler(String jobType, Consumer<byte[]> handler) {
+        jobHandlers.put(jobType, handler);
+    }
+
+
+    /**
+     * Returns the {@link AfterTaskExecutor} from the {@code Scheduler} class.
+     *
+     * @return a {@link AfterTaskExecutor} instance
+     **/
+    public AfterTaskExecutor getAfterTaskExecutor() {
+        return this.afterTaskExecutor;
+    }
+
+
+    /**
+     * Returns {@link Class} objects that are all annotated with {@link com.mimo.scheduler.aftertask.AfterTask}
+     *
+     * @return an {@link ArrayList} instance with {@link Class} instances inside
+     **/
+    public ArrayList<Method> getAllAnnotatedMethods() {
+        return afterTaskExecutor.getAllMethods(getCheckingClasses());
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute immediately.
+     *
+     * @param task the {@code Runnable} to execute
+     * */
+    public CompletableFuture<?> run(Runnable task) {
+        return submit(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS));
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute immediately.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. The caller neither waits for the task nor for the event.
+     *
+     * @param task the {@code Runnable} to execute
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> run(Runnable task, String eventName) {
+        return submit(withEvent(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), eventName));
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately and returns a {@link CompletableFuture}.
+     *
+     * @param task the {@code Callable<?>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     **/
+    public CompletableFuture<?> run(Callable<?> task) {
+        return submit(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS));
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately and returns a {@link CompletableFuture}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. The caller neither waits for the task nor for the event.
+     *
+     * @param task the {@code Callable<?>} to execute
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> run(Callable<?> task, String eventName) {
+        return submit(withEvent(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), eventName));
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute as soon as no more urgent task is ready.
+     *
+     * @param priority the {@link Priority} of the task
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> run(Priority priority, Runnable task) {
+        return dispatch(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), priorityDispatcher.executor(priority));
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute as soon as no more urgent task is ready and returns a {@link CompletableFuture}.
+     *
+     * @param priority the {@link Priority} of the task
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> run(Priority priority, Callable<T> task) {
+        return dispatch(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), priorityDispatcher.executor(priority));
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} that should start within the {@code deadline}.
+     * Within its {@link Priority} the task with the earliest deadline starts first, and tasks without a deadline
+     * are due the moment they were submitted. A task that starts late still runs and is counted by
+     * {@link SchedulerMetrics#getMissedDeadlines()}.
+     *
+     * @param priority the {@link Priority} of the task
+     * @param deadline the time until the task should start
+     * @param unit the {@code TimeUnit} to describe the deadline
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> runWithDeadline(Priority priority, long deadline, TimeUnit unit, Runnable task) {
+        return runWithDeadline(priority, deadline, unit, Executors.callable(task));
+    }
+
+
+    /**
+     * Schedules a {@link Callable} that should start within the {@code deadline} and returns a {@link CompletableFuture}.
+     * Within its {@link Priority} the task with the earliest deadline starts first, and tasks without a deadline
+     * are due the moment they were submitted. A task that starts late still runs and is counted by
+     * {@link SchedulerMetrics#getMissedDeadlines()}.
+     *
+     * @param priority the {@link Priority} of the task
+     * @param deadline the time until the task should start
+     * @param unit the {@code TimeUnit} to describe the deadline
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> runWithDeadline(Priority priority, long deadline, TimeUnit unit, Callable<T> task) {
+        long due = System.nanoTime() + unit.toNanos(deadline);
+        return dispatch(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS),
+                command -> priorityDispatcher.execute(command, priority, due));
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute immediately on the shard that belongs to the {@code key}.
+     * In {@link ExecutionMode#SHARDED} tasks with equal keys are submitted to the same shard, which keeps related
+     * tasks on one thread unless an idle shard steals them. In the other modes the key is ignored.
+     *
+     * @param key the key that selects the shard
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> runKeyed(Object key, Runnable task) {
+        return submit(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), key);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately on the shard that belongs to the {@code key}.
+     * In {@link ExecutionMode#SHARDED} tasks with equal keys are submitted to the same shard, which keeps related
+     * tasks on one thread unless an idle shard steals them. In the other modes the key is ignored.
+     *
+     * @param key the key that selects the shard
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> runKeyed(Object key, Callable<T> task) {
+        return submit(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), key);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute as soon as the {@link RateLimit} of the {@code key} allows it.
+     * A task that arrives before its turn waits inside the {@link TimerEngine}, not on a worker thread, so the workers
+     * keep running other tasks meanwhile.
+     *
+     * @param key the key whose {@code RateLimit} was set with {@link #setRateLimit(Object, RateLimit)}
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     *
+     * @throws IllegalStateException if no {@code RateLimit} was set for the key
+     * @throws RejectedExecutionException if the task would wait longer than the maximum delay of the limit
+     * */
+    public CompletableFuture<?> runRateLimited(Object key, Runnable task) {
+        return submitRateLimited(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), key);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute as soon as the {@link RateLimit} of the {@code key} allows it.
+     * A task that arrives before its turn waits inside the {@link TimerEngine}, not on a worker thread, so the workers
+     * keep running other tasks meanwhile.
+     *
+     * @param key the key whose {@code RateLimit} was set with {@link #setRateLimit(Object, RateLimit)}
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     *
+     * @throws IllegalStateException if no {@code RateLimit} was set for the key
+     * @throws RejectedExecutionException if the task would wait longer than the maximum delay of the limit
+     * */
+    public <T> CompletableFuture<T> runRateLimited(Object key, Callable<T> task) {
+        return submitRateLimited(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), key);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute immediately and runs it again after a failure, as the {@link RetryPolicy}
+     * allows. Between two attempts the task waits inside the {@link TimerEngine}, not on a worker thread.
+     *
+     * @param retryPolicy the {@code RetryPolicy} that decides whether and when the task runs again
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes with the first successful attempt, or with the failure of the
+     * last attempt that holds the earlier failures as suppressed exceptions
+     * */
+    public CompletableFuture<?> runWithRetry(RetryPolicy retryPolicy, Runnable task) {
+        return new RetryingTask<>(Executors.callable(task), retryPolicy, this::launchAttempt).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute immediately and runs it again after a failure, as the {@link RetryPolicy}
+     * allows. The event fires once, after the final attempt, and not after every failed one.
+     *
+     * @param retryPolicy the {@code RetryPolicy} that decides whether and when the task runs again
+     * @param task the {@code Runnable} to execute
+     * @param eventName the name of the event which gets fired after the final attempt
+     *
+     * @return a {@link CompletableFuture} that completes with the final attempt once the event was handled
+     * */
+    public CompletableFuture<?> runWithRetry(RetryPolicy retryPolicy, Runnable task, String eventName) {
+        return new RetryingTask<>(Executors.callable(task), retryPolicy, this::launchAttempt)
+                .fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately and runs it again after a failure, as the {@link RetryPolicy}
+     * allows. Between two attempts the task waits inside the {@link TimerEngine}, not on a worker thread.
+     *
+     * @param retryPolicy the {@code RetryPolicy} that decides whether and when the task runs again
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link CompletableFuture} that completes with the first successful attempt, or with the failure of the
+     * last attempt that holds the earlier failures as suppressed exceptions
+     * */
+    public <T> CompletableFuture<T> runWithRetry(RetryPolicy retryPolicy, Callable<T> task) {
+        return new RetryingTask<>(task, retryPolicy, this::launchAttempt).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately and runs it again after a failure, as the {@link RetryPolicy}
+     * allows. The event fires once, after the final attempt, and not after every failed one.
+     *
+     * @param retryPolicy the {@code RetryPolicy} that decides whether and when the task runs again
+     * @param task the {@code Callable<T>} to execute
+     * @param eventName the name of the event which gets fired after the final attempt
+     *
+     * @return a {@link CompletableFuture} that completes with the final attempt once the event was handled
+     * */
+    public <T> CompletableFuture<T> runWithRetry(RetryPolicy retryPolicy, Callable<T> task, String eventName) {
+        return new RetryingTask<>(task, retryPolicy, this::launchAttempt)
+                .fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute immediately, unless a task with the same {@code key} is running or its
+     * result is still kept by the {@link ResultCaching}. Concurrent calls then share that single run, so an expensive
+     * result is computed once. Every caller receives its own {@link CompletableFuture}, and cancelling it does not
+     * cancel the shared run. All tasks of a key have to return the same type.
+     *
+     * @param key the key that identifies the result
+     * @param task the {@code Callable<T>} to execute if no result can be shared
+     *
+     * @return a {@link CompletableFuture} that completes with the shared result
+     * */
+    public <T> CompletableFuture<T> runShared(Object key, Callable<T> task) {
+        return sharedResults.run(key, task, callable -> submit(new ScheduledTask<>(callable, 0, TimeUnit.NANOSECONDS)));
+    }
+
+
+    /**
+     * Forgets the running or kept result of the {@code key}, so the next {@link #runShared(Object, Callable)} runs its
+     * task again. Callers that already received the result keep it.
+     *
+     * @param key the key that identifies the result
+     * */
+    public void invalidateShared(Object key) {
+        sharedResults.invalidate(key);
+    }
+
+
+    /**
+     * Schedules a batch of {@link Callable} instances to execute immediately.
+     * The batch reaches the executor as at most {@code numThreads} submissions that share the tasks between them,
+     * instead of one submission per task, so large fan-out jobs wake the workers a bounded number of times.
+     *
+     * @param tasks the {@code Callable<T>} instances to execute
+     *
+     * @return a {@link BatchFuture} that completes with all results and also holds the future of every single task
+     * */
+    public <T> BatchFuture<T> runAll(Collection<? extends Callable<T>> tasks) {
+        return runAll(new TaskBatch<>(tasks, 0, TimeUnit.NANOSECONDS));
+    }
+
+
+    /**
+     * Schedules a batch of {@link Callable} instances to execute immediately.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once after the last task of the batch finished.
+     *
+     * @param tasks the {@code Callable<T>} instances to execute
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link BatchFuture} that completes with all results once the event was fired
+     * */
+    public <T> BatchFuture<T> runAll(Collection<? extends Callable<T>> tasks, String eventName) {
+        return runAll(new TaskBatch<>(tasks, 0, TimeUnit.NANOSECONDS).fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor));
+    }
+
+
+    /**
+     * Schedules a batch of {@link Callable} instances to execute after the {@code delay} in the given {@link TimeUnit}.
+     * The whole batch waits behind a single timeout of the {@link TimerEngine} and is then handed to the executor
+     * like in {@link #runAll(Collection)}.
+     *
+     * @param delay the delay after which the tasks run
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param tasks the {@code Callable<T>} instances to execute
+     *
+     * @return a {@link BatchFuture} that completes with all results and also holds the future of every single task
+     * */
+    public <T> BatchFuture<T> scheduleAll(long delay, TimeUnit unit, Collection<? extends Callable<T>> tasks) {
+        return scheduleAll(new TaskBatch<>(tasks, delay, unit), delay, unit);
+    }
+
+
+    /**
+     * Schedules a batch of {@link Callable} instances to execute after the {@code delay} in the given {@link TimeUnit}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once after the last task of the batch finished.
+     *
+     * @param delay the delay after which the tasks run
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param tasks the {@code Callable<T>} instances to execute
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link BatchFuture} that completes with all results once the event was fired
+     * */
+    public <T> BatchFuture<T> scheduleAll(long delay, TimeUnit unit, Collection<? extends Callable<T>> tasks, String eventName) {
+        return scheduleAll(new TaskBatch<>(tasks, delay, unit).fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor), delay, unit);
+    }
+
+
+    /**
+     * Creates an empty {@link Pipeline} whose stages run on this {@code Scheduler}.
+     * Unlike events, the stages of a pipeline receive the typed results of the stages they depend on, independent
+     * stages run in parallel and a failure cancels the stages that depend on it.
+     *
+     * @return a new {@code Pipeline} that runs once it is started
+     * */
+    public Pipeline newPipeline() {
+        return new Pipeline(this);
+    }
+
+
+    /**
+     * Opens a {@link TaskScope} without a deadline whose subtasks run on this {@code Scheduler}.
+     * Called from inside a subtask, the new scope becomes a child of the scope of that subtask and is cancelled
+     * together with it.
+     *
+     * @param policy the {@code ScopePolicy} that decides when the scope completes
+     *
+     * @return a new {@code TaskScope} to fork subtasks into
+     * */
+    public <T> TaskScope<T> openScope(ScopePolicy policy) {
+        return openScope(policy, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Opens a {@link TaskScope} whose subtasks run on this {@code Scheduler} and which is cancelled with a
+     * {@link java.util.concurrent.TimeoutException} once the {@code timeout} passed.
+     * Called from inside a subtask, the new scope becomes a child of the scope of that subtask, is cancelled together
+     * with it and never outlives its deadline.
+     *
+     * @param policy the {@code ScopePolicy} that decides when the scope completes
+     * @param timeout the time after which the scope is cancelled
+     * @param unit the {@code TimeUnit} of the timeout
+     *
+     * @return a new {@code TaskScope} to fork subtasks into
+     * */
+    public <T> TaskScope<T> openScope(ScopePolicy policy, long timeout, TimeUnit unit) {
+        TaskScope<?> parent = TaskScope.current();
+        if (parent != null && parent.isOf(this)) {
+            return parent.openScope(policy, timeout, unit);
+        }
+        return new TaskScope<T>(this, policy, null, timeout == Long.MAX_VALUE ? Long.MAX_VALUE : unit.toNanos(timeout)).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute after the {@code delay} in the given {@link TimeUnit}.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute
+     * */
+    public ScheduledFuture<?> scheduleWithFixedDelay(long delay, TimeUnit unit, Runnable task) {
+        return schedule(new ScheduledTask<>(Executors.callable(task), delay, unit), delay, unit, readyExecutor, delayTimer());
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute after the {@code delay} in the given {@link TimeUnit}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. The caller neither waits for the delay nor for the task or the event.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute after a delay
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> scheduleWithFixedDelay(long delay, TimeUnit unit, Runnable task, String eventName) {
+        return schedule(withEvent(new ScheduledTask<>(Executors.callable(task), delay, unit), eventName), delay, unit, readyExecutor, delayTimer());
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute after the {@code delay} in the given {@link TimeUnit} and returns a {@link ScheduledFuture}.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Callable<T>} to execute after a delay
+     *
+     * @return a {@link ScheduledFuture} that completes when the task finishes
+     * */
+    public <T> ScheduledFuture<T> scheduleWithFixedDelay(long delay, TimeUnit unit, Callable<T> task) {
+        return schedule(new ScheduledTask<>(task, delay, unit), delay, unit, readyExecutor, delayTimer());
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute after the {@code delay} in the given {@link TimeUnit} and returns a {@link CompletableFuture}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. The caller neither waits for the delay nor for the task or the event.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Callable<T>} to execute after a delay
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public <T> CompletableFuture<T> scheduleWithFixedDelay(long delay, TimeUnit unit, Callable<T> task, String eventName) {
+        return schedule(withEvent(new ScheduledTask<>(task, delay, unit), eventName), delay, unit, readyExecutor, delayTimer());
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute after the {@code delay} in the given {@link TimeUnit}
+     * as soon as no more urgent task is ready.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param priority the {@link Priority} of the task once the delay passed
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link ScheduledFuture} that completes when the task finishes
+     * */
+    public ScheduledFuture<?> scheduleWithFixedDelay(long delay, TimeUnit unit, Priority priority, Runnable task) {
+        return schedule(new ScheduledTask<>(Executors.callable(task), delay, unit), delay, unit, priorityDispatcher.executor(priority), delayTimer());
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute after the {@code delay} in the given {@link TimeUnit}
+     * as soon as no more urgent task is ready and returns a {@link ScheduledFuture}.
+     *
+     * @param delay the delay after which the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param priority the {@link Priority} of the task once the delay passed
+     * @param task the {@code Callable<T>} to execute
+     *
+     * @return a {@link ScheduledFuture} that completes when the task finishes
+     * */
+    public <T> ScheduledFuture<T> scheduleWithFixedDelay(long delay, TimeUnit unit, Priority priority, Callable<T> task) {
+        return schedule(new ScheduledTask<>(task, delay, unit), delay, unit, priorityDispatcher.executor(priority), delayTimer());
+    }
+
+
+    /**
+     * Debounces a {@link Runnable} under the given {@code key}. The task runs once no call with the same key happened
+     * for the {@code delay}, and every call moves the pending run back. Only the task of the latest call runs.
+     * A storm of calls with the same key results in a single execution and a single pending timer.
+     *
+     * @param key the key that identifies the logical job
+     * @param delay the quiet time after the latest call before the task runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} of the pending run, shared by every call that was merged into it
+     * */
+    public CompletableFuture<?> debounce(Object key, long delay, TimeUnit unit, Runnable task) {
+        return keyedTasks.debounce(key, delay, unit, task);
+    }
+
+
+    /**
+     * Throttles a {@link Runnable} under the given {@code key}, so the key runs at most once per {@code window}.
+     * The first call runs right away and opens the window. Calls inside the window are merged into a single run
+     * of the latest task once the window closed, which opens the next window.
+     *
+     * @param key the key that identifies the logical job
+     * @param window the minimum time between two runs of the key
+     * @param unit the {@code TimeUnit} to describe the window length
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} of the run that covers this call
+     * */
+    public CompletableFuture<?> throttle(Object key, long window, TimeUnit unit, Runnable task) {
+        return keyedTasks.throttle(key, window, unit, task);
+    }
+
+
+    /**
+     * Coalesces the {@code payload} under the given {@code key}. The first call schedules a run after the {@code delay},
+     * and the payloads of every call until that run started are handed to the {@link Consumer} of the first call at once.
+     *
+     * @param key the key that identifies the logical job
+     * @param delay the delay after the first call before the payloads are processed
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param payload the payload to merge into the pending run
+     * @param task the {@code Consumer} that processes all merged payloads
+     *
+     * @return a {@link CompletableFuture} of the pending run, shared by every call that was merged into it
+     * */
+    public <P> CompletableFuture<?> coalesce(Object key, long delay, TimeUnit unit, P payload, Consumer<List<P>> task) {
+        return keyedTasks.coalesce(key, delay, unit, payload, task);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link Instant}.
+     * The caller does not wait for the instant, and the task is re-armed when the wall clock jumps in the meantime.
+     * When the instant already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param instant the {@code Instant} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific instant
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> scheduleAt(Instant instant, Runnable task) {
+        return scheduleAt(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), instant);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link Instant}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. When the instant already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param instant the {@code Instant} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific instant
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> scheduleAt(Instant instant, Runnable task, String eventName) {
+        return scheduleAt(withEvent(new ScheduledTask<>(Executors.callable(task), 0, TimeUnit.NANOSECONDS), eventName), instant);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link Instant} and returns a {@link CompletableFuture}.
+     * The caller does not wait for the instant, and the task is re-armed when the wall clock jumps in the meantime.
+     * When the instant already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param instant the {@code Instant} at which the {@code Callable<T>} runs
+     * @param task the {@code Callable<T>} to execute at a specific instant
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> scheduleAt(Instant instant, Callable<T> task) {
+        return scheduleAt(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), instant);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link Instant} and returns a {@link CompletableFuture}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished. When the instant already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param instant the {@code Instant} at which the {@code Callable<T>} runs
+     * @param task the {@code Callable<T>} to execute at a specific instant
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public <T> CompletableFuture<T> scheduleAt(Instant instant, Callable<T> task, String eventName) {
+        return scheduleAt(withEvent(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS), eventName), instant);
+    }
+
+
+    /**
+     * Schedules a durable job to execute at the given {@link Instant}. The job is recorded in the {@link JobJournal} of the
+     * {@code Scheduler} before it is armed, and recorded as completed or cancelled once it finished, so a job that is
+     * still pending survives a restart and is loaded again by {@link #recover()}. The caller does not wait for the
+     * record to reach the disk, the journal writes it with the next group commit.
+     * Cancelling the job removes it from the journal, but shutting the {@code Scheduler} down does not.
+     * A job that is rejected is recorded as cancelled, so it never runs after a restart.
+     *
+     * @param instant the {@code Instant} at which the job runs
+     * @param job the {@code JobDescriptor} of the job, whose type needs a registered handler
+     *
+     * @return a {@link CompletableFuture} that completes when the job finishes
+     *
+     * @throws IllegalStateException if no journal was set or no handler is registered for the job type
+     * @throws RejectedExecutionException if the {@code Scheduler} was shut down or too many timers are pending
+     * */
+    public CompletableFuture<?> scheduleDurable(Instant instant, JobDescriptor job) {
+        JobJournal current = requireJournal();
+        if (timerEngine.isShutdown()) {
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        long jobId = current.nextJobId();
+        ScheduledTask<Object> task = durableTask(current, jobId, job);
+        armedJobs.add(jobId);
+        /// Recorded before the job is armed, so a job that runs right away can never complete before it was scheduled.
+        current.recordScheduled(jobId, instant.toEpochMilli(), job);
+        try {
+            return scheduleAt(task, instant);
+        } catch (RuntimeException e) {
+            armedJobs.remove(jobId);
+            current.recordCancelled(jobId);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link Instant}, once across all schedulers of the cluster.
+     * Every node schedules the job with the same {@code jobKey}, and it only executes on the node that owns the
+     * partition of the key at the {@code instant}.
+     *
+     * @param jobKey the key of the job, equal on every node
+     * @param instant the point in time at which the task is executed
+     * @param task the {@code Runnable} to execute
+     *
+     * @return a {@link CompletableFuture} that completes with {@code true} if the task ran on this node
+     *
+     * @throws IllegalStateException if no {@link ClusterNode} was set
+     * */
+    public CompletableFuture<Boolean> scheduleClusteredAt(String jobKey, Instant instant, Runnable task) {
+        ClusterNode node = requireCluster();
+        long due = instant.toEpochMilli();
+        return scheduleAt(new ScheduledTask<>(() -> {
+            if (!node.owns(jobKey, due)) {
+                return false;
+            }
+            task.run();
+            return true;
+        }, 0, TimeUnit.NANOSECONDS), instant);
+    }
+
+
+    /**
+     * Loads every job that is still pending in the {@link JobJournal} of the {@code Scheduler} into the timer.
+     * The jobs are sorted by their due time once, and all jobs that are due at the same millisecond share a
+     * single timeout and reach the executor as one batch. Jobs that are already due run right away.
+     * Jobs without a registered handler stay in the journal and are skipped. Jobs that are already armed in this
+     * {@code Scheduler}, by {@link #scheduleDurable(Instant, JobDescriptor)} or an earlier call, are skipped too, so
+     * calling {@code recover} again never runs a job twice.
+     *
+     * @return the number of jobs that were loaded
+     *
+     * @throws IllegalStateException if no journal was set
+     * */
+    public int recover() {
+        JobJournal current = requireJournal();
+        List<PendingJob> jobs = current.pendingJobs();
+        jobs.sort(Comparator.comparingLong(PendingJob::getDueEpochMillis));
+        long now = getClock().millis();
+        int loaded = 0;
+        int start = 0;
+        while (start < jobs.size()) {
+            long due = jobs.get(start).getDueEpochMillis();
+            int end = start;
+            List<Callable<Object>> batch = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            while (end < jobs.size() && jobs.get(end).getDueEpochMillis() == due) {
+                PendingJob job = jobs.get(end++);
+                Consumer<byte[]> handler = jobHandlers.get(job.getDescriptor().getJobType());
+                if (handler != null && armedJobs.add(job.getJobId())) {
+                    byte[] payload = job.getDescriptor().getPayload();
+                    batch.add(() -> {
+                        handler.accept(payload);
+                        return null;
+                    });
+                    ids.add(job.getJobId());
+                }
+            }
+            if (!batch.isEmpty()) {
+                TaskBatch<Object> tasks = new TaskBatch<>(batch, Math.max(due - now, 0), TimeUnit.MILLISECONDS);
+                List<CompletableFuture<Object>> futures = tasks.future().getFutures();
+                for (int i = 0; i < futures.size(); i++) {
+                    recordOutcome(current, ids.get(i), futures.get(i));
+                }
+                try {
+                    if (due <= now) {
+                        runAll(tasks);
+                    } else {
+                        scheduleAll(tasks, due - now, TimeUnit.MILLISECONDS);
+                    }
+                } catch (RuntimeException e) {
+                    armedJobs.removeAll(ids);
+                    throw e;
+                }
+                loaded += batch.size();
+            }
+            start = end;
+        }
+        return loaded;
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link ZonedDateTime}.
+     * The date time describes a single instant, so daylight saving time changes after scheduling do not move the task.
+     *
+     * @param zonedDateTime the {@code ZonedDateTime} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific date time
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> scheduleAt(ZonedDateTime zonedDateTime, Runnable task) {
+        return scheduleAt(zonedDateTime.toInstant(), task);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link ZonedDateTime}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished.
+     *
+     * @param zonedDateTime the {@code ZonedDateTime} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific date time
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> scheduleAt(ZonedDateTime zonedDateTime, Runnable task, String eventName) {
+        return scheduleAt(zonedDateTime.toInstant(), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link ZonedDateTime} and returns a {@link CompletableFuture}.
+     * The date time describes a single instant, so daylight saving time changes after scheduling do not move the task.
+     *
+     * @param zonedDateTime the {@code ZonedDateTime} at which the {@code Callable<T>} runs
+     * @param task the {@code Callable<T>} to execute at a specific date time
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> scheduleAt(ZonedDateTime zonedDateTime, Callable<T> task) {
+        return scheduleAt(zonedDateTime.toInstant(), task);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link ZonedDateTime} and returns a {@link CompletableFuture}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished.
+     *
+     * @param zonedDateTime the {@code ZonedDateTime} at which the {@code Callable<T>} runs
+     * @param task the {@code Callable<T>} to execute at a specific date time
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public <T> CompletableFuture<T> scheduleAt(ZonedDateTime zonedDateTime, Callable<T> task, String eventName) {
+        return scheduleAt(zonedDateTime.toInstant(), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link LocalDateTime} in the time zone of the system.
+     * A local date time inside a daylight saving time gap is moved forward by the length of the gap, and inside an
+     * overlap the earlier offset is used.
+     * When the date time already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param localDateTime the {@code LocalDateTime} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific LocalDateTime
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public CompletableFuture<?> scheduleAtFixedLocalDateTime(LocalDateTime localDateTime, Runnable task) {
+        return scheduleAt(localDateTime.atZone(getClock().getZone()), task);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at the given {@link LocalDateTime} in the time zone of the system.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished.
+     *
+     * @param localDateTime the {@code LocalDateTime} at which the {@code Runnable} runs
+     * @param task the {@code Runnable} to execute at a specific LocalDateTime
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public CompletableFuture<?> scheduleAtFixedLocalDateTime(LocalDateTime localDateTime, Runnable task, String eventName) {
+        return scheduleAt(localDateTime.atZone(getClock().getZone()), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link LocalDateTime} in the time zone of the system and returns a {@link CompletableFuture}.
+     * A local date time inside a daylight saving time gap is moved forward by the length of the gap, and inside an
+     * overlap the earlier offset is used.
+     * When the date time already passed the {@link PastDeadlinePolicy} of the {@code Scheduler} decides what happens.
+     *
+     * @param localDateTime the {@code LocalDateTime} at which the {@code Callable<T>} runs
+     * @param task the {@code CompletableFuture<T>} to execute at a specific LocalDateTime
+     *
+     * @return a {@link CompletableFuture} that completes when the task finishes
+     * */
+    public <T> CompletableFuture<T> scheduleAtFixedLocalDateTime(LocalDateTime localDateTime, Callable<T> task) {
+        return scheduleAt(localDateTime.atZone(getClock().getZone()), task);
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at the given {@link LocalDateTime} in the time zone of the system and returns a {@link CompletableFuture}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * once the task finished.
+     *
+     * @param localDateTime the {@code LocalDateTime} at which the {@code Callable<T>} runs
+     * @param task the {@code CompletableFuture<T>} to execute at a specific LocalDateTime
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the task finished and the event was fired
+     * */
+    public <T> CompletableFuture<T> scheduleAtFixedLocalDateTime(LocalDateTime localDateTime, Callable<T> task, String eventName) {
+        return scheduleAt(localDateTime.atZone(getClock().getZone()), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at every fire time of the cron {@code expression} in the given {@code zone}.
+     * The expression is parsed once, and only the next run of the job is pending at any time.
+     * Fire times that pass while a run is still going are skipped.
+     *
+     * @param expression the cron expression, see {@link CronExpression} for the syntax
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     * @param task the {@code Runnable} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * */
+    public ScheduledFuture<?> scheduleCron(String expression, ZoneId zone, Runnable task) {
+        admitTimer();
+        return new CronTask(CronExpression.parse(expression), zone, Executors.callable(task), deadlineScheduler).recordMetrics(metrics).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at every fire time of the cron {@code expression} in the given {@code zone}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after every run.
+     *
+     * @param expression the cron expression, see {@link CronExpression} for the syntax
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     * @param task the {@code Runnable} to execute repeatedly
+     * @param eventName the name of the event fired after every run
+     *
+     * @return a {@link CompletableFuture} to stop the job with, which completes once the expression never fires again
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * */
+    public CompletableFuture<?> scheduleCron(String expression, ZoneId zone, Runnable task, String eventName) {
+        admitTimer();
+        return new CronTask(CronExpression.parse(expression), zone, Executors.callable(task), deadlineScheduler).recordMetrics(metrics)
+                .fireAfterEachRun(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at every fire time of the cron {@code expression} in the given {@code zone}.
+     * The expression is parsed once, and only the next run of the job is pending at any time.
+     * Fire times that pass while a run is still going are skipped.
+     *
+     * @param expression the cron expression, see {@link CronExpression} for the syntax
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     * @param task the {@code Callable<?>} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * */
+    public ScheduledFuture<?> scheduleCron(String expression, ZoneId zone, Callable<?> task) {
+        admitTimer();
+        return new CronTask(CronExpression.parse(expression), zone, task, deadlineScheduler).recordMetrics(metrics).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute at every fire time of the cron {@code expression} in the given {@code zone}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after every run.
+     *
+     * @param expression the cron expression, see {@link CronExpression} for the syntax
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     * @param task the {@code Callable<?>} to execute repeatedly
+     * @param eventName the name of the event fired after every run
+     *
+     * @return a {@link CompletableFuture} to stop the job with, which completes once the expression never fires again
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * */
+    public CompletableFuture<?> scheduleCron(String expression, ZoneId zone, Callable<?> task, String eventName) {
+        admitTimer();
+        return new CronTask(CronExpression.parse(expression), zone, task, deadlineScheduler).recordMetrics(metrics)
+                .fireAfterEachRun(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute at every fire time of the cron {@code expression} in the given {@code zone},
+     * once across all schedulers of the cluster. Every node schedules the job with the same {@code jobKey}, and a run
+     * only executes on the node that owns the partition of the key at the fire time.
+     *
+     * @param jobKey the key of the job, equal on every node
+     * @param expression the cron expression, see {@link CronExpression} for the syntax
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     * @param task the {@code Runnable} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job on this node with
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * @throws IllegalStateException if no {@link ClusterNode} was set
+     * */
+    public ScheduledFuture<?> scheduleClusteredCron(String jobKey, String expression, ZoneId zone, Runnable task) {
+        ClusterNode node = requireCluster();
+        admitTimer();
+        return new CronTask(CronExpression.parse(expression), zone, Executors.callable(task), deadlineScheduler).recordMetrics(metrics)
+                .guardedBy(fireTime -> node.owns(jobKey, fireTime.toEpochMilli())).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute {@code numRepeats} amount of times at a fixed rate of one run every {@code delay} using the given {@code unit}.
+     * The first run starts immediately and the method returns right away, the following runs are armed by the timer.
+     * Run {@code n} is due {@code n} times the {@code delay} after the first run, so the rate does not drift.
+     *
+     * @param numRepeats the number of repeats of the {@code Runnable}, or {@link PeriodicSchedule#UNBOUNDED} to repeat until it is deleted
+     * @param delay the time between the start of two runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     *
+     * @throws IllegalArgumentException if {@code numRepeats} is negative and not {@link PeriodicSchedule#UNBOUNDED}
+     * */
+    public ScheduledFuture<?> scheduleAtFixedRateNow(int numRepeats, long delay, TimeUnit unit, Runnable task) {
+        return schedulePeriodic(fixedRate(numRepeats, 0, delay, unit), task);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute {@code numRepeats} amount of times at a fixed rate of one run every {@code delay} using the given {@code unit}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after the last run. The first run starts immediately and the method returns right away.
+     *
+     * @param numRepeats the number of repeats of the {@code Runnable}
+     * @param delay the time between the start of two runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute repeatedly
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> scheduleAtFixedRateNow(int numRepeats, long delay, TimeUnit unit, Runnable task, String eventName) {
+        return schedulePeriodic(fixedRate(numRepeats, 0, delay, unit), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute {@code numRepeats} amount of times at a fixed rate of one run every {@code delay} using the given {@code unit}.
+     * The first run starts after one {@code delay} and the method returns right away, the following runs are armed by the timer.
+     * Run {@code n} is due {@code n} times the {@code delay} after the first run, so the rate does not drift.
+     *
+     * @param numRepeats the number of repeats of the {@code Runnable}, or {@link PeriodicSchedule#UNBOUNDED} to repeat until it is deleted
+     * @param delay the time before the first run and between the start of two runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     *
+     * @throws IllegalArgumentException if {@code numRepeats} is negative and not {@link PeriodicSchedule#UNBOUNDED}
+     * */
+    public ScheduledFuture<?> scheduleAtFixedRate(int numRepeats, long delay, TimeUnit unit, Runnable task) {
+        return schedulePeriodic(fixedRate(numRepeats, delay, delay, unit), task);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute {@code numRepeats} amount of times at a fixed rate of one run every {@code delay} using the given {@code unit}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after the last run. The first run starts after one {@code delay} and the method returns right away.
+     *
+     * @param numRepeats the number of repeats of the {@code Runnable}
+     * @param delay the time before the first run and between the start of two runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param task the {@code Runnable} to execute repeatedly
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> scheduleAtFixedRate(int numRepeats, long delay, TimeUnit unit, Runnable task, String eventName) {
+        return schedulePeriodic(fixedRate(numRepeats, delay, delay, unit), task, eventName);
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute repeatedly according to the given {@link PeriodicSchedule}.
+     * The method returns right away and only the next run of the job is pending at any time, so runs never overlap.
+     *
+     * @param schedule the {@code PeriodicSchedule} that describes when the runs are due
+     * @param task the {@code Runnable} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     * */
+    public ScheduledFuture<?> schedulePeriodic(PeriodicSchedule schedule, Runnable task) {
+        admitTimer();
+        return new PeriodicTask(schedule, Executors.callable(task), delayTimer(), readyExecutor).recordMetrics(metrics).start();
+    }
+
+
+    /**
+     * Schedules a {@link Runnable} to execute repeatedly according to the given {@link PeriodicSchedule}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after the last run.
+     *
+     * @param schedule the {@code PeriodicSchedule} that describes when the runs are due
+     * @param task the {@code Runnable} to execute repeatedly
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> schedulePeriodic(PeriodicSchedule schedule, Runnable task, String eventName) {
+        admitTimer();
+        return new PeriodicTask(schedule, Executors.callable(task), delayTimer(), readyExecutor).recordMetrics(metrics)
+                .fireAfterLastRun(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute repeatedly according to the given {@link PeriodicSchedule}.
+     * The method returns right away and only the next run of the job is pending at any time, so runs never overlap.
+     *
+     * @param schedule the {@code PeriodicSchedule} that describes when the runs are due
+     * @param task the {@code Callable<?>} to execute repeatedly
+     *
+     * @return a {@link ScheduledFuture} to stop the job with, which reports the delay until the next run
+     * */
+    public ScheduledFuture<?> schedulePeriodic(PeriodicSchedule schedule, Callable<?> task) {
+        admitTimer();
+        return new PeriodicTask(schedule, task, delayTimer(), readyExecutor).recordMetrics(metrics).start();
+    }
+
+
+    /**
+     * Schedules a {@link Callable} to execute repeatedly according to the given {@link PeriodicSchedule}.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners,
+     * after the last run.
+     *
+     * @param schedule the {@code PeriodicSchedule} that describes when the runs are due
+     * @param task the {@code Callable<?>} to execute repeatedly
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> schedulePeriodic(PeriodicSchedule schedule, Callable<?> task, String eventName) {
+        admitTimer();
+        return new PeriodicTask(schedule, task, delayTimer(), readyExecutor).recordMetrics(metrics)
+                .fireAfterLastRun(eventName, afterTaskExecutor, eventExecutor).start();
+    }
+
+
+    /**
+     * Deletes a {@link ScheduledFuture}. When the {@link ScheduledFuture} is already running it will also try to stop it from running.
+     *
+     * @param scheduledFuture the {@code scheduledFuture} to delete
+     * */
+    public void delete(ScheduledFuture<?> scheduledFuture) {
+        scheduledFuture.cancel(true);
+    }
+
+
+    /**
+     * Deletes a {@link ScheduledFuture}. When the {@link ScheduledFuture} is already running it will also try to stop it from running.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners.
+     *
+     * @param scheduledFuture the {@code scheduledFuture} to delete
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> delete(ScheduledFuture<?> scheduledFuture, String eventName) {
+        scheduledFuture.cancel(true);
+        return afterTaskExecutor.fireAsync(eventName, eventExecutor);
+    }
+
+
+    /**
+     * Deletes a {@link CompletableFuture}. When the {@link CompletableFuture} is already running it will also try to stop it from running.
+     *
+     * @param completableFuture the {@code completableFuture} to delete
+     * */
+    public void delete(CompletableFuture<?> completableFuture) {
+        completableFuture.cancel(true);
+    }
+
+
+    /**
+     * Deletes a {@link CompletableFuture}. When the {@link CompletableFuture} is already running it will also try to stop it from running.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners.
+     *
+     * @param completableFuture the {@code completableFuture} to delete
+     * @param eventName the name of the event fired after completion
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> delete(CompletableFuture<?> completableFuture, String eventName) {
+        completableFuture.cancel(true);
+        return afterTaskExecutor.fireAsync(eventName, eventExecutor);
+    }
+
+
+    /**
+     * Deletes all {@link ScheduledFuture} instances. When the {@link ScheduledFuture} instances are already running it will also try to stop them from running.
+     *
+     * @param scheduledFutures the {@code ScheduledFuture} instances to delete
+     * */
+    public void deleteAll(ScheduledFuture<?>... scheduledFutures) {
+        for (ScheduledFuture<?> scheduledFuture : scheduledFutures) {
+            delete(scheduledFuture);
+        }
+    }
+
+
+    /**
+     * Deletes all {@link ScheduledFuture} instances. When the {@link ScheduledFuture} instances are already running it will also try to stop them from running.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners.
+     *
+     * @param eventName the name of the event fired after completion
+     * @param scheduledFutures the {@code ScheduledFuture} instances to delete
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> deleteAll(String eventName, ScheduledFuture<?>... scheduledFutures) {
+        for (ScheduledFuture<?> scheduledFuture : scheduledFutures) {
+            delete(scheduledFuture);
+        }
+        return afterTaskExecutor.fireAsync(eventName, eventExecutor);
+    }
+
+
+    /**
+     * Deletes all {@link CompletableFuture} instances. When the {@link CompletableFuture} instances are already running it will also try to stop them from running.
+     *
+     * @param completableFutures the {@code CompletableFuture} instances to delete
+     * */
+    public void deleteAll(CompletableFuture<?>... completableFutures) {
+        for (CompletableFuture<?> completableFuture : completableFutures) {
+            delete(completableFuture);
+        }
+    }
+
+
+    /**
+     * Deletes all {@link CompletableFuture} instances. When the {@link CompletableFuture} instances are already running it will also try to stop them from running.
+     * Additionally, this also invokes every {@link com.mimo.scheduler.aftertask.AfterTask} method with the given {@code eventName}, static
+     * ones of the checking classes and instance ones of the added listeners.
+     *
+     * @param eventName the name of the event fired after completion
+     * @param completableFutures the {@code CompletableFuture<?>} instances to delete
+     *
+     * @return a {@link CompletableFuture} that completes when the event was fired
+     * */
+    public CompletableFuture<Void> deleteAll(String eventName, CompletableFuture<?>... completableFutures) {
+        for (CompletableFuture<?> completableFuture : completableFutures) {
+            delete(completableFuture);
+        }
+        return afterTaskExecutor.fireAsync(eventName, eventExecutor);
+    }
+
+
+    /**
+     * Returns the remaining delay of the {@link  ScheduledFuture} in milliseconds plus a margin, after which the task
+     * most likely started. The margin is the 99th percentile of the measured scheduling lag, rounded up to whole
+     * milliseconds, or 3 milliseconds while no lag was measured yet.
+     *
+     * @param scheduledFuture the {@code scheduledFuture<?>} to get delay from
+     *
+     * @return a long representing the remaining delay of the {@link ScheduledFuture} in milliseconds
+     * */
+    public long getIntermission(ScheduledFuture<?> scheduledFuture) {
+        LatencyHistogram lag = metrics.getSchedulingLag();
+        long margin = lag.getCount() == 0 ? 3
+                : Math.ceilDiv(lag.getValueAtPercentile(99), TimeUnit.MILLISECONDS.toNanos(1));
+        return scheduledFuture.getDelay(TimeUnit.MILLISECONDS) + margin;
+    }
+
+
+    /**
+     * Hands the {@code task} to the {@link TimerEngine} so it runs on the executor after the {@code delay}.
+     * */
+    private <T> ScheduledTask<T> schedule(ScheduledTask<T> task, long delay, TimeUnit unit) {
+        return schedule(task, delay, unit, readyExecutor);
+    }
+
+
+    /**
+     * Hands the {@code task} to the {@link TimerEngine} so it is handed to the {@code target} after the {@code delay}.
+     * */
+    private <T> ScheduledTask<T> schedule(ScheduledTask<T> task, long delay, TimeUnit unit, Executor target) {
+        return schedule(task, delay, unit, target, timerEngine);
+    }
+
+
+    /**
+     * Hands the {@code task} to the given {@code engine} so it is handed to the {@code target} after the {@code delay}.
+     * */
+    private <T> ScheduledTask<T> schedule(ScheduledTask<T> task, long delay, TimeUnit unit, Executor target, TimerEngine engine) {
+        task.recordMetrics(metrics);
+        admitTimer();
+        try {
+            task.setTimeout(engine.newTimeout(task, delay, unit, target));
+        } catch (RejectedExecutionException e) {
+            metrics.tasksRejected(1);
+            throw e;
+        }
+        return task;
+    }
+
+
+    /**
+     * Hands the {@code batch} to the executor so its tasks run immediately.
+     * */
+    private <T> BatchFuture<T> runAll(TaskBatch<T> batch) {
+        batch.recordMetrics(metrics);
+        try {
+            return batch.dispatch(readyTarget(), numThreads);
+        } catch (RejectedExecutionException e) {
+            metrics.tasksRejected(batch.future().size());
+            throw e;
+        }
+    }
+
+
+    /**
+     * Hands the {@code batch} to the executor after the {@code delay} with a single timeout for all of its tasks.
+     * The timer thread only submits the drainers of the batch, and cancelling the batch cancels the timeout.
+     * */
+    private <T> BatchFuture<T> scheduleAll(TaskBatch<T> batch, long delay, TimeUnit unit) {
+        admitTimer(batch.future().size());
+        batch.recordMetrics(metrics);
+        Timeout timeout;
+        try {
+            timeout = timerEngine.newTimeout(() -> {
+                try {
+                    batch.dispatch(readyTarget(), numThreads);
+                } catch (RejectedExecutionException e) {
+                    batch.future().cancel(false);
+                }
+            }, delay, unit, Runnable::run);
+        } catch (RejectedExecutionException e) {
+            metrics.tasksRejected(batch.future().size());
+            throw e;
+        }
+        batch.future().whenComplete((ignored, throwable) -> {
+            if (batch.future().isCancelled()) {
+                timeout.cancel();
+            }
+        });
+        return batch.future();
+    }
+
+
+    /**
+     * Returns the journal for durable jobs or throws when none was set.
+     * */
+    private JobJournal requireJournal() {
+        JobJournal current = journal;
+        if (current == null) {
+            throw new IllegalStateException("No JobJournal was set");
+        }
+        return current;
+    }
+
+
+    /**
+     * Returns the cluster node for clustered jobs or throws when none was set.
+     * */
+    private ClusterNode requireCluster() {
+        ClusterNode current = cluster;
+        if (current == null) {
+            throw new IllegalStateException("No ClusterNode was set");
+        }
+        return current;
+    }
+
+
+    /**
+     * Creates the task of a durable job that records its outcome in the {@code journal}.
+     * */
+    private ScheduledTask<Object> durableTask(JobJournal journal, long jobId, JobDescriptor job) {
+        Consumer<byte[]> handler = jobHandlers.get(job.getJobType());
+        if (handler == null) {
+            throw new IllegalStateException("No job handler is registered for " + job.getJobType());
+        }
+        byte[] payload = job.getPayload();
+        ScheduledTask<Object> task = new ScheduledTask<>(() -> {
+            handler.accept(payload);
+            return null;
+        }, 0, TimeUnit.NANOSECONDS);
+        recordOutcome(journal, jobId, task);
+        return task;
+    }
+
+
+    /**
+     * Records the durable job as completed or cancelled once its {@code future} finished, after which it is no longer armed.
+     * Jobs that were cancelled because the {@code Scheduler} shut down stay pending in the journal.
+     * */
+    private void recordOutcome(JobJournal journal, long jobId, CompletableFuture<?> future) {
+        future.whenComplete((ignored, throwable) -> {
+            armedJobs.remove(jobId);
+            if (!future.isCancelled()) {
+                journal.recordCompleted(jobId);
+            } else if (!executor.isShutdown() && !timerEngine.isShutdown()) {
+                journal.recordCancelled(jobId);
+            }
+        });
+    }
+
+
+    /**
+     * Hands the {@code task} to the executor once the clock reached the {@code instant}.
+     * */
+    private <T> ScheduledTask<T> scheduleAt(ScheduledTask<T> task, Instant instant) {
+        task.recordMetrics(metrics);
+        if (instant.isAfter(getClock().instant())) {
+            admitTimer();
+            deadlineScheduler.schedule(task, instant);
+            return task;
+        }
+        switch (pastDeadlinePolicy) {
+            case SKIP -> task.cancel(false);
+            case REJECT -> throw new IllegalArgumentException("Deadline already passed: " + instant);
+            default -> submit(task);
+        }
+        return task;
+    }
+
+
+    /**
+     * Returns where ready tasks go, which is the normal priority class once priority dispatch is on.
+     * Batches hand their drainers to it directly, so a sharded executor can still spread them.
+     * */
+    private Executor readyTarget() {
+        return priorityDispatch ? priorityDispatcher.executor(Priority.NORMAL) : executor;
+    }
+
+
+    /**
+     * Returns the engine for fixed delay and periodic jobs, which is the precision timer once one was set.
+     * */
+    private TimerEngine delayTimer() {
+        PrecisionTimerEngine current = precisionTimer;
+        return current != null ? current : timerEngine;
+    }
+
+
+    /**
+     * Rejects a task that would need another timeout while the {@link AdmissionLimits} allow no more pending timers.
+     * */
+    private void admitTimer() {
+        admitTimer(1);
+    }
+
+
+    /**
+     * Rejects the {@code tasks} that would share another timeout while the {@link AdmissionLimits} allow no more pending timers.
+     * */
+    private void admitTimer(int tasks) {
+        AdmissionLimits limits = admissionLimits;
+        if (limits != null && limits.getMaxPendingTimers() != AdmissionLimits.UNBOUNDED
+                && timerEngine.pendingTimeouts() >= limits.getMaxPendingTimers()) {
+            metrics.tasksRejected(tasks);
+            throw new RejectedExecutionException("Too many pending timers: " + limits.getMaxPendingTimers());
+        }
+    }
+
+
+    /**
+     * Creates a fixed rate {@link PeriodicSchedule} with {@code numRepeats} runs.
+     * */
+    private static PeriodicSchedule fixedRate(int numRepeats, long initialDelay, long period, TimeUnit unit) {
+        PeriodicSchedule schedule = new PeriodicSchedule(period, unit);
+        schedule.setInitialDelay(initialDelay);
+        schedule.setNumRepeats(numRepeats);
+        return schedule;
+    }
+
+
+    /**
+     * Hands the {@code task} to the executor so it runs immediately.
+     * */
+    private <T> ScheduledTask<T> submit(ScheduledTask<T> task) {
+        return dispatch(task, readyExecutor);
+    }
+
+
+    /**
+     * Runs the task of a {@link Stage} as soon as possible, like every task without a priority.
+     * */
+    <T> CompletableFuture<T> runStage(Callable<T> task) {
+        return submit(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS));
+    }
+
+
+    /**
+     * Runs a subtask of a {@link TaskScope} as soon as possible, or hands it to the timer while it has a delay.
+     * */
+    <T> CompletableFuture<T> runScoped(Callable<T> task, long delay, TimeUnit unit) {
+        ScheduledTask<T> scheduled = new ScheduledTask<>(task, delay, unit);
+        return delay > 0 ? schedule(scheduled, delay, unit) : submit(scheduled);
+    }
+
+
+    /**
+     * Hands the {@code task} to the {@code target}, which either is the executor or queues the task by priority.
+     * */
+    private <T> ScheduledTask<T> dispatch(ScheduledTask<T> task, Executor target) {
+        task.recordMetrics(metrics);
+        try {
+            AdmissionController current = admission;
+            if (current != null) {
+                current.execute(task, target);
+            } else {
+                target.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            metrics.tasksRejected(1);
+            throw e;
+        }
+        return task;
+    }
+
+
+    /**
+     * Hands the {@code task} to the shard of the {@code key} so it runs immediately.
+     * */
+    private <T> ScheduledTask<T> submit(ScheduledTask<T> task, Object key) {
+        task.recordMetrics(metrics);
+        try {
+            AdmissionController current = admission;
+            if (executor instanceof ShardedExecutor shardedExecutor) {
+                if (current != null) {
+                    current.execute(task, command -> shardedExecutor.execute(command, key));
+                } else {
+                    shardedExecutor.execute(task, key);
+                }
+            } else if (current != null) {
+                current.execute(task, executor);
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            metrics.tasksRejected(1);
+            throw e;
+        }
+        return task;
+    }
+
+
+    /**
+     * Reserves the turn of the {@code task} under the rate limit of the {@code key} and runs it right away or once the
+     * turn came. A task that is rejected after all gives its turn back.
+     * */
+    private <T> ScheduledTask<T> submitRateLimited(ScheduledTask<T> task, Object key) {
+        RateLimiter limiter = rateLimiters.get(key);
+        if (limiter == null) {
+            throw new IllegalStateException("No RateLimit was set for key: " + key);
+        }
+        long delay = limiter.reserve();
+        if (delay < 0) {
+            metrics.tasksRejected(1);
+            throw new RejectedExecutionException("Rate limit of key " + key + " exceeds the maximum delay");
+        }
+        try {
+            if (delay == 0) {
+                return submit(task);
+            }
+            task.resetDelay(delay, TimeUnit.NANOSECONDS);
+            schedule(task, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            limiter.refund();
+            throw e;
+        }
+        metrics.tasksDeferred(1);
+        return task;
+    }
+
+
+    /**
+     * Starts one attempt of a retried task, right away or on the timer after the backoff {@code delay}.
+     * */
+    private <T> CompletableFuture<T> launchAttempt(Callable<T> task, long delay) {
+        if (delay == 0) {
+            return submit(new ScheduledTask<>(task, 0, TimeUnit.NANOSECONDS));
+        }
+        return schedule(new ScheduledTask<>(task, delay, TimeUnit.NANOSECONDS), delay, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Cancels the tasks that wait for room in the executor, they would never be admitted after a shutdown.
+     * */
+    private synchronized void cancelWaitingTasks() {
+        AdmissionController current = admission;
+        if (current != null) {
+            current.cancelWaiting();
+        }
+        for (AdmissionController replaced : replacedAdmissions) {
+            replaced.cancelWaiting();
+        }
+        replacedAdmissions.clear();
+    }
+
+
+    /**
+     * Stops resizing the pool, so the controller does not keep the timer busy while it shuts down.
+     * */
+    private synchronized void stopPoolSizing() {
+        if (poolSizeController != null) {
+            poolSizeController.stop();
+        }
+    }
+
+
+    /**
+     * Lets the {@code task} fire the event with the given {@code eventName} as soon as it finished.
+     * */
+    private <T> ScheduledTask<T> withEvent(ScheduledTask<T> task, String eventName) {
+        return task.fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor);
+    }
+
+
+    /**
+     * Shuts down the executor immediately and returns a {@code 1} if it sucessfully shut down immediately and returns a {@code 0} if not.
+     * Shutting the executor down immediately also stops any running tasks at the moment from the executor
+     * and cancels every delayed task inside the {@link TimerEngine}.
+     *
+     * @return {@code 1} if shutdown was immediately, {@code 0} otherwise
+     * */
+    public int shutdownNow() {
+        stopPoolSizing();
+        metrics.close();
+        cancelWaitingTasks();
+        timerEngine.shutdownNow();
+        PrecisionTimerEngine precise = precisionTimer;
+        if (precise != null) {
+            precise.shutdownNow();
+        }
+        executor.shutdownNow();
+        priorityDispatcher.cancelPending();
+        if (executor.isShutdown()) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+
+    /**
+     * Shuts down the executor and returns a {@code 1} if it successfully shut down immediately and returns a {@code 0} if not.
+     * Shutting the executor down lets any running task get completed first but does not accept any new tasks.
+     * Delayed tasks that are still waiting inside the {@link TimerEngine} are run first, in which case the executor
+     * shuts down once the last of them was handed over.
+     *
+     * @return {@code 1} if shutdown was immediately, {@code 0} otherwise
+     * */
+    public int shutdown() {
+        stopPoolSizing();
+        metrics.close();
+        cancelWaitingTasks();
+        PrecisionTimerEngine precise = precisionTimer;
+        CompletableFuture<Void> timers = precise == null ? timerEngine.shutdown()
+                : CompletableFuture.allOf(timerEngine.shutdown(), precise.shutdown());
+        timers.whenComplete((ignored, throwable) -> executor.shutdown());
+        if (executor.isShutdown()) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+
+}
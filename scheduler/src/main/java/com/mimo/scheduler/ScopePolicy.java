@@ -0,0 +1,25 @@
+package com.mimo.scheduler;
+
+/**
+ * Decides when a {@link TaskScope} completes and cancels the subtasks that are still running.
+ */
+public enum ScopePolicy {
+
+    /**
+     * The scope completes once every subtask finished. Failed subtasks do not affect the others, their failures are
+     * only visible in their own futures.
+     */
+    AWAIT_ALL,
+
+    /**
+     * The scope completes once every subtask succeeded, or fails with the first failure and cancels every other
+     * subtask right away.
+     */
+    SHUTDOWN_ON_FAILURE,
+
+    /**
+     * The scope completes with the result of the first subtask that succeeded and cancels every other subtask right
+     * away, which is what hedged requests need. It fails with the first failure once every subtask failed.
+     */
+    SHUTDOWN_ON_SUCCESS
+}
@@ -0,0 +1,118 @@
+package com.mimo.scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A node of a {@link Pipeline} and the future of its result.
+ * It completes with the result of its task, exceptionally when the task failed, and gets cancelled when one of its
+ * inputs failed or got cancelled, so a failure cancels every stage that depends on it.
+ *
+ * @param <T> the result type of the stage
+ */
+public final class Stage<T> extends CompletableFuture<T> {
+    private final Pipeline pipeline;
+    private final List<Stage<?>> inputs;
+    private final Callable<T> task;
+    private volatile CompletableFuture<T> running;
+
+
+    Stage(Pipeline pipeline, List<Stage<?>> inputs, Callable<T> task) {
+        this.pipeline = pipeline;
+        this.inputs = inputs;
+        this.task = task;
+    }
+
+
+    /**
+     * Returns the {@link Pipeline} the stage belongs to.
+     *
+     * @return the {@code Pipeline} of the stage
+     **/
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+
+    /**
+     * Returns the number of stages whose results the stage receives.
+     *
+     * @return the number of inputs, {@code 0} for a stage that starts right away
+     **/
+    public int getInputCount() {
+        return inputs.size();
+    }
+
+
+    /**
+     * Cancels the stage, its running task and every stage that depends on it.
+     *
+     * @param mayInterruptIfRunning whether a running task is interrupted
+     *
+     * @return {@code true} if the stage got cancelled by this call
+     **/
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        CompletableFuture<T> current = running;
+        if (cancelled && current != null) {
+            current.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+
+    /**
+     * Submits the task once the last input completed, or right away if there are none.
+     **/
+    void launch(Scheduler scheduler) {
+        if (inputs.isEmpty()) {
+            submit(scheduler);
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(inputs.size());
+        for (Stage<?> input : inputs) {
+            input.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    cancel(false);
+                } else if (remaining.decrementAndGet() == 0) {
+                    submit(scheduler);
+                }
+            });
+        }
+    }
+
+
+    private void submit(Scheduler scheduler) {
+        if (isDone()) {
+            return;
+        }
+        CompletableFuture<T> current;
+        try {
+            current = scheduler.runStage(task);
+        } catch (RejectedExecutionException e) {
+            completeExceptionally(e);
+            return;
+        }
+        running = current;
+        /// The stage may have been cancelled while the task was submitted, before it could see the running task.
+        if (isCancelled()) {
+            current.cancel(false);
+        }
+        current.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                complete(result);
+            } else if (throwable instanceof CancellationException) {
+                cancel(false);
+            } else {
+                completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable);
+            }
+        });
+    }
+}
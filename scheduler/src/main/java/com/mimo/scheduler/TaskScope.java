@@ -0,0 +1,360 @@
+package com.mimo.scheduler;
+
+import com.mimo.scheduler.timer.Timeout;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A group of subtasks that run on a {@link Scheduler} and never outlive it, created with
+ * {@link Scheduler#openScope(ScopePolicy)}.
+ * <p>
+ * Subtasks are forked into the scope, right away or after a delay, and the {@link ScopePolicy} decides when the scope
+ * completes. Once it completed, was cancelled, passed its deadline or was closed, every subtask that still runs is
+ * cancelled and interrupted, every delayed subtask is taken out of the timer, and every child scope is cancelled the
+ * same way. Scopes that are opened while a subtask runs become children of the scope of that subtask, so
+ * cancellation reaches every descendant. Cancellation is cooperative: an interrupted subtask stops when it checks
+ * its interrupt flag or blocks.
+ * <p>
+ * The scope is meant to be used in a try-with-resources block by the thread that opened it:
+ * fork the subtasks, {@link #join()} and let {@link #close()} clean up.
+ *
+ * @param <T> the result type of the subtasks
+ */
+public final class TaskScope<T> implements AutoCloseable {
+    private static final ThreadLocal<TaskScope<?>> CURRENT = new ThreadLocal<>();
+
+    private final Scheduler scheduler;
+    private final ScopePolicy policy;
+    private final TaskScope<?> parent;
+    private final CompletableFuture<T> result;
+    private final Set<CompletableFuture<?>> subtasks;
+    private final Set<TaskScope<?>> children;
+    private final AtomicInteger pending;
+    private final AtomicReference<Throwable> firstFailure;
+    private final long deadlineNanos;
+    private volatile Timeout deadlineTimeout;
+    private volatile boolean joined;
+
+
+    TaskScope(Scheduler scheduler, ScopePolicy policy, TaskScope<?> parent, long timeoutNanos) {
+        this.scheduler = scheduler;
+        this.policy = policy;
+        this.parent = parent;
+        this.result = new CompletableFuture<>();
+        this.subtasks = ConcurrentHashMap.newKeySet();
+        this.children = ConcurrentHashMap.newKeySet();
+        this.pending = new AtomicInteger();
+        this.firstFailure = new AtomicReference<>();
+        long now = System.nanoTime();
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + timeoutNanos;
+        if (parent != null && parent.deadlineNanos != Long.MAX_VALUE
+                && (deadline == Long.MAX_VALUE || parent.deadlineNanos - deadline < 0)) {
+            deadline = parent.deadlineNanos;
+        }
+        this.deadlineNanos = deadline;
+    }
+
+
+    /**
+     * Returns the scope of the subtask that runs on the current thread, so a subtask can fork further subtasks
+     * into its own scope.
+     *
+     * @return the {@code TaskScope} of the running subtask, or {@code null} outside of a subtask
+     **/
+    public static TaskScope<?> current() {
+        return CURRENT.get();
+    }
+
+
+    /**
+     * Returns the {@link ScopePolicy} of the scope.
+     *
+     * @return the {@code ScopePolicy} that decides when the scope completes
+     **/
+    public ScopePolicy getPolicy() {
+        return policy;
+    }
+
+
+    /**
+     * Returns the scope this scope was opened in, or {@code null} for a scope that was opened outside of a subtask.
+     *
+     * @return the parent {@code TaskScope}
+     **/
+    public TaskScope<?> getParent() {
+        return parent;
+    }
+
+
+    /**
+     * Returns the time left until the deadline of the scope, which is never later than the deadline of its parent.
+     *
+     * @param unit the {@code TimeUnit} of the returned time
+     *
+     * @return the remaining time, or {@code Long.MAX_VALUE} if the scope has no deadline
+     **/
+    public long getRemaining(TimeUnit unit) {
+        return deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Starts a subtask right away.
+     *
+     * @param task the {@code Callable} of the subtask
+     *
+     * @return a {@link CompletableFuture} of the subtask, which is cancelled with the scope
+     *
+     * @throws IllegalStateException if the scope already completed
+     **/
+    public <U extends T> CompletableFuture<U> fork(Callable<U> task) {
+        return fork(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Starts a subtask after the {@code delay}. Until then it waits in the timer, and leaves it when the scope is
+     * cancelled.
+     *
+     * @param task the {@code Callable} of the subtask
+     * @param delay the delay after which the subtask runs
+     * @param unit the {@code TimeUnit} to describe the delay length
+     *
+     * @return a {@link CompletableFuture} of the subtask, which is cancelled with the scope
+     *
+     * @throws IllegalStateException if the scope already completed
+     **/
+    public <U extends T> CompletableFuture<U> fork(Callable<U> task, long delay, TimeUnit unit) {
+        if (result.isDone()) {
+            throw new IllegalStateException("TaskScope already completed");
+        }
+        pending.incrementAndGet();
+        CompletableFuture<U> subtask;
+        try {
+            subtask = scheduler.runScoped(() -> callInScope(task), delay, unit);
+        } catch (RejectedExecutionException e) {
+            subtaskFinished(null, e);
+            throw e;
+        }
+        subtasks.add(subtask);
+        /// The scope may have completed while the subtask was submitted, before it could see the subtask.
+        if (result.isDone()) {
+            subtask.cancel(true);
+        }
+        subtask.whenComplete((value, failure) -> {
+            subtasks.remove(subtask);
+            subtaskFinished(value, failure);
+        });
+        return subtask;
+    }
+
+
+    /**
+     * Opens a child scope without a deadline of its own, which is cancelled together with this scope.
+     *
+     * @param policy the {@code ScopePolicy} of the child
+     *
+     * @return the child {@code TaskScope}
+     **/
+    public <R> TaskScope<R> openScope(ScopePolicy policy) {
+        return openScope(policy, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Opens a child scope with a deadline, which is cancelled together with this scope. The deadline of the child
+     * never lies after the deadline of this scope.
+     *
+     * @param policy the {@code ScopePolicy} of the child
+     * @param timeout the time after which the child is cancelled
+     * @param unit the {@code TimeUnit} of the timeout
+     *
+     * @return the child {@code TaskScope}
+     *
+     * @throws IllegalStateException if this scope already completed
+     **/
+    public <R> TaskScope<R> openScope(ScopePolicy policy, long timeout, TimeUnit unit) {
+        TaskScope<R> child = new TaskScope<>(scheduler, policy, this, timeout == Long.MAX_VALUE ? Long.MAX_VALUE : unit.toNanos(timeout));
+        children.add(child);
+        if (result.isDone()) {
+            children.remove(child);
+            throw new IllegalStateException("TaskScope already completed");
+        }
+        child.result.whenComplete((ignored, failure) -> children.remove(child));
+        return child.start();
+    }
+
+
+    /**
+     * Waits until the scope completed after its {@link ScopePolicy}. No subtask completes the scope before it was
+     * joined, except by failing under {@link ScopePolicy#SHUTDOWN_ON_FAILURE} or succeeding under
+     * {@link ScopePolicy#SHUTDOWN_ON_SUCCESS}.
+     *
+     * @return the result of the first successful subtask with {@link ScopePolicy#SHUTDOWN_ON_SUCCESS}, {@code null} otherwise
+     *
+     * @throws InterruptedException if the waiting thread was interrupted
+     * @throws ExecutionException if the scope failed, with a {@link TimeoutException} as cause once the deadline passed
+     * @throws CancellationException if the scope was cancelled
+     **/
+    public T join() throws InterruptedException, ExecutionException {
+        return joinAsync().get();
+    }
+
+
+    /**
+     * Completes the scope after its {@link ScopePolicy} without waiting, like {@link #join()}.
+     *
+     * @return a {@link CompletableFuture} of the result of the scope, cancelling it cancels the scope
+     **/
+    public CompletableFuture<T> joinAsync() {
+        joined = true;
+        if (pending.get() == 0) {
+            completeAll();
+        }
+        return result;
+    }
+
+
+    /**
+     * Cancels the scope, every subtask and every child scope.
+     *
+     * @return {@code true} if the scope got cancelled by this call
+     **/
+    public boolean cancel() {
+        return result.cancel(true);
+    }
+
+
+    /**
+     * Returns whether the scope completed, failed or was cancelled.
+     *
+     * @return {@code true} if no subtask can be forked anymore
+     **/
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+
+    /**
+     * Cancels every subtask and child scope that is still running, so nothing forked in the scope outlives it.
+     **/
+    @Override
+    public void close() {
+        cancel();
+        /// A scope that a subtask completed is cleaned up on the thread of that subtask, which may not be done yet.
+        shutdown();
+    }
+
+
+    /**
+     * Returns whether the subtasks of the scope run on the {@code scheduler}.
+     **/
+    boolean isOf(Scheduler scheduler) {
+        return this.scheduler == scheduler;
+    }
+
+
+    /**
+     * Arms the deadline and ties the completion of the scope to the cleanup of everything it started.
+     **/
+    TaskScope<T> start() {
+        result.whenComplete((ignored, failure) -> shutdown());
+        if (deadlineNanos != Long.MAX_VALUE) {
+            long remaining = deadlineNanos - System.nanoTime();
+            try {
+                deadlineTimeout = scheduler.getTimerEngine().newTimeout(this::expire, remaining, TimeUnit.NANOSECONDS, Runnable::run);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+            if (result.isDone() && deadlineTimeout != null) {
+                deadlineTimeout.cancel();
+            }
+        }
+        return this;
+    }
+
+
+    private <U> U callInScope(Callable<U> task) throws Exception {
+        TaskScope<?> previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void subtaskFinished(Object value, Throwable failure) {
+        try {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause == null) {
+                if (policy == ScopePolicy.SHUTDOWN_ON_SUCCESS) {
+                    result.complete((T) value);
+                }
+            } else if (!(cause instanceof CancellationException)) {
+                /// Subtasks that join the same future fail with the same instance, which can not suppress itself.
+                Throwable first = firstFailure.compareAndExchange(null, cause);
+                if (first != null && first != cause) {
+                    first.addSuppressed(cause);
+                }
+                if (policy == ScopePolicy.SHUTDOWN_ON_FAILURE) {
+                    result.completeExceptionally(cause);
+                }
+            }
+        } finally {
+            if (pending.decrementAndGet() == 0 && joined) {
+                completeAll();
+            }
+        }
+    }
+
+    /// Runs once no subtask is pending anymore, which only decides the scope if no single subtask did already.
+    /// A child shares the deadline of its parent, so its timeout may end the last subtask before the own timer fires.
+    private void completeAll() {
+        if (deadlineNanos != Long.MAX_VALUE && deadlineNanos - System.nanoTime() <= 0) {
+            expire();
+            return;
+        }
+        Throwable failure = firstFailure.get();
+        if (policy == ScopePolicy.SHUTDOWN_ON_SUCCESS) {
+            result.completeExceptionally(failure != null ? failure : new IllegalStateException("No subtask succeeded"));
+        } else if (policy == ScopePolicy.SHUTDOWN_ON_FAILURE && failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    private void expire() {
+        result.completeExceptionally(new TimeoutException("TaskScope passed its deadline"));
+    }
+
+    private void shutdown() {
+        Timeout timeout = deadlineTimeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        for (CompletableFuture<?> subtask : subtasks) {
+            subtask.cancel(true);
+        }
+        for (TaskScope<?> child : children) {
+            child.cancel();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mimo.scheduler.aftertask;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method without parameters that is invoked once a task fired the event with the given {@link #name()}.
+ * Static methods are found on the classes that were added with
+ * {@link com.mimo.scheduler.Scheduler#addCheckingClass(Class)}, instance methods on the listeners that were added
+ * with {@link com.mimo.scheduler.Scheduler#addListener(Object)}.
+ * <p>
+ * The methods of an event run in waves of ascending {@link #order()}, and a wave only starts once the one before it
+ * finished. Within a wave the {@link #parallel()} methods fan out onto the event executor while the others run one
+ * after another in registration order. An exception of one method never stops the others.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AfterTask {
+    String name();
+
+    /**
+     * The wave of the method, methods with a lower order finish before methods with a higher order start.
+     */
+    int order() default 0;
+
+    /**
+     * Whether the method is independent of the other methods of its wave and may run concurrently with them.
+     */
+    boolean parallel() default false;
+}
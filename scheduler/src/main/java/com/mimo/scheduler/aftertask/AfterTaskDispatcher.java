@@ -0,0 +1,48 @@
+package com.mimo.scheduler.aftertask;
+
+import java.util.Map;
+
+/**
+ * Maps the event names of the {@link AfterTask} methods of a single class to direct calls of these methods.
+ * Implementations are generated at build time by the {@code SchedulerLibrary-processor} module and found through
+ * {@link java.util.ServiceLoader}, so classes with a generated dispatcher are never scanned with reflection.
+ */
+public interface AfterTaskDispatcher {
+
+    /**
+     * Returns the {@link Class} that declares the {@link AfterTask} methods of this dispatcher.
+     *
+     * @return the class the dispatcher was generated for
+     **/
+    Class<?> target();
+
+
+    /**
+     * Returns the calls of the static {@link AfterTask} methods of the target class grouped by their event name.
+     *
+     * @return a {@link Map} from every event name to the calls that are invoked when the event is fired
+     **/
+    Map<String, Runnable[]> invokers();
+
+
+    /**
+     * Returns the static {@link AfterTask} methods of the target class with their attributes, grouped by their event
+     * name.
+     *
+     * @return a {@link Map} from every event name to the methods that are invoked when the event is fired
+     **/
+    Map<String, AfterTaskListener[]> listeners();
+
+
+    /**
+     * Returns the instance {@link AfterTask} methods declared by the target class bound to the given {@code listener},
+     * grouped by their event name. Methods of superclasses are not part of it.
+     *
+     * @param listener an instance of the target class
+     *
+     * @return a {@link Map} from every event name to the methods that are invoked when the event is fired
+     **/
+    default Map<String, AfterTaskListener[]> listeners(Object listener) {
+        return Map.of();
+    }
+}
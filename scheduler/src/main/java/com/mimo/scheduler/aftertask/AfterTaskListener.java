@@ -0,0 +1,12 @@
+package com.mimo.scheduler.aftertask;
+
+/**
+ * A single {@link AfterTask} method of an event together with its {@link AfterTask#order()} and
+ * {@link AfterTask#parallel()} attributes.
+ *
+ * @param invoker the call of the method, bound to its instance for non-static methods
+ * @param order the wave the method runs in
+ * @param parallel whether the method may run concurrently with the other methods of its wave
+ */
+public record AfterTaskListener(Runnable invoker, int order, boolean parallel) {
+}
@@ -0,0 +1,300 @@
+package com.mimo.scheduler.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A member of a cluster of schedulers that share a {@link LeaseStore}, set with
+ * {@link com.mimo.scheduler.Scheduler#setCluster(ClusterNode)}.
+ * <p>
+ * Job keys are hashed onto a fixed number of partitions, and every partition is owned by one node at a time through a
+ * {@link Lease}. Which node should own a partition is decided by rendezvous hashing over the live nodes, so when a
+ * node joins or leaves only the partitions that move to or from it change their owner. A background thread sends
+ * heartbeats, renews the leases, acquires the partitions this node should own and releases those that belong to
+ * another node now, every third of the lease duration.
+ * <p>
+ * Every node schedules all clustered jobs, but a run only executes on the node whose lease covers the time the run
+ * was due at. Released leases end a little in the future and the next owner starts exactly there, so a run fires
+ * exactly once while the nodes renew their leases in time. When a node stops without releasing its leases, the runs
+ * until its leases expired are lost instead of being run twice.
+ */
+public final class ClusterNode implements AutoCloseable {
+    private static final long DEFAULT_LEASE_MILLIS = 15_000;
+
+    private final String nodeId;
+    private final int partitions;
+    private final LeaseStore store;
+    private final AtomicReferenceArray<Lease> leases;
+    private final AtomicReferenceArray<Lease> previousLeases;
+    private volatile long leaseMillis;
+    private volatile Thread maintainer;
+    private volatile boolean running;
+    private volatile Exception lastFailure;
+
+
+    /**
+     * Creates a {@code ClusterNode} that does not take part in the cluster until it is started.
+     * All nodes of a cluster have to use the same number of partitions.
+     *
+     * @param nodeId the id of the node, unique within the cluster
+     * @param partitions the number of partitions the job keys are hashed onto
+     * @param store the {@code LeaseStore} shared by all nodes
+     **/
+    public ClusterNode(String nodeId, int partitions, LeaseStore store) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be greater than 0: " + partitions);
+        }
+        this.nodeId = nodeId;
+        this.partitions = partitions;
+        this.store = store;
+        this.leases = new AtomicReferenceArray<>(partitions);
+        this.previousLeases = new AtomicReferenceArray<>(partitions);
+        this.leaseMillis = DEFAULT_LEASE_MILLIS;
+    }
+
+
+    /**
+     * Sets how long leases and heartbeats last without being renewed. They are renewed every third of it, and a node
+     * that crashed is replaced after at most this duration. The default is 15 seconds.
+     *
+     * @param duration the lease duration
+     * @param unit the {@code TimeUnit} to describe the duration
+     **/
+    public void setLeaseDuration(long duration, TimeUnit unit) {
+        long millis = unit.toMillis(duration);
+        if (millis < 3) {
+            throw new IllegalArgumentException("The lease duration must be at least 3 milliseconds: " + millis);
+        }
+        this.leaseMillis = millis;
+    }
+
+
+    /**
+     * Returns how long leases and heartbeats last without being renewed in the given {@link TimeUnit}.
+     *
+     * @param unit the {@code TimeUnit} of the returned duration
+     *
+     * @return the lease duration
+     **/
+    public long getLeaseDuration(TimeUnit unit) {
+        return unit.convert(leaseMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Returns the id of the node.
+     *
+     * @return the node id
+     **/
+    public String getNodeId() {
+        return nodeId;
+    }
+
+
+    /**
+     * Returns the number of partitions the job keys are hashed onto.
+     *
+     * @return the number of partitions
+     **/
+    public int getPartitionCount() {
+        return partitions;
+    }
+
+
+    /**
+     * Returns the last exception the background thread ran into while accessing the store, or {@code null}.
+     * The thread keeps trying, and the leases it already holds stay valid until they expire.
+     *
+     * @return the last exception, or {@code null} if there was none
+     **/
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+
+    /**
+     * Joins the cluster: rebalances once right away, so the node knows its partitions when the method returns,
+     * and then keeps rebalancing in the background.
+     *
+     * @throws IOException if the store can not be accessed
+     * @throws IllegalStateException if the node was already started
+     **/
+    public synchronized void start() throws IOException {
+        if (maintainer != null) {
+            throw new IllegalStateException("The node was already started");
+        }
+        running = true;
+        rebalance();
+        maintainer = Thread.ofPlatform().daemon().name("scheduler-cluster-" + nodeId).start(this::maintain);
+    }
+
+
+    /**
+     * Sends a heartbeat, renews and acquires the partitions this node should own and releases the others.
+     * Released partitions stay covered by this node for two thirds of the lease duration, so the next owner can
+     * acquire them before the hand-over time.
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    public synchronized void rebalance() throws IOException {
+        long ttl = leaseMillis;
+        store.heartbeat(nodeId, ttl);
+        Set<String> liveNodes = new TreeSet<>(store.liveNodes());
+        liveNodes.add(nodeId);
+        for (int partition = 0; partition < partitions; partition++) {
+            Lease held = leases.get(partition);
+            if (ownerOf(partition, liveNodes).equals(nodeId)) {
+                Lease lease = store.tryAcquire(partition, nodeId, ttl);
+                if (lease == null) {
+                    retire(partition, held);
+                } else {
+                    if (held != null && held.getAcquiredEpochMillis() != lease.getAcquiredEpochMillis()) {
+                        previousLeases.set(partition, held);
+                    }
+                    leases.set(partition, lease);
+                }
+            } else if (held != null) {
+                Lease released = store.release(partition, nodeId, ttl * 2 / 3);
+                retire(partition, released != null ? released : held);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the partition of a job key.
+     *
+     * @param jobKey the key of the job
+     *
+     * @return the partition between {@code 0} and {@link #getPartitionCount()}
+     **/
+    public int partitionOf(String jobKey) {
+        return (int) Math.floorMod(mix(jobKey.hashCode()), (long) partitions);
+    }
+
+
+    /**
+     * Returns whether the run of a job that is due at the given time belongs to this node.
+     *
+     * @param jobKey the key of the job
+     * @param dueEpochMillis the time the run is due at, in milliseconds since the epoch
+     *
+     * @return {@code true} if a lease of this node covers the due time
+     **/
+    public boolean owns(String jobKey, long dueEpochMillis) {
+        int partition = partitionOf(jobKey);
+        return covers(leases.get(partition), dueEpochMillis) || covers(previousLeases.get(partition), dueEpochMillis);
+    }
+
+
+    /**
+     * Returns the partitions whose leases this node holds at the moment.
+     *
+     * @return the owned partitions in ascending order
+     **/
+    public List<Integer> getOwnedPartitions() {
+        long now = store.currentTimeMillis();
+        List<Integer> owned = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            if (covers(leases.get(partition), now)) {
+                owned.add(partition);
+            }
+        }
+        return owned;
+    }
+
+
+    /**
+     * Leaves the cluster: stops the background thread, hands every partition over and removes the heartbeat.
+     * The node keeps covering the runs of its partitions until their hand-over time.
+     *
+     * @throws UncheckedIOException if the store can not be accessed
+     **/
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = maintainer;
+        }
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                for (int partition = 0; partition < partitions; partition++) {
+                    Lease held = leases.get(partition);
+                    if (held != null) {
+                        Lease released = store.release(partition, nodeId, leaseMillis * 2 / 3);
+                        retire(partition, released != null ? released : held);
+                    }
+                }
+                store.leave(nodeId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+
+    private void maintain() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(leaseMillis / 3));
+            if (!running) {
+                return;
+            }
+            try {
+                rebalance();
+            } catch (IOException | RuntimeException e) {
+                lastFailure = e;
+            }
+        }
+    }
+
+    /// Keeps the last lease of a partition this node no longer holds, so runs that were due during it still fire here.
+    private void retire(int partition, Lease lease) {
+        if (lease != null) {
+            previousLeases.set(partition, lease);
+        }
+        leases.set(partition, null);
+    }
+
+    /// Rendezvous hashing: the node with the highest weight for the partition owns it.
+    private String ownerOf(int partition, Set<String> liveNodes) {
+        String owner = null;
+        long best = 0;
+        for (String node : liveNodes) {
+            long weight = mix(node.hashCode() * 0x9E3779B97F4A7C15L + partition);
+            if (owner == null || weight > best) {
+                owner = node;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static boolean covers(Lease lease, long epochMillis) {
+        return lease != null && lease.covers(epochMillis);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
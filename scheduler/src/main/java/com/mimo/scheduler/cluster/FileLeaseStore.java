@@ -0,0 +1,223 @@
+package com.mimo.scheduler.cluster;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A {@link LeaseStore} inside a local directory, for nodes that run on the same machine, for example in tests.
+ * <p>
+ * Every partition has a small lease file and every node a heartbeat file with its expiry. Each operation holds an
+ * exclusive {@link FileLock} on a lock file in the directory, which makes it atomic across processes, and replaces
+ * the files it changes atomically, so a crash never leaves a torn lease behind. Stores of the same directory inside
+ * one JVM also share a lock, because a {@code FileLock} is held on behalf of the whole JVM.
+ */
+@SuppressWarnings("try")
+public class FileLeaseStore implements LeaseStore, AutoCloseable {
+    private static final Pattern NODE_ID = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final String LEASE_SUFFIX = ".lease";
+    private static final String NODE_SUFFIX = ".node";
+    private static final ConcurrentMap<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final Clock clock;
+    private final FileChannel lockChannel;
+    private final ReentrantLock localLock;
+
+
+    /**
+     * Opens a {@code FileLeaseStore} in the given directory, which is created if it does not exist yet.
+     *
+     * @param directory the directory shared by all nodes
+     *
+     * @throws IOException if the directory or its lock file can not be created
+     **/
+    public FileLeaseStore(Path directory) throws IOException {
+        this(directory, Clock.systemUTC());
+    }
+
+
+    /**
+     * Opens a {@code FileLeaseStore} in the given directory that measures leases with the given {@link Clock}.
+     *
+     * @param directory the directory shared by all nodes
+     * @param clock the {@code Clock} all nodes read
+     *
+     * @throws IOException if the directory or its lock file can not be created
+     **/
+    public FileLeaseStore(Path directory, Clock clock) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.clock = clock;
+        this.lockChannel = FileChannel.open(directory.resolve("leases.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.localLock = LOCAL_LOCKS.computeIfAbsent(this.directory.toAbsolutePath().normalize(), path -> new ReentrantLock());
+    }
+
+
+    @Override
+    public long currentTimeMillis() {
+        return clock.millis();
+    }
+
+
+    @Override
+    public Lease tryAcquire(int partition, String nodeId, long ttlMillis) throws IOException {
+        checkNodeId(nodeId);
+        try (Held ignored = lock()) {
+            long now = clock.millis();
+            Lease current = read(partition);
+            Lease next;
+            if (current == null) {
+                next = new Lease(partition, nodeId, now, now + ttlMillis, false);
+            } else if (current.getOwner().equals(nodeId) && !current.isReleased() && current.getExpiresEpochMillis() > now) {
+                next = new Lease(partition, nodeId, current.getAcquiredEpochMillis(), now + ttlMillis, false);
+            } else if (current.isReleased() || current.getExpiresEpochMillis() <= now) {
+                long acquired = Math.max(now, current.getExpiresEpochMillis());
+                next = new Lease(partition, nodeId, acquired, acquired + ttlMillis, false);
+            } else {
+                return null;
+            }
+            write(next);
+            return next;
+        }
+    }
+
+
+    @Override
+    public Lease release(int partition, String nodeId, long handoverMillis) throws IOException {
+        checkNodeId(nodeId);
+        try (Held ignored = lock()) {
+            Lease current = read(partition);
+            if (current == null || !current.getOwner().equals(nodeId)) {
+                return null;
+            }
+            if (current.isReleased()) {
+                return current;
+            }
+            long expires = Math.min(current.getExpiresEpochMillis(), clock.millis() + handoverMillis);
+            Lease released = new Lease(partition, nodeId, current.getAcquiredEpochMillis(), expires, true);
+            write(released);
+            return released;
+        }
+    }
+
+
+    @Override
+    public Lease getLease(int partition) throws IOException {
+        try (Held ignored = lock()) {
+            return read(partition);
+        }
+    }
+
+
+    @Override
+    public void heartbeat(String nodeId, long ttlMillis) throws IOException {
+        checkNodeId(nodeId);
+        try (Held ignored = lock()) {
+            replace(directory.resolve(nodeId + NODE_SUFFIX), Long.toString(clock.millis() + ttlMillis));
+        }
+    }
+
+
+    @Override
+    public void leave(String nodeId) throws IOException {
+        checkNodeId(nodeId);
+        try (Held ignored = lock()) {
+            Files.deleteIfExists(directory.resolve(nodeId + NODE_SUFFIX));
+        }
+    }
+
+
+    @Override
+    public Set<String> liveNodes() throws IOException {
+        Set<String> nodes = new HashSet<>();
+        try (Held ignored = lock(); Stream<Path> files = Files.list(directory)) {
+            long now = clock.millis();
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(NODE_SUFFIX) && Long.parseLong(Files.readString(file).trim()) > now) {
+                    nodes.add(name.substring(0, name.length() - NODE_SUFFIX.length()));
+                }
+            }
+        }
+        return nodes;
+    }
+
+
+    /**
+     * Closes the lock file. The leases and heartbeats stay in the directory.
+     **/
+    @Override
+    public void close() throws IOException {
+        lockChannel.close();
+    }
+
+
+    /// The local lock keeps the threads of this JVM apart, the file lock other processes.
+    private Held lock() throws IOException {
+        localLock.lock();
+        try {
+            return new Held(lockChannel.lock(), localLock);
+        } catch (IOException | RuntimeException e) {
+            localLock.unlock();
+            throw e;
+        }
+    }
+
+    private Lease read(int partition) throws IOException {
+        String content;
+        try {
+            content = Files.readString(leasePath(partition), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String[] fields = content.trim().split(" ");
+        return new Lease(partition, fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), Boolean.parseBoolean(fields[3]));
+    }
+
+    private void write(Lease lease) throws IOException {
+        replace(leasePath(lease.getPartition()), lease.getOwner() + " " + lease.getAcquiredEpochMillis() + " "
+                + lease.getExpiresEpochMillis() + " " + lease.isReleased());
+    }
+
+    private void replace(Path path, String content) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temporary, content, StandardCharsets.UTF_8);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path leasePath(int partition) {
+        return directory.resolve("partition-" + partition + LEASE_SUFFIX);
+    }
+
+    private static void checkNodeId(String nodeId) {
+        if (!NODE_ID.matcher(nodeId).matches()) {
+            throw new IllegalArgumentException("Node ids may only contain letters, digits, '.', '_' and '-': " + nodeId);
+        }
+    }
+
+
+    private record Held(FileLock fileLock, ReentrantLock localLock) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            try {
+                fileLock.release();
+            } finally {
+                localLock.unlock();
+            }
+        }
+    }
+}
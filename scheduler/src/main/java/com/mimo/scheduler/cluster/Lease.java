@@ -0,0 +1,104 @@
+package com.mimo.scheduler.cluster;
+
+/**
+ * The time-limited ownership of a partition by a single node, as held by a {@link LeaseStore}.
+ * <p>
+ * A lease covers the runs that are due from its acquisition time up to, but excluding, its expiry time. Renewing a
+ * lease keeps its acquisition time and moves its expiry, and a lease that is handed over to another node is released
+ * with an expiry in the near future, which is where the lease of the next owner starts. So no two leases of a
+ * partition ever cover the same instant.
+ */
+public final class Lease {
+    private final int partition;
+    private final String owner;
+    private final long acquiredEpochMillis;
+    private final long expiresEpochMillis;
+    private final boolean released;
+
+
+    /**
+     * Creates a {@code Lease}.
+     *
+     * @param partition the partition the lease belongs to
+     * @param owner the id of the node that holds the lease
+     * @param acquiredEpochMillis the time from which on the lease covers runs, in milliseconds since the epoch
+     * @param expiresEpochMillis the time at which the lease ends, in milliseconds since the epoch
+     * @param released whether the owner released the lease, so it ends at its expiry and is not renewed anymore
+     **/
+    public Lease(int partition, String owner, long acquiredEpochMillis, long expiresEpochMillis, boolean released) {
+        this.partition = partition;
+        this.owner = owner;
+        this.acquiredEpochMillis = acquiredEpochMillis;
+        this.expiresEpochMillis = expiresEpochMillis;
+        this.released = released;
+    }
+
+
+    /**
+     * Returns the partition the lease belongs to.
+     *
+     * @return the partition
+     **/
+    public int getPartition() {
+        return partition;
+    }
+
+
+    /**
+     * Returns the id of the node that holds the lease.
+     *
+     * @return the node id of the owner
+     **/
+    public String getOwner() {
+        return owner;
+    }
+
+
+    /**
+     * Returns the time from which on the lease covers runs, in milliseconds since the epoch.
+     *
+     * @return the acquisition time
+     **/
+    public long getAcquiredEpochMillis() {
+        return acquiredEpochMillis;
+    }
+
+
+    /**
+     * Returns the time at which the lease ends unless it is renewed, in milliseconds since the epoch.
+     *
+     * @return the expiry time
+     **/
+    public long getExpiresEpochMillis() {
+        return expiresEpochMillis;
+    }
+
+
+    /**
+     * Returns whether the owner released the lease, so another node may take the partition over from its expiry on.
+     *
+     * @return {@code true} if the lease was released
+     **/
+    public boolean isReleased() {
+        return released;
+    }
+
+
+    /**
+     * Returns whether a run that is due at the given time belongs to the owner of this lease.
+     *
+     * @param epochMillis the due time of the run in milliseconds since the epoch
+     *
+     * @return {@code true} if the time lies between the acquisition time and the expiry time
+     **/
+    public boolean covers(long epochMillis) {
+        return epochMillis >= acquiredEpochMillis && epochMillis < expiresEpochMillis;
+    }
+
+
+    @Override
+    public String toString() {
+        return "Lease[partition=" + partition + ", owner=" + owner + ", acquired=" + acquiredEpochMillis
+                + ", expires=" + expiresEpochMillis + (released ? ", released" : "") + "]";
+    }
+}
@@ -0,0 +1,94 @@
+package com.mimo.scheduler.cluster;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The shared state of a cluster: the {@link Lease} of every partition and the heartbeats of the nodes.
+ * Every method has to be atomic across all nodes that share the store.
+ * <p>
+ * A node may acquire a partition that has no lease, whose lease expired or whose lease was released. The new lease
+ * is acquired from the expiry of the previous one, or from now if that already passed, so it starts exactly where
+ * the previous one ended. All nodes have to read the same clock, see {@link #currentTimeMillis()}.
+ */
+public interface LeaseStore {
+
+    /**
+     * Returns the current time of the clock all leases and heartbeats of the store are measured with.
+     *
+     * @return the current time in milliseconds since the epoch
+     **/
+    long currentTimeMillis();
+
+
+    /**
+     * Acquires the lease of a partition for the node, or renews it if the node already holds it.
+     *
+     * @param partition the partition
+     * @param nodeId the id of the node
+     * @param ttlMillis how long the lease lasts without being renewed
+     *
+     * @return the acquired or renewed {@link Lease}, or {@code null} if another node holds the partition
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    Lease tryAcquire(int partition, String nodeId, long ttlMillis) throws IOException;
+
+
+    /**
+     * Releases the lease of a partition that the node holds. The lease stays valid until
+     * {@code handoverMillis} from now, unless it expires earlier, and the next owner takes over from that time on.
+     *
+     * @param partition the partition
+     * @param nodeId the id of the node
+     * @param handoverMillis how long the node keeps covering runs of the partition
+     *
+     * @return the released {@link Lease}, or {@code null} if the node did not hold the partition
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    Lease release(int partition, String nodeId, long handoverMillis) throws IOException;
+
+
+    /**
+     * Returns the current lease of a partition.
+     *
+     * @param partition the partition
+     *
+     * @return the {@link Lease}, or {@code null} if the partition was never acquired
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    Lease getLease(int partition) throws IOException;
+
+
+    /**
+     * Marks the node as alive for the next {@code ttlMillis}.
+     *
+     * @param nodeId the id of the node
+     * @param ttlMillis how long the node counts as alive without another heartbeat
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    void heartbeat(String nodeId, long ttlMillis) throws IOException;
+
+
+    /**
+     * Removes the heartbeat of a node that leaves the cluster.
+     *
+     * @param nodeId the id of the node
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    void leave(String nodeId) throws IOException;
+
+
+    /**
+     * Returns the ids of all nodes whose heartbeat did not expire yet.
+     *
+     * @return the ids of the live nodes
+     *
+     * @throws IOException if the store can not be accessed
+     **/
+    Set<String> liveNodes() throws IOException;
+}
@@ -0,0 +1,342 @@
+package com.mimo.scheduler.cron;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A cron expression that is parsed once into one bitset per field, so the next fire time is computed by jumping
+ * from field to field instead of testing every second or minute.
+ * <p>
+ * An expression has either five fields ({@code minute hour day-of-month month day-of-week}, firing at second 0)
+ * or six fields with a leading {@code second} field. Every field accepts {@code *}, single values, ranges
+ * {@code a-b}, steps <code>*&#47;n</code>, {@code a/n} and {@code a-b/n}, and comma separated lists of those. Month and
+ * day-of-week also accept the names {@code JAN}-{@code DEC} and {@code SUN}-{@code SAT}, where Sunday is both
+ * {@code 0} and {@code 7}. Day-of-month and day-of-week accept {@code ?} like {@code *}. When both of them are
+ * restricted a day matches if either of them matches, like in the classic cron.
+ * The macros {@code @yearly}, {@code @annually}, {@code @monthly}, {@code @weekly}, {@code @daily},
+ * {@code @midnight} and {@code @hourly} are supported as well.
+ */
+public final class CronExpression {
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    private static final int MAX_YEARS = 400;
+
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        int offset = fields.length == 6 ? 1 : 0;
+        this.seconds = offset == 1 ? parseField(fields[0], 0, 59, null) : 1L;
+        this.minutes = parseField(fields[offset], 0, 59, null);
+        this.hours = parseField(fields[offset + 1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[offset + 2], 1, 31, null);
+        this.months = parseField(fields[offset + 3], 1, 12, MONTHS);
+        long days = parseField(fields[offset + 4], 0, 7, DAYS);
+        this.daysOfWeek = (days | days >>> 7) & 0x7F;
+        this.daysOfMonthRestricted = !isWildcard(fields[offset + 2]);
+        this.daysOfWeekRestricted = !isWildcard(fields[offset + 4]);
+    }
+
+
+    /**
+     * Parses the given {@code expression} into a {@code CronExpression}.
+     *
+     * @param expression the cron expression with five or six fields, or a macro like {@code @daily}
+     *
+     * @return the parsed {@code CronExpression}
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     * */
+    public static CronExpression parse(String expression) {
+        String trimmed = expression.trim();
+        String[] fields = trimmed.startsWith("@") ? macro(trimmed) : split(trimmed);
+        if (fields.length != 5 && fields.length != 6) {
+            throw new IllegalArgumentException("Cron expression needs 5 or 6 fields: " + expression);
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+
+    private static String[] macro(String expression) {
+        return switch (expression.toLowerCase(Locale.ROOT)) {
+            case "@yearly", "@annually" -> new String[]{"0", "0", "1", "1", "*"};
+            case "@monthly" -> new String[]{"0", "0", "1", "*", "*"};
+            case "@weekly" -> new String[]{"0", "0", "*", "*", "0"};
+            case "@daily", "@midnight" -> new String[]{"0", "0", "*", "*", "*"};
+            case "@hourly" -> new String[]{"0", "*", "*", "*", "*"};
+            default -> throw new IllegalArgumentException("Unknown cron macro: " + expression);
+        };
+    }
+
+
+    /// Splits at runs of whitespace without a regex, since parsing many jobs at startup should stay cheap.
+    private static String[] split(String expression) {
+        String[] fields = new String[7];
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= expression.length(); i++) {
+            boolean blank = i == expression.length() || Character.isWhitespace(expression.charAt(i));
+            if (blank && start >= 0) {
+                if (count == fields.length) {
+                    break;
+                }
+                fields[count++] = expression.substring(start, i);
+                start = -1;
+            } else if (!blank && start < 0) {
+                start = i;
+            }
+        }
+        return count == fields.length ? fields : Arrays.copyOf(fields, count);
+    }
+
+
+    /**
+     * Returns the first fire time that lies strictly after the given {@code instant} in the given {@code zone}.
+     *
+     * @param instant the {@code Instant} after which the next fire time is searched
+     * @param zone the {@code ZoneId} in which the fields of the expression are interpreted
+     *
+     * @return the next fire time, or {@code null} if the expression never fires again
+     * */
+    public Instant next(Instant instant, ZoneId zone) {
+        ZonedDateTime next = next(instant.atZone(zone));
+        return next == null ? null : next.toInstant();
+    }
+
+
+    /**
+     * Returns the first fire time that lies strictly after the given {@code dateTime} in its time zone.
+     * A fire time that falls into a daylight saving time gap is moved forward by the length of the gap.
+     * A fire time inside an overlap fires once, at the earlier offset.
+     *
+     * @param dateTime the {@code ZonedDateTime} after which the next fire time is searched
+     *
+     * @return the next fire time, or {@code null} if the expression never fires again
+     * */
+    public ZonedDateTime next(ZonedDateTime dateTime) {
+        LocalDateTime after = dateTime.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS);
+        while (true) {
+            LocalDateTime local = nextLocal(after);
+            if (local == null) {
+                return null;
+            }
+            ZonedDateTime candidate = ZonedDateTime.ofLocal(local, dateTime.getZone(), null);
+            if (candidate.isAfter(dateTime)) {
+                return candidate;
+            }
+            after = local;
+        }
+    }
+
+
+    private LocalDateTime nextLocal(LocalDateTime after) {
+        LocalDateTime start = after.plusSeconds(1);
+        int year = start.getYear();
+        int month = start.getMonthValue();
+        int day = start.getDayOfMonth();
+        int hour = start.getHour();
+        int minute = start.getMinute();
+        int second = start.getSecond();
+        int lastYear = year + MAX_YEARS;
+
+        while (year <= lastYear) {
+            int nextMonth = nextBit(months, month);
+            if (nextMonth < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                day = 1;
+                hour = minute = second = 0;
+            }
+
+            int nextDay = nextBit(daysOf(year, month), day);
+            if (nextDay < 0) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                if (month > 12) {
+                    year++;
+                    month = 1;
+                }
+                continue;
+            }
+            if (nextDay != day) {
+                day = nextDay;
+                hour = minute = second = 0;
+            }
+
+            int nextHour = nextBit(hours, hour);
+            if (nextHour < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = second = 0;
+            }
+
+            int nextMinute = nextBit(minutes, minute);
+            if (nextMinute < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            }
+            if (nextMinute != minute) {
+                minute = nextMinute;
+                second = 0;
+            }
+
+            int nextSecond = nextBit(seconds, second);
+            if (nextSecond < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, nextSecond);
+        }
+        return null;
+    }
+
+
+    /// Days of the given month that match, as a bitset where bit 1 is the first day of the month.
+    private long daysOf(int year, int month) {
+        LocalDate firstDay = LocalDate.of(year, month, 1);
+        long inMonth = (-1L >>> (63 - firstDay.lengthOfMonth())) & ~1L;
+        if (!daysOfWeekRestricted) {
+            return daysOfMonth & inMonth;
+        }
+        int first = firstDay.getDayOfWeek().getValue() % 7;
+        long week = ((daysOfWeek >>> first) | (daysOfWeek << (7 - first))) & 0x7F;
+        long matching = 0;
+        for (int shift = 1; shift < 64; shift += 7) {
+            matching |= week << shift;
+        }
+        if (daysOfMonthRestricted) {
+            matching |= daysOfMonth;
+        }
+        return matching & inMonth;
+    }
+
+
+    /// Lowest set bit at or above {@code from}, or -1. Values past the field simply have no bits.
+    private static int nextBit(long bits, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long remaining = bits & (-1L << from);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+
+    private static boolean isWildcard(String field) {
+        return field.equals("*") || field.equals("?");
+    }
+
+
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            bits |= parsePart(part, min, max, names, field);
+        }
+        return bits;
+    }
+
+
+    private static long parsePart(String part, int min, int max, String[] names, String field) {
+        int step = 1;
+        int slash = part.indexOf('/');
+        String range = part;
+        if (slash >= 0) {
+            step = parseNumber(part.substring(slash + 1), 1, max, null, field);
+            range = part.substring(0, slash);
+        }
+        int from;
+        int to;
+        if (range.equals("*") || range.equals("?")) {
+            from = min;
+            to = max;
+        } else {
+            int dash = range.indexOf('-');
+            if (dash >= 0) {
+                from = parseNumber(range.substring(0, dash), min, max, names, field);
+                to = parseNumber(range.substring(dash + 1), min, max, names, field);
+                if (to < from) {
+                    throw new IllegalArgumentException("Invalid range '" + range + "' in cron field: " + field);
+                }
+            } else {
+                from = parseNumber(range, min, max, names, field);
+                to = slash >= 0 ? max : from;
+            }
+        }
+        long bits = 0;
+        for (int value = from; value <= to; value += step) {
+            bits |= 1L << value;
+        }
+        return bits;
+    }
+
+
+    private static int parseNumber(String value, int min, int max, String[] names, String field) {
+        if (names != null && !value.isEmpty() && Character.isLetter(value.charAt(0))) {
+            String upper = value.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upper)) {
+                    return i + (min == 1 ? 1 : 0);
+                }
+            }
+        }
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in cron field: " + field, e);
+        }
+        if (number < min || number > max) {
+            throw new IllegalArgumentException("Value " + number + " is outside of " + min + "-" + max + " in cron field: " + field);
+        }
+        return number;
+    }
+
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CronExpression cron
+                && seconds == cron.seconds && minutes == cron.minutes && hours == cron.hours
+                && daysOfMonth == cron.daysOfMonth && months == cron.months && daysOfWeek == cron.daysOfWeek
+                && daysOfMonthRestricted == cron.daysOfMonthRestricted && daysOfWeekRestricted == cron.daysOfWeekRestricted;
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(seconds, minutes, hours, daysOfMonth, months, daysOfWeek, daysOfMonthRestricted, daysOfWeekRestricted);
+    }
+
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
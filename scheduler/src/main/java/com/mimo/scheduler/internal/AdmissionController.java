@@ -0,0 +1,185 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.AdmissionLimits;
+import com.mimo.scheduler.OverloadPolicy;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of tasks that were handed to an executor but did not start yet.
+ * <p>
+ * Every admitted task holds one permit of a {@link Semaphore} until it starts or is cancelled, which is a single
+ * CAS on both ends while there is room. Once the permits are used up the {@link OverloadPolicy} decides. Dropped
+ * tasks give their permit straight to the new task, and waiting tasks receive the permit of the task that released
+ * it, so the number of pending tasks never exceeds the limit.
+ */
+public class AdmissionController {
+    private final Semaphore permits;
+    private final int maxPendingTasks;
+    private final OverloadPolicy policy;
+    private final long blockTimeoutNanos;
+    private final SchedulerMetrics metrics;
+    private final Queue<ScheduledTask<?>> admitted;
+    private final Queue<Waiting> waiting;
+    private final AtomicInteger waitingCount;
+
+    public AdmissionController(AdmissionLimits limits, SchedulerMetrics metrics) {
+        this.maxPendingTasks = limits.getMaxPendingTasks();
+        this.permits = new Semaphore(maxPendingTasks);
+        this.policy = limits.getOverloadPolicy();
+        this.blockTimeoutNanos = limits.getBlockTimeout(TimeUnit.NANOSECONDS);
+        this.metrics = metrics;
+        this.admitted = new ConcurrentLinkedQueue<>();
+        this.waiting = new ConcurrentLinkedQueue<>();
+        this.waitingCount = new AtomicInteger();
+    }
+
+    /**
+     * Hands the task to the {@code target} when there is room, and applies the overload policy otherwise.
+     * Throws a {@link RejectedExecutionException} when the task was not accepted.
+     */
+    public void execute(ScheduledTask<?> task, Executor target) {
+        if (permits.tryAcquire()) {
+            dispatch(task, target);
+            return;
+        }
+        switch (policy) {
+            case CALLER_RUNS -> {
+                metrics.tasksRanOnCaller(1);
+                task.run();
+            }
+            case BLOCK -> {
+                if (!awaitPermit()) {
+                    throw new RejectedExecutionException("No room for the task within the block timeout");
+                }
+                dispatch(task, target);
+            }
+            case DROP_OLDEST -> {
+                if (!dropOldest() && !permits.tryAcquire()) {
+                    throw new RejectedExecutionException("Too many pending tasks and none to drop");
+                }
+                dispatch(task, target);
+            }
+            case ASYNC -> enqueue(task, target);
+            default -> throw new RejectedExecutionException("Too many pending tasks: " + maxPendingTasks);
+        }
+    }
+
+    /**
+     * Gives the permit of a task that started or was cancelled to the next waiting task, or back to the semaphore.
+     */
+    void release() {
+        while (true) {
+            Waiting next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                /// A producer may have queued after the poll above but before the permit was back, so it is checked again.
+                if (waiting.isEmpty() || !permits.tryAcquire()) {
+                    return;
+                }
+                next = waiting.poll();
+                if (next == null) {
+                    permits.release();
+                    return;
+                }
+            }
+            waitingCount.decrementAndGet();
+            if (handOff(next.task, next.target)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether tasks wait for room.
+     */
+    public boolean hasWaiting() {
+        return waitingCount.get() > 0;
+    }
+
+    /**
+     * Cancels every task that waits for room, for example because the scheduler shuts down.
+     */
+    public void cancelWaiting() {
+        Waiting next;
+        while ((next = waiting.poll()) != null) {
+            waitingCount.decrementAndGet();
+            next.task.cancel(false);
+        }
+    }
+
+    private boolean awaitPermit() {
+        try {
+            return permits.tryAcquire(blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /// The permit of the dropped task is never returned to the semaphore, it passes to the caller. Tasks that are
+    /// being handed off hold a permit before they can be dropped, so the caller tries the semaphore once more.
+    private boolean dropOldest() {
+        ScheduledTask<?> oldest;
+        while ((oldest = admitted.poll()) != null) {
+            if (oldest.revokeAdmission(this)) {
+                oldest.cancel(false);
+                metrics.tasksDropped(1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void enqueue(ScheduledTask<?> task, Executor target) {
+        if (waitingCount.incrementAndGet() > maxPendingTasks) {
+            waitingCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many tasks wait for room: " + maxPendingTasks);
+        }
+        waiting.offer(new Waiting(task, target));
+        if (permits.tryAcquire()) {
+            release();
+        }
+    }
+
+    /// Holds a permit already, so a rejected task is cancelled and the permit is released again.
+    private void dispatch(ScheduledTask<?> task, Executor target) {
+        if (!handOff(task, target)) {
+            release();
+            throw new RejectedExecutionException("Executor was shut down");
+        }
+    }
+
+    /// Returns false with the permit still held when the executor rejected the task.
+    private boolean handOff(ScheduledTask<?> task, Executor target) {
+        task.holdAdmission(this);
+        if (policy == OverloadPolicy.DROP_OLDEST) {
+            ScheduledTask<?> head;
+            while ((head = admitted.peek()) != null && !head.holdsAdmission()) {
+                admitted.remove(head);
+            }
+            admitted.offer(task);
+        }
+        try {
+            target.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (task.revokeAdmission(this)) {
+                task.cancel(false);
+                return false;
+            }
+            return true;
+        }
+    }
+
+
+    private record Waiting(ScheduledTask<?> task, Executor target) {
+    }
+}
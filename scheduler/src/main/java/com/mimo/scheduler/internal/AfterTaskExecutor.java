@@ -0,0 +1,472 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.aftertask.AfterTask;
+import com.mimo.scheduler.aftertask.AfterTaskDispatcher;
+import com.mimo.scheduler.aftertask.AfterTaskListener;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AfterTaskExecutor {
+    private static final MethodType RUNNABLE_FACTORY = MethodType.methodType(Runnable.class);
+    private static final MethodType RUN = MethodType.methodType(void.class);
+
+    /// Dispatchers generated by the SchedulerLibrary-processor module, keyed by the class they were generated for.
+    private static final Map<Class<?>, AfterTaskDispatcher> DISPATCHERS = loadDispatchers();
+
+    /// Every class is only scanned once, no matter how many schedulers register it.
+    private static final ClassValue<Map<String, AfterTaskListener[]>> LISTENERS = new ClassValue<>() {
+        @Override
+        protected Map<String, AfterTaskListener[]> computeValue(Class<?> clazz) {
+            return createListeners(clazz);
+        }
+    };
+
+    /// The instance methods of a class as factories that bind them to a listener instance.
+    private static final ClassValue<List<InstanceMethod>> INSTANCE_METHODS = new ClassValue<>() {
+        @Override
+        protected List<InstanceMethod> computeValue(Class<?> clazz) {
+            return createInstanceMethods(clazz);
+        }
+    };
+
+    /// Classes and listener instances in the order they were registered, the index is rebuilt from them.
+    private final List<Registration> registrations = new ArrayList<>();
+
+    /// Immutable snapshot that is replaced on every registration, so firing an event never needs a lock.
+    private volatile Map<String, Event> index = Map.of();
+
+    private volatile SchedulerMetrics metrics;
+
+    /**
+     * Records the dispatch time of every event that is fired from now on.
+     */
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ArrayList<Method> getSpecificMethods(String eventName, ArrayList<Class<?>> classes) {
+        ArrayList<Method> methods = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            for(Method method : clazz.getDeclaredMethods()){
+                if(method.isAnnotationPresent(AfterTask.class)){
+                    if (method.getAnnotation(AfterTask.class).name().equals(eventName)) {
+                        methods.add(method);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    public ArrayList<Method> getAllMethods(List<Class<?>> classes) {
+        ArrayList<Method> methods = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            for(Method method : clazz.getDeclaredMethods()){
+                if(method.isAnnotationPresent(AfterTask.class)){
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    public void invokeMethods(ArrayList<Method> methods) throws InvocationTargetException, IllegalAccessException {
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                method.invoke(null);
+            }
+        }
+    }
+
+    /**
+     * Adds the static {@link AfterTask} methods of the given class to the event index.
+     */
+    public synchronized void register(Class<?> clazz) {
+        Map<String, AfterTaskListener[]> listeners = LISTENERS.get(clazz);
+        if (listeners.isEmpty()) {
+            return;
+        }
+        registrations.add(new Registration(null, listeners));
+        rebuild();
+    }
+
+    /**
+     * Adds the instance {@link AfterTask} methods of the given listener to the event index, bound to the listener.
+     * The methods of its superclasses are found as well, so subclasses and generated proxies of a listener class work,
+     * and an annotated method that is overridden runs through its most-derived override.
+     */
+    public synchronized void addListener(Object listener) {
+        Class<?> clazz = listener.getClass();
+        AfterTaskDispatcher dispatcher = DISPATCHERS.get(clazz);
+        Map<String, AfterTaskListener[]> listeners = dispatcher != null && !hasListenerSuperclass(clazz)
+                ? Map.copyOf(dispatcher.listeners(listener)) : bind(listener);
+        if (listeners.isEmpty()) {
+            throw new IllegalArgumentException(clazz + " declares no instance @AfterTask methods");
+        }
+        registrations.add(new Registration(listener, listeners));
+        rebuild();
+    }
+
+    /**
+     * Removes the methods of the given listener from the event index.
+     * Returns {@code false} if the listener was not added.
+     */
+    public synchronized boolean removeListener(Object listener) {
+        boolean removed = registrations.removeIf(registration -> registration.listener() == listener);
+        if (removed) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every class from the event index, listener instances stay registered.
+     */
+    public synchronized void clear() {
+        registrations.removeIf(registration -> registration.listener() == null);
+        rebuild();
+    }
+
+    /**
+     * Invokes every registered method for the given event on the calling thread, wave after wave, and the methods of a
+     * wave in the order they were registered, including the parallel ones.
+     * An exception thrown by one of the methods does not stop the others. Once all of them ran the first exception
+     * is thrown wrapped in an {@link InvocationTargetException}, with the later ones added as suppressed exceptions.
+     */
+    public void fire(String eventName) throws InvocationTargetException {
+        Event event = index.get(eventName);
+        if (event == null) {
+            return;
+        }
+        SchedulerMetrics recorder = metrics;
+        if (recorder == null || !recorder.isEnabled()) {
+            invoke(event);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            invoke(event);
+        } finally {
+            recorder.listenersFinished(eventName, event.size(), start);
+        }
+    }
+
+    private static void invoke(Event event) throws InvocationTargetException {
+        Throwable failure = null;
+        for (Wave wave : event.waves()) {
+            for (Runnable invoker : wave.sequential()) {
+                failure = merge(failure, invoke(invoker));
+            }
+            for (Runnable invoker : wave.parallel()) {
+                failure = merge(failure, invoke(invoker));
+            }
+        }
+        if (failure != null) {
+            throw new InvocationTargetException(failure);
+        }
+    }
+
+    /// Returns the exception of the invoker instead of throwing it, so the caller can go on with the next one.
+    private static Throwable invoke(Runnable invoker) {
+        try {
+            invoker.run();
+            return null;
+        } catch (UndeclaredThrowableException e) {
+            return e.getUndeclaredThrowable();
+        } catch (Throwable t) {
+            return t;
+        }
+    }
+
+    private static Throwable merge(Throwable failure, Throwable next) {
+        if (failure == null) {
+            return next;
+        }
+        if (next != null) {
+            failure.addSuppressed(next);
+        }
+        return failure;
+    }
+
+    /**
+     * Invokes every registered method for the given event on the given {@link Executor}. The waves run one after
+     * another, and the parallel methods of a wave are submitted to the executor on their own while the other methods
+     * of the wave run on the dispatching thread. The returned future completes once every method was invoked, or
+     * exceptionally with the first exception, with the later ones added as suppressed exceptions.
+     * Events without registered methods complete right away without using the executor.
+     */
+    public CompletableFuture<Void> fireAsync(String eventName, Executor executor) {
+        Event event = index.get(eventName);
+        if (event == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        AsyncDispatch dispatch = new AsyncDispatch(eventName, event, executor, metrics);
+        try {
+            executor.execute(dispatch);
+        } catch (RejectedExecutionException e) {
+            /// The executor is already shut down, so the listeners run on the calling thread instead.
+            dispatch.run();
+        }
+        return dispatch.result;
+    }
+
+    /// Merges the listeners of all registrations per event, sorts them by order and splits them into waves.
+    /// The sort is stable, so listeners of the same order keep their registration order.
+    private void rebuild() {
+        Map<String, List<AfterTaskListener>> merged = new HashMap<>();
+        for (Registration registration : registrations) {
+            registration.listeners().forEach((name, listeners) ->
+                    merged.computeIfAbsent(name, key -> new ArrayList<>()).addAll(Arrays.asList(listeners)));
+        }
+        Map<String, Event> events = new HashMap<>();
+        merged.forEach((name, listeners) -> {
+            listeners.sort(Comparator.comparingInt(AfterTaskListener::order));
+            List<Wave> waves = new ArrayList<>();
+            int from = 0;
+            for (int i = 1; i <= listeners.size(); i++) {
+                if (i == listeners.size() || listeners.get(i).order() != listeners.get(from).order()) {
+                    List<AfterTaskListener> wave = listeners.subList(from, i);
+                    waves.add(new Wave(
+                            wave.stream().filter(listener -> !listener.parallel()).map(AfterTaskListener::invoker).toArray(Runnable[]::new),
+                            wave.stream().filter(AfterTaskListener::parallel).map(AfterTaskListener::invoker).toArray(Runnable[]::new)));
+                    from = i;
+                }
+            }
+            events.put(name, new Event(waves.toArray(new Wave[0]), listeners.size()));
+        });
+        index = Map.copyOf(events);
+    }
+
+    private static Map<Class<?>, AfterTaskDispatcher> loadDispatchers() {
+        Map<Class<?>, AfterTaskDispatcher> dispatchers = new HashMap<>();
+        for (AfterTaskDispatcher dispatcher : ServiceLoader.load(AfterTaskDispatcher.class, AfterTaskExecutor.class.getClassLoader())) {
+            dispatchers.put(dispatcher.target(), dispatcher);
+        }
+        return Map.copyOf(dispatchers);
+    }
+
+    private static Map<String, AfterTaskListener[]> createListeners(Class<?> clazz) {
+        AfterTaskDispatcher dispatcher = DISPATCHERS.get(clazz);
+        if (dispatcher != null) {
+            return Map.copyOf(dispatcher.listeners());
+        }
+        Map<String, List<AfterTaskListener>> listeners = new LinkedHashMap<>();
+        for (Method method : clazz.getDeclaredMethods()) {
+            AfterTask afterTask = annotation(method);
+            if (afterTask == null || !Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            listeners.computeIfAbsent(afterTask.name(), name -> new ArrayList<>())
+                    .add(new AfterTaskListener(createInvoker(clazz, method, null), afterTask.order(), afterTask.parallel()));
+        }
+        return toArrays(listeners);
+    }
+
+    /// Walks from the class up to its superclasses, so the first annotated declaration of a method name wins and the
+    /// overridden declarations above it are skipped. Invoking the method dispatches to the most-derived override anyway.
+    private static List<InstanceMethod> createInstanceMethods(Class<?> clazz) {
+        List<InstanceMethod> methods = new ArrayList<>();
+        Set<String> bound = new HashSet<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                AfterTask afterTask = annotation(method);
+                if (afterTask == null || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (Modifier.isPrivate(method.getModifiers()) || bound.add(method.getName())) {
+                    methods.add(new InstanceMethod(method, afterTask));
+                }
+            }
+        }
+        return List.copyOf(methods);
+    }
+
+    /// A generated dispatcher only covers the methods of its own class, inherited ones are bound with reflection.
+    private static boolean hasListenerSuperclass(Class<?> clazz) {
+        for (Class<?> current = clazz.getSuperclass(); current != null && current != Object.class; current = current.getSuperclass()) {
+            if (DISPATCHERS.containsKey(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, AfterTaskListener[]> bind(Object listener) {
+        Map<String, List<AfterTaskListener>> listeners = new LinkedHashMap<>();
+        for (InstanceMethod method : INSTANCE_METHODS.get(listener.getClass())) {
+            AfterTask afterTask = method.afterTask();
+            listeners.computeIfAbsent(afterTask.name(), name -> new ArrayList<>()).add(new AfterTaskListener(
+                    createInvoker(method.method().getDeclaringClass(), method.method(), listener), afterTask.order(), afterTask.parallel()));
+        }
+        return toArrays(listeners);
+    }
+
+    private static AfterTask annotation(Method method) {
+        AfterTask afterTask = method.getAnnotation(AfterTask.class);
+        if (afterTask != null && method.getParameterCount() != 0) {
+            throw new IllegalArgumentException("@AfterTask method must not have parameters: " + method);
+        }
+        return afterTask;
+    }
+
+    private static Map<String, AfterTaskListener[]> toArrays(Map<String, List<AfterTaskListener>> listeners) {
+        Map<String, AfterTaskListener[]> result = new HashMap<>();
+        listeners.forEach((name, list) -> result.put(name, list.toArray(new AfterTaskListener[0])));
+        return Map.copyOf(result);
+    }
+
+    /// Static methods are called without a receiver, instance methods are bound to the {@code listener}.
+    private static Runnable createInvoker(Class<?> clazz, Method method, Object listener) {
+        MethodHandle handle;
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("@AfterTask method is not accessible: " + method, e);
+        }
+        try {
+            if (listener == null) {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "run", RUNNABLE_FACTORY, RUN, handle, RUN);
+                return (Runnable) site.getTarget().invokeExact();
+            }
+            CallSite site = LambdaMetafactory.metafactory(lookup, "run", MethodType.methodType(Runnable.class, clazz), RUN, handle, RUN);
+            return (Runnable) site.getTarget().invoke(listener);
+        } catch (Throwable ignored) {
+            /// Falls back to a constant handle when no lambda can be spun inside the target class.
+            MethodHandle target = (listener == null ? handle : handle.bindTo(listener)).asType(RUN);
+            return () -> {
+                try {
+                    target.invokeExact();
+                } catch (Throwable t) {
+                    throw sneakyThrow(t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable t) throws E {
+        throw (E) t;
+    }
+
+
+    private record Registration(Object listener, Map<String, AfterTaskListener[]> listeners) {
+    }
+
+    private record InstanceMethod(Method method, AfterTask afterTask) {
+    }
+
+    private record Event(Wave[] waves, int size) {
+    }
+
+    /// The methods of one order, the parallel ones are handed to the executor.
+    private record Wave(Runnable[] sequential, Runnable[] parallel) {
+    }
+
+    /**
+     * Runs the waves of an event one after another without blocking a thread while parallel methods run.
+     * The thread that finishes the last parallel method of a wave goes on with the next wave.
+     */
+    private static final class AsyncDispatch implements Runnable {
+        private final String eventName;
+        private final Event event;
+        private final Executor executor;
+        private final SchedulerMetrics metrics;
+        private final long start;
+        private final CompletableFuture<Void> result;
+        private Throwable failure;
+
+        AsyncDispatch(String eventName, Event event, Executor executor, SchedulerMetrics metrics) {
+            this.eventName = eventName;
+            this.event = event;
+            this.executor = executor;
+            this.metrics = metrics != null && metrics.isEnabled() ? metrics : null;
+            this.start = this.metrics != null ? System.nanoTime() : 0;
+            this.result = new CompletableFuture<>();
+        }
+
+        @Override
+        public void run() {
+            runFrom(0);
+        }
+
+        private void runFrom(int index) {
+            Wave[] waves = event.waves();
+            for (int i = index; i < waves.length; i++) {
+                CompletableFuture<Void> parallel = fanOut(waves[i]);
+                if (parallel != null && !parallel.isDone()) {
+                    int next = i + 1;
+                    parallel.whenComplete((ignored, throwable) -> runFrom(next));
+                    return;
+                }
+            }
+            finish();
+        }
+
+        /// Submits the parallel methods and runs the rest of the wave here. Without sequential methods the last
+        /// parallel one runs here too, there would be nothing else for this thread to do.
+        private CompletableFuture<Void> fanOut(Wave wave) {
+            Runnable[] parallel = wave.parallel();
+            int submitted = wave.sequential().length == 0 ? parallel.length - 1 : parallel.length;
+            CompletableFuture<?>[] futures = submitted > 0 ? new CompletableFuture<?>[submitted] : null;
+            for (int i = 0; i < submitted; i++) {
+                Runnable invoker = parallel[i];
+                try {
+                    futures[i] = CompletableFuture.runAsync(() -> record(invoke(invoker)), executor);
+                } catch (RejectedExecutionException e) {
+                    record(invoke(invoker));
+                    futures[i] = CompletableFuture.completedFuture(null);
+                }
+            }
+            for (Runnable invoker : wave.sequential()) {
+                record(invoke(invoker));
+            }
+            if (submitted < parallel.length) {
+                record(invoke(parallel[submitted]));
+            }
+            return futures == null ? null : CompletableFuture.allOf(futures);
+        }
+
+        private synchronized void record(Throwable next) {
+            failure = merge(failure, next);
+        }
+
+        private void finish() {
+            if (metrics != null) {
+                metrics.listenersFinished(eventName, event.size(), start);
+            }
+            Throwable first;
+            synchronized (this) {
+                first = failure;
+            }
+            if (first == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(first);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mimo.scheduler.internal;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link ExecutorService} that lets at most a given number of tasks of its delegate run at once.
+ * The permit is taken on the thread of the delegate, so callers never block while the limit is reached.
+ * This is meant for delegates with cheap threads, like a virtual thread per task executor.
+ */
+public class ConcurrencyLimitedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final LimitSemaphore permits;
+    private final LongAdder completed;
+    private volatile int maxConcurrency;
+
+    public ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0: " + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.permits = new LimitSemaphore(maxConcurrency);
+        this.completed = new LongAdder();
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Changes the limit. Running tasks keep running when it shrinks, new ones start once they are below the limit.
+     */
+    public synchronized void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0: " + maxConcurrency);
+        }
+        int delta = maxConcurrency - this.maxConcurrency;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reducePermits(-delta);
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns the number of tasks that wait for a permit.
+     */
+    public int queuedCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Returns the number of tasks that finished since the executor was created.
+     */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of tasks that are running right now.
+     */
+    public int activeCount() {
+        return Math.max(maxConcurrency - permits.availablePermits(), 0);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                /// Interrupted by shutdownNow while waiting for a permit, the task never runs so its future has to end.
+                if (command instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+                completed.increment();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+
+    /// Opens up reducePermits, which lets the available permits go negative while the limit shrinks.
+    private static final class LimitSemaphore extends Semaphore {
+        private LimitSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.cron.CronExpression;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A recurring job that runs its {@link Callable} at every fire time of a {@link CronExpression}.
+ * <p>
+ * Only the next run is ever pending. It is handed to the {@link DeadlineScheduler}, and once it finished the
+ * following fire time is computed and armed. Fire times that were missed while a run took too long are skipped.
+ * A failing run does not end the job. The job completes normally when the expression never fires again, and it
+ * is cancelled together with its pending run, for example when the {@link com.mimo.scheduler.timer.TimerEngine}
+ * shuts down.
+ */
+public class CronTask extends CompletableFuture<Void> implements ScheduledFuture<Void> {
+    private final CronExpression expression;
+    private final ZoneId zone;
+    private final Callable<?> callable;
+    private final DeadlineScheduler deadlineScheduler;
+    private String eventName;
+    private AfterTaskExecutor afterTaskExecutor;
+    private Executor eventExecutor;
+    private SchedulerMetrics metrics;
+    private Predicate<Instant> guard;
+    private volatile ScheduledTask<?> current;
+
+    public CronTask(CronExpression expression, ZoneId zone, Callable<?> callable, DeadlineScheduler deadlineScheduler) {
+        this.expression = expression;
+        this.zone = zone;
+        this.callable = callable;
+        this.deadlineScheduler = deadlineScheduler;
+    }
+
+    /**
+     * Fires the event after every run. Has to be called before the job is started.
+     */
+    public CronTask fireAfterEachRun(String eventName, AfterTaskExecutor afterTaskExecutor, Executor eventExecutor) {
+        this.eventName = eventName;
+        this.afterTaskExecutor = afterTaskExecutor;
+        this.eventExecutor = eventExecutor;
+        return this;
+    }
+
+    /**
+     * Records the scheduling lag and execution time of every run. Has to be called before the job is started.
+     */
+    public CronTask recordMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Only runs the task when the guard accepts the fire time of the run, other runs complete without running it.
+     * Has to be called before the job is started.
+     */
+    public CronTask guardedBy(Predicate<Instant> guard) {
+        this.guard = guard;
+        return this;
+    }
+
+    /**
+     * Arms the first run.
+     */
+    public CronTask start() {
+        armAfter(deadlineScheduler.getClock().instant());
+        return this;
+    }
+
+    private void armAfter(Instant after) {
+        Instant next = expression.next(after, zone);
+        if (next == null) {
+            complete(null);
+            return;
+        }
+        Predicate<Instant> runGuard = guard;
+        Callable<?> guarded = runGuard == null ? callable : () -> runGuard.test(next) ? callable.call() : null;
+        ScheduledTask<?> run = new ScheduledTask<>(guarded, 0, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+        if (eventName != null) {
+            run.fireAfterCompletion(eventName, afterTaskExecutor, eventExecutor);
+        }
+        current = run;
+        run.whenComplete((ignored, throwable) -> {
+            if (run.isCancelled()) {
+                cancel(false);
+            } else if (!isDone()) {
+                Instant now = deadlineScheduler.getClock().instant();
+                armAfter(now.isAfter(next) ? now : next);
+            }
+        });
+        deadlineScheduler.schedule(run, next);
+        if (isDone()) {
+            run.cancel(false);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        ScheduledTask<?> run = current;
+        if (cancelled && run != null) {
+            run.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns the delay until the pending run, or zero while it is running.
+     */
+    @Override
+    public long getDelay(TimeUnit unit) {
+        ScheduledTask<?> run = current;
+        return run == null ? 0 : Math.max(run.getDelay(unit), 0);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,173 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.timer.Timeout;
+import com.mimo.scheduler.timer.TimerEngine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks at an absolute wall-clock {@link Instant} on top of a {@link TimerEngine}.
+ * <p>
+ * Every task is armed once for the remaining time until its deadline. Since timer engines measure delays with
+ * the monotonic clock, a single watcher timeout compares the wall clock against the monotonic clock once per
+ * second while tasks are pending. When the wall clock jumped, for example because of an NTP step, every pending
+ * task is re-armed for its new remaining time. A task that expires before the wall clock reached its deadline is
+ * re-armed as well, so tasks never run early. Long delays are split into arms of at most one day.
+ */
+public class DeadlineScheduler {
+    private static final Executor DIRECT = Runnable::run;
+    private static final Duration MAX_ARM = Duration.ofDays(1);
+    private static final Duration MAX_NANOS = Duration.ofNanos(Long.MAX_VALUE);
+    private static final long WATCH_INTERVAL_MILLIS = 1000;
+    private static final long JUMP_TOLERANCE_MILLIS = 50;
+
+    private final TimerEngine timerEngine;
+    private final Executor executor;
+    private final Set<Entry> entries;
+    private final AtomicBoolean watching;
+    private volatile Clock clock;
+    private volatile long clockOffset;
+
+    public DeadlineScheduler(TimerEngine timerEngine, Executor executor, Clock clock) {
+        this.timerEngine = timerEngine;
+        this.executor = executor;
+        this.clock = clock;
+        this.entries = ConcurrentHashMap.newKeySet();
+        this.watching = new AtomicBoolean();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replaces the clock and re-arms every pending task against it.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        this.clockOffset = clockOffset();
+        rearmAll();
+    }
+
+    /**
+     * Hands the task to the executor once the clock reached the deadline.
+     */
+    public void schedule(ScheduledTask<?> task, Instant deadline) {
+        Entry entry = new Entry(task, deadline);
+        entries.add(entry);
+        task.whenComplete((ignored, throwable) -> entries.remove(entry));
+        entry.arm();
+        watch();
+    }
+
+    /**
+     * Returns the number of tasks that wait for their deadline.
+     */
+    public int pendingTasks() {
+        return entries.size();
+    }
+
+    private void rearmAll() {
+        for (Entry entry : entries) {
+            entry.rearm();
+        }
+    }
+
+    private long clockOffset() {
+        return clock.millis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private void watch() {
+        if (watching.compareAndSet(false, true)) {
+            clockOffset = clockOffset();
+            armWatcher();
+        }
+    }
+
+    private void armWatcher() {
+        try {
+            timerEngine.newTimeout(this::checkClock, WATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, DIRECT);
+        } catch (RejectedExecutionException e) {
+            watching.set(false);
+        }
+    }
+
+    private void checkClock() {
+        long current = clockOffset();
+        long previous = clockOffset;
+        clockOffset = current;
+        if (Math.abs(current - previous) > JUMP_TOLERANCE_MILLIS) {
+            rearmAll();
+        }
+        if (!entries.isEmpty()) {
+            armWatcher();
+            return;
+        }
+        watching.set(false);
+        if (!entries.isEmpty()) {
+            watch();
+        }
+    }
+
+
+    private final class Entry implements Runnable {
+        private final ScheduledTask<?> task;
+        private final Instant deadline;
+        private volatile Timeout timeout;
+
+        private Entry(ScheduledTask<?> task, Instant deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            if (!task.isDone()) {
+                arm();
+            }
+        }
+
+        private void arm() {
+            Duration remaining = Duration.between(clock.instant(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                handOff();
+                return;
+            }
+            Duration arm = remaining.compareTo(MAX_ARM) > 0 ? MAX_ARM : remaining;
+            /// Reports the real remaining time even while only MAX_ARM of it is armed, saturated beyond about 292 years.
+            task.resetDelay(remaining.compareTo(MAX_NANOS) > 0 ? Long.MAX_VALUE : remaining.toNanos(), TimeUnit.NANOSECONDS);
+            try {
+                Timeout next = timerEngine.newTimeout(this, arm.toNanos(), TimeUnit.NANOSECONDS, DIRECT);
+                timeout = next;
+                task.setTimeout(next);
+            } catch (RejectedExecutionException e) {
+                entries.remove(this);
+                task.cancel(false);
+            }
+        }
+
+        private void rearm() {
+            Timeout current = timeout;
+            if (current != null && current.cancel()) {
+                arm();
+            }
+        }
+
+        private void handOff() {
+            entries.remove(this);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.cancel(false);
+            }
+        }
+    }
+}
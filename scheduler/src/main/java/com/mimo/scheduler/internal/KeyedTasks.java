@@ -0,0 +1,243 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.Timeout;
+import com.mimo.scheduler.timer.TimerEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Debounces, throttles and coalesces tasks that belong to the same logical job, identified by a key.
+ * <p>
+ * Every key has at most one entry in a {@link ConcurrentHashMap} and at most one live {@link Timeout}. All state
+ * changes of an entry happen inside {@code compute} of its key, so concurrent callers of the same key are
+ * serialized while other keys are not affected. Entries are removed as soon as their run started or their future
+ * was cancelled, so keys that are not used anymore do not keep anything alive.
+ */
+public class KeyedTasks {
+    private final TimerEngine timerEngine;
+    private final Executor executor;
+    private final SchedulerMetrics metrics;
+    private final Runnable timerAdmission;
+    private final ConcurrentMap<Object, Debounced> debounced;
+    private final ConcurrentMap<Object, Throttled> throttled;
+    private final ConcurrentMap<Object, Coalesced<?>> coalesced;
+
+    /**
+     * The {@code timerAdmission} throws a {@link RejectedExecutionException} when a key may not arm another timer.
+     */
+    public KeyedTasks(TimerEngine timerEngine, Executor executor, SchedulerMetrics metrics, Runnable timerAdmission) {
+        this.timerEngine = timerEngine;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.timerAdmission = timerAdmission;
+        this.debounced = new ConcurrentHashMap<>();
+        this.throttled = new ConcurrentHashMap<>();
+        this.coalesced = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the number of keys that have a pending run or an open throttle window.
+     */
+    public int pendingKeys() {
+        return debounced.size() + throttled.size() + coalesced.size();
+    }
+
+    /**
+     * Runs the latest task of the key once no call for the key happened for the {@code delay}.
+     * Every call moves the pending run back, and all callers share its future.
+     */
+    public CompletableFuture<?> debounce(Object key, long delay, TimeUnit unit, Runnable task) {
+        /// Only a new key adds a timer, the pending run of a known key just moves its timer.
+        if (!debounced.containsKey(key)) {
+            timerAdmission.run();
+        }
+        Debounced[] rejected = new Debounced[1];
+        Debounced entry = debounced.compute(key, (k, current) -> {
+            boolean moved = current != null && current.timeout.cancel();
+            Debounced next = moved ? current : new Debounced(k);
+            next.task = task;
+            try {
+                next.timeout = timerEngine.newTimeout(next.run, delay, unit, executor);
+            } catch (RejectedExecutionException e) {
+                rejected[0] = next;
+                return moved ? null : current;
+            }
+            next.run.resetDelay(delay, unit);
+            next.run.setTimeout(next.timeout);
+            return next;
+        });
+        if (rejected[0] != null) {
+            rejected[0].run.cancel(false);
+            throw new RejectedExecutionException("TimerEngine was shut down");
+        }
+        return entry.run;
+    }
+
+    /**
+     * Runs the task of the key right away when no window of the key is open and opens a window, otherwise runs the
+     * latest task once when the window closed. So the key runs at most once per {@code window}.
+     */
+    public CompletableFuture<?> throttle(Object key, long window, TimeUnit unit, Runnable task) {
+        long windowNanos = unit.toNanos(window);
+        if (!throttled.containsKey(key)) {
+            timerAdmission.run();
+        }
+        ScheduledTask<?>[] result = new ScheduledTask<?>[1];
+        boolean[] leading = new boolean[1];
+        throttled.compute(key, (k, current) -> {
+            if (current == null) {
+                Throttled next = new Throttled(k, windowNanos);
+                next.open();
+                result[0] = new ScheduledTask<>(() -> {
+                    task.run();
+                    return null;
+                }, 0, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+                leading[0] = true;
+                return next;
+            }
+            if (current.trailing == null) {
+                ScheduledTask<Object> trailing = new ScheduledTask<>(() -> {
+                    current.latest.run();
+                    return null;
+                }, current.remainingNanos(), TimeUnit.NANOSECONDS).recordMetrics(metrics);
+                trailing.whenComplete((ignored, throwable) -> {
+                    if (trailing.isCancelled()) {
+                        throttled.computeIfPresent(k, (key2, entry) -> {
+                            if (entry.trailing == trailing) {
+                                entry.trailing = null;
+                            }
+                            return entry;
+                        });
+                    }
+                });
+                current.trailing = trailing;
+            }
+            current.latest = task;
+            result[0] = current.trailing;
+            return current;
+        });
+        if (leading[0]) {
+            submit(result[0]);
+        }
+        return result[0];
+    }
+
+    /**
+     * Collects the {@code payload} into the pending run of the key, or creates the run after the {@code delay}.
+     * The run hands all payloads that were collected until it started to the consumer of the first call.
+     */
+    @SuppressWarnings("unchecked")
+    public <P> CompletableFuture<?> coalesce(Object key, long delay, TimeUnit unit, P payload, Consumer<List<P>> task) {
+        if (!coalesced.containsKey(key)) {
+            timerAdmission.run();
+        }
+        Coalesced<?> entry = coalesced.compute(key, (k, current) -> {
+            Coalesced<P> next = current != null ? (Coalesced<P>) current : new Coalesced<>(k, task);
+            next.payloads.add(payload);
+            if (current == null) {
+                next.run.resetDelay(delay, unit);
+                next.run.setTimeout(timerEngine.newTimeout(next.run, delay, unit, executor));
+            }
+            return next;
+        });
+        return entry.run;
+    }
+
+    private void submit(ScheduledTask<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
+        }
+    }
+
+
+    private final class Debounced {
+        private final ScheduledTask<Object> run;
+        private volatile Runnable task;
+        private Timeout timeout;
+
+        private Debounced(Object key) {
+            this.run = new ScheduledTask<>(() -> {
+                debounced.remove(key, this);
+                task.run();
+                return null;
+            }, 0, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+            run.whenComplete((ignored, throwable) -> debounced.remove(key, this));
+        }
+    }
+
+
+    /// A throttle window always owns exactly one timeout, which either starts the trailing run or drops the entry.
+    private final class Throttled {
+        private final Object key;
+        private final long windowNanos;
+        private long windowEnd;
+        private ScheduledTask<Object> trailing;
+        private volatile Runnable latest;
+
+        private Throttled(Object key, long windowNanos) {
+            this.key = key;
+            this.windowNanos = windowNanos;
+        }
+
+        private long remainingNanos() {
+            return Math.max(windowEnd - System.nanoTime(), 0);
+        }
+
+        private void open() {
+            windowEnd = System.nanoTime() + windowNanos;
+            timerEngine.newTimeout(this::close, windowNanos, TimeUnit.NANOSECONDS, Runnable::run);
+        }
+
+        private void close() {
+            ScheduledTask<?>[] due = new ScheduledTask<?>[1];
+            throttled.computeIfPresent(key, (k, entry) -> {
+                if (entry != this || trailing == null) {
+                    return entry != this ? entry : null;
+                }
+                due[0] = trailing;
+                trailing = null;
+                try {
+                    open();
+                } catch (RejectedExecutionException e) {
+                    return null;
+                }
+                return this;
+            });
+            if (due[0] != null) {
+                try {
+                    executor.execute(due[0]);
+                } catch (RejectedExecutionException e) {
+                    due[0].cancel(false);
+                }
+            }
+        }
+    }
+
+
+    private final class Coalesced<P> {
+        private final List<P> payloads;
+        private final ScheduledTask<Object> run;
+
+        private Coalesced(Object key, Consumer<List<P>> task) {
+            this.payloads = new ArrayList<>();
+            this.run = new ScheduledTask<>(() -> {
+                coalesced.remove(key, this);
+                task.accept(payloads);
+                return null;
+            }, 0, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+            run.whenComplete((ignored, throwable) -> coalesced.remove(key, this));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mimo.scheduler.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An unbounded, lock-free multi-producer single-consumer queue of tasks after Dmitry Vyukov.
+ * <p>
+ * Producers only swap the head with one atomic exchange, so they never retry or wait for each other.
+ * {@link #poll()} must not be called by more than one thread at a time; callers that share the consumer side
+ * have to serialize it themselves.
+ */
+public class MpscQueue {
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            NEXT = MethodHandles.lookup().findVarHandle(Node.class, "next", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final AtomicReference<Node> head;
+    private volatile Node tail;
+
+    public MpscQueue() {
+        Node stub = new Node(null);
+        this.head = new AtomicReference<>(stub);
+        this.tail = stub;
+    }
+
+    public void offer(Runnable task) {
+        Node node = new Node(task);
+        Node previous = head.getAndSet(node);
+        NEXT.setRelease(previous, node);
+    }
+
+    /**
+     * Returns the oldest task, or {@code null} if the queue is empty or the newest offer is not linked yet.
+     */
+    public Runnable poll() {
+        Node next = (Node) NEXT.getAcquire(tail);
+        if (next == null) {
+            return null;
+        }
+        Runnable task = next.task;
+        next.task = null;
+        tail = next;
+        return task;
+    }
+
+    /**
+     * Returns whether no task was offered that was not polled yet. Safe to call from any thread.
+     */
+    public boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+
+    private static final class Node {
+        private Runnable task;
+        private Node next;
+
+        private Node(Runnable task) {
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.MissedRunPolicy;
+import com.mimo.scheduler.PeriodicSchedule;
+import com.mimo.scheduler.RepeatMode;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.TimerEngine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A job that runs its {@link Callable} according to a {@link PeriodicSchedule}.
+ * <p>
+ * Only the next run is ever pending inside the {@link TimerEngine}, and it is armed once the previous run finished,
+ * so runs never overlap and no thread waits between them. Fixed rate runs are due at {@code epoch + n * period} on
+ * the monotonic clock, which keeps the rate free of drift. A failing run does not end the job.
+ * <p>
+ * The job completes after its last run, once the event was fired when an event name is set. It is cancelled
+ * together with its pending run, for example when the timer engine shuts down.
+ */
+public class PeriodicTask extends CompletableFuture<Void> implements ScheduledFuture<Void> {
+    private final Callable<?> callable;
+    private final TimerEngine timerEngine;
+    private final Executor executor;
+    private final long period;
+    private final long initialDelay;
+    private final int numRepeats;
+    private final RepeatMode repeatMode;
+    private final MissedRunPolicy missedRunPolicy;
+    private String eventName;
+    private AfterTaskExecutor afterTaskExecutor;
+    private Executor eventExecutor;
+    private SchedulerMetrics metrics;
+    private long epoch;
+    private long slot;
+    private long runs;
+    private volatile ScheduledTask<?> current;
+
+    public PeriodicTask(PeriodicSchedule schedule, Callable<?> callable, TimerEngine timerEngine, Executor executor) {
+        this.callable = callable;
+        this.timerEngine = timerEngine;
+        this.executor = executor;
+        this.period = schedule.getUnit().toNanos(schedule.getPeriod());
+        this.initialDelay = schedule.getUnit().toNanos(schedule.getInitialDelay());
+        this.numRepeats = schedule.getNumRepeats();
+        this.repeatMode = schedule.getRepeatMode();
+        this.missedRunPolicy = schedule.getMissedRunPolicy();
+    }
+
+    /**
+     * Fires the event once after the last run. Has to be called before the job is started.
+     */
+    public PeriodicTask fireAfterLastRun(String eventName, AfterTaskExecutor afterTaskExecutor, Executor eventExecutor) {
+        this.eventName = eventName;
+        this.afterTaskExecutor = afterTaskExecutor;
+        this.eventExecutor = eventExecutor;
+        return this;
+    }
+
+    /**
+     * Records the scheduling lag and execution time of every run. Has to be called before the job is started.
+     */
+    public PeriodicTask recordMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Arms the first run, or completes right away for a job without runs.
+     */
+    public PeriodicTask start() {
+        if (numRepeats == 0) {
+            finish();
+            return this;
+        }
+        epoch = System.nanoTime() + initialDelay;
+        arm(epoch);
+        return this;
+    }
+
+    /// Runs are strictly sequential, so the fields below are only touched by one thread at a time.
+    private void arm(long due) {
+        long delay = due - System.nanoTime();
+        ScheduledTask<?> run = new ScheduledTask<>(callable, delay, TimeUnit.NANOSECONDS).recordMetrics(metrics);
+        current = run;
+        run.whenComplete((ignored, throwable) -> {
+            if (run.isCancelled()) {
+                cancel(false);
+            } else if (!isDone()) {
+                next();
+            }
+        });
+        try {
+            run.setTimeout(timerEngine.newTimeout(run, delay, TimeUnit.NANOSECONDS, executor));
+        } catch (RejectedExecutionException e) {
+            run.cancel(false);
+        }
+        if (isDone()) {
+            run.cancel(false);
+        }
+    }
+
+    private void next() {
+        runs++;
+        if (numRepeats != PeriodicSchedule.UNBOUNDED && runs >= numRepeats) {
+            finish();
+            return;
+        }
+        long now = System.nanoTime();
+        if (repeatMode == RepeatMode.FIXED_DELAY) {
+            arm(now + period);
+            return;
+        }
+        slot++;
+        long due = epoch + slot * period;
+        if (due - now >= 0 || missedRunPolicy == MissedRunPolicy.CATCH_UP) {
+            arm(due);
+            return;
+        }
+        long lastMissed = (now - epoch) / period;
+        if (missedRunPolicy == MissedRunPolicy.COALESCE) {
+            slot = lastMissed;
+            arm(now);
+        } else {
+            slot = lastMissed + 1;
+            arm(epoch + slot * period);
+        }
+    }
+
+    private void finish() {
+        if (eventName == null) {
+            complete(null);
+            return;
+        }
+        afterTaskExecutor.fireAsync(eventName, eventExecutor).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                complete(null);
+            } else {
+                completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        ScheduledTask<?> run = current;
+        if (cancelled && run != null) {
+            run.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns the delay until the pending run, or zero while it is running.
+     */
+    @Override
+    public long getDelay(TimeUnit unit) {
+        ScheduledTask<?> run = current;
+        return run == null ? 0 : Math.max(run.getDelay(unit), 0);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,199 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.AdaptivePoolSizing;
+import com.mimo.scheduler.PoolResize;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.Timeout;
+import com.mimo.scheduler.timer.TimerEngine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Resizes a {@link ThreadPoolExecutor} or a {@link ConcurrencyLimitedExecutor} after {@link AdaptivePoolSizing}.
+ * <p>
+ * The controller samples on the timer, so tasks pay nothing for it. The queue lag follows from Little's law as the
+ * queued tasks divided by the throughput of the last sample, and growing the pool by the ratio of lag to target
+ * brings the lag of the same queue back to the target. Shrinking waits for a whole idle timeout of low lag, which
+ * leaves a band between half the target and the target in which the size holds.
+ */
+public class PoolSizeController {
+    private static final Executor DIRECT = Runnable::run;
+
+    private final ExecutorService executor;
+    private final TimerEngine timerEngine;
+    private final AdaptivePoolSizing sizing;
+    private final SchedulerMetrics metrics;
+    private final long interval;
+    private final long target;
+    private final long idleTimeout;
+    private volatile boolean stopped;
+    private volatile Timeout timeout;
+    private long lastSample;
+    private long lastCompleted;
+    private long quietSince;
+    private int peakActive;
+
+    public PoolSizeController(ExecutorService executor, TimerEngine timerEngine, AdaptivePoolSizing sizing, SchedulerMetrics metrics) {
+        if (!supports(executor)) {
+            throw new UnsupportedOperationException("Adaptive pool sizing needs a ThreadPoolExecutor or a ConcurrencyLimitedExecutor");
+        }
+        this.executor = executor;
+        this.timerEngine = timerEngine;
+        this.sizing = sizing;
+        this.metrics = metrics;
+        this.interval = sizing.getSampleInterval(TimeUnit.NANOSECONDS);
+        this.target = sizing.getTargetQueueLag(TimeUnit.NANOSECONDS);
+        this.idleTimeout = sizing.getIdleTimeout(TimeUnit.NANOSECONDS);
+    }
+
+    public static boolean supports(ExecutorService executor) {
+        return executor instanceof ThreadPoolExecutor || executor instanceof ConcurrencyLimitedExecutor;
+    }
+
+    /**
+     * Returns the number of workers the executor runs tasks with.
+     */
+    public static int poolSize(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getMaximumPoolSize();
+        }
+        if (executor instanceof ConcurrencyLimitedExecutor limitedExecutor) {
+            return limitedExecutor.getMaxConcurrency();
+        }
+        if (executor instanceof ShardedExecutor shardedExecutor) {
+            return shardedExecutor.shardCount();
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the number of workers of a supported executor.
+     */
+    public static void resize(ExecutorService executor, int size) {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            /// The core size may never exceed the maximum size, so the order depends on the direction.
+            if (size > threadPoolExecutor.getMaximumPoolSize()) {
+                threadPoolExecutor.setMaximumPoolSize(size);
+                threadPoolExecutor.setCorePoolSize(size);
+            } else {
+                threadPoolExecutor.setCorePoolSize(size);
+                threadPoolExecutor.setMaximumPoolSize(size);
+            }
+        } else if (executor instanceof ConcurrencyLimitedExecutor limitedExecutor) {
+            limitedExecutor.setMaxConcurrency(size);
+        }
+    }
+
+    /**
+     * Moves the pool into the bounds and starts sampling.
+     */
+    public void start() {
+        int size = poolSize(executor);
+        int bounded = Math.clamp(size, sizing.getMinThreads(), sizing.getMaxThreads());
+        if (bounded != size) {
+            apply(size, bounded, 0, 0);
+        }
+        lastSample = System.nanoTime();
+        lastCompleted = completed();
+        quietSince = lastSample;
+        arm();
+    }
+
+    /**
+     * Stops sampling, the pool keeps its current size.
+     */
+    public void stop() {
+        stopped = true;
+        Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void arm() {
+        if (stopped) {
+            return;
+        }
+        try {
+            timeout = timerEngine.newTimeout(this::sample, interval, TimeUnit.NANOSECONDS, DIRECT);
+        } catch (RejectedExecutionException e) {
+            stopped = true;
+        }
+    }
+
+    private void sample() {
+        if (stopped || executor.isShutdown()) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            long completed = completed();
+            double throughput = (completed - lastCompleted) * 1e9 / Math.max(now - lastSample, 1);
+            lastSample = now;
+            lastCompleted = completed;
+            int queued = queued();
+            long lag = queued == 0 ? 0 : throughput == 0 ? Long.MAX_VALUE : (long) (queued / throughput * 1e9);
+            int size = poolSize(executor);
+            if (lag > target) {
+                quietSince = now;
+                peakActive = 0;
+                long grown = (long) Math.ceil(size * Math.min((double) lag / target, 2));
+                int next = (int) Math.min(Math.max(grown, size + 1), sizing.getMaxThreads());
+                if (next > size) {
+                    apply(size, next, lag, throughput);
+                }
+            } else if (lag * 2 > target) {
+                quietSince = now;
+                peakActive = 0;
+            } else {
+                peakActive = Math.max(peakActive, active());
+                if (now - quietSince >= idleTimeout) {
+                    int needed = (int) Math.ceil(peakActive * 1.25);
+                    int next = Math.max(Math.max(needed, size - Math.max(size / 4, 1)), sizing.getMinThreads());
+                    if (next < size) {
+                        apply(size, next, lag, throughput);
+                    }
+                    quietSince = now;
+                    peakActive = 0;
+                }
+            }
+        } finally {
+            arm();
+        }
+    }
+
+    private void apply(int previousSize, int newSize, long lag, double throughput) {
+        resize(executor, newSize);
+        metrics.poolResized(previousSize, newSize, lag, throughput);
+        Consumer<PoolResize> listener = sizing.getResizeListener();
+        if (listener != null) {
+            listener.accept(new PoolResize(previousSize, newSize, lag, throughput));
+        }
+    }
+
+    private long completed() {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getCompletedTaskCount();
+        }
+        return ((ConcurrencyLimitedExecutor) executor).completedCount();
+    }
+
+    private int queued() {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getQueue().size();
+        }
+        return ((ConcurrencyLimitedExecutor) executor).queuedCount();
+    }
+
+    private int active() {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getActiveCount();
+        }
+        return ((ConcurrencyLimitedExecutor) executor).activeCount();
+    }
+}
@@ -0,0 +1,158 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.Priority;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders ready tasks by {@link Priority} before they start on the executor.
+ * <p>
+ * Every priority class keeps its tasks in a {@link ConcurrentSkipListSet} sorted by deadline, so within a class the
+ * task with the earliest deadline starts first. Tasks without a deadline are due the moment they became ready, which
+ * keeps them in FIFO order. For every task the executor receives the same drain token, and a token runs whichever
+ * task is the most urgent once a worker picks it up, not the task it was submitted for, so urgent tasks overtake
+ * the ones that were queued before them. A task counts as one class more urgent for every aging step it waited,
+ * so less urgent classes can not starve.
+ */
+public class PriorityDispatcher {
+    private static final Entry FIRST = new Entry(null, 0, 0, Long.MIN_VALUE, false, Long.MIN_VALUE);
+
+    private final Executor executor;
+    private final SchedulerMetrics metrics;
+    private final ConcurrentSkipListSet<Entry>[] classes;
+    private final Executor[] executors;
+    private final AtomicLong sequence;
+    private final Runnable drain;
+    private volatile long agingNanos;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PriorityDispatcher(Executor executor, SchedulerMetrics metrics, long agingNanos) {
+        Priority[] priorities = Priority.values();
+        this.executor = executor;
+        this.metrics = metrics;
+        this.classes = new ConcurrentSkipListSet[priorities.length];
+        this.executors = new Executor[priorities.length];
+        this.sequence = new AtomicLong();
+        for (int i = 0; i < priorities.length; i++) {
+            int level = i;
+            classes[i] = new ConcurrentSkipListSet<>();
+            executors[i] = command -> {
+                long now = System.nanoTime();
+                enqueue(new Entry(command, level, now, now, false, sequence.getAndIncrement()));
+            };
+        }
+        this.drain = this::runNext;
+        setAging(agingNanos);
+    }
+
+    public void setAging(long agingNanos) {
+        if (agingNanos <= 0) {
+            throw new IllegalArgumentException("agingNanos must be greater than 0: " + agingNanos);
+        }
+        this.agingNanos = agingNanos;
+    }
+
+    public long getAging() {
+        return agingNanos;
+    }
+
+    /**
+     * Returns an executor that queues its tasks in the class of the {@code priority}, due the moment they are handed over.
+     */
+    public Executor executor(Priority priority) {
+        return executors[priority.ordinal()];
+    }
+
+    /**
+     * Queues the {@code task} in the class of the {@code priority} with a {@link System#nanoTime()} deadline.
+     * Tasks that start after their deadline are counted as missed deadlines, but they still run.
+     */
+    public void execute(Runnable task, Priority priority, long deadline) {
+        enqueue(new Entry(task, priority.ordinal(), System.nanoTime(), deadline, true, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Cancels every queued task, for example because the executor was shut down and their tokens were dropped.
+     */
+    public void cancelPending() {
+        for (ConcurrentSkipListSet<Entry> queue : classes) {
+            Entry entry;
+            while ((entry = queue.pollFirst()) != null) {
+                cancel(entry);
+            }
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        classes[entry.level].add(entry);
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            if (classes[entry.level].remove(entry)) {
+                throw e;
+            }
+            /// Another token already ran the task, so one queued task has no token left and would never start.
+            Entry orphan = poll(System.nanoTime());
+            if (orphan != null) {
+                cancel(orphan);
+            }
+        }
+    }
+
+    private void runNext() {
+        long now = System.nanoTime();
+        Entry entry = poll(now);
+        if (entry == null) {
+            return;
+        }
+        if (entry.explicitDeadline && now - entry.deadline > 0) {
+            metrics.deadlinesMissed(1);
+        }
+        entry.task.run();
+    }
+
+    /// Looks at the head of every class and takes the one with the most urgent aged class, ties go to the more
+    /// urgent class. The head is removed by identity, so a token that lost the race for it simply looks again.
+    private Entry poll(long now) {
+        long aging = agingNanos;
+        while (true) {
+            Entry best = null;
+            long bestRank = Long.MAX_VALUE;
+            for (ConcurrentSkipListSet<Entry> queue : classes) {
+                Entry head = queue.ceiling(FIRST);
+                if (head != null) {
+                    long rank = head.level - Math.max(now - head.enqueued, 0) / aging;
+                    if (rank < bestRank) {
+                        best = head;
+                        bestRank = rank;
+                    }
+                }
+            }
+            if (best == null || classes[best.level].remove(best)) {
+                return best;
+            }
+        }
+    }
+
+    private static void cancel(Entry entry) {
+        if (entry.task instanceof Future<?> future) {
+            future.cancel(false);
+        }
+    }
+
+
+    private record Entry(Runnable task, int level, long enqueued, long deadline, boolean explicitDeadline,
+                         long sequence) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byDeadline = Long.compare(deadline, other.deadline);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.RateLimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free rate limiter after the generic cell rate algorithm.
+ * <p>
+ * The only state is the theoretical arrival time, the {@link System#nanoTime()} at which the next task would start
+ * if tasks arrived back to back. Every task reserves its slot with a single CAS that moves this time one interval
+ * ahead, and learns how long it has to wait for the slot, so callers never block and never retry a denied request.
+ * Only the slots of rejected tasks are given back, a cancelled task leaves a gap in the rate.
+ */
+public class RateLimiter {
+    private final RateLimit limit;
+    private final long interval;
+    private final long tolerance;
+    private final long maxDelay;
+    private final AtomicLong theoreticalArrival;
+
+    public RateLimiter(RateLimit limit) {
+        this.limit = limit;
+        this.interval = Math.max(limit.getPeriod(TimeUnit.NANOSECONDS) / limit.getPermits(), 1);
+        this.tolerance = interval * (limit.getBurst() - 1);
+        this.maxDelay = limit.getMaxDelay(TimeUnit.NANOSECONDS);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - tolerance);
+    }
+
+    public RateLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Reserves the next slot and returns the nanoseconds until it starts, {@code 0} if the task may start right away,
+     * or {@code -1} without reserving anything if the slot is further away than the maximum delay.
+     */
+    public long reserve() {
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            /// Time values are compared by their difference, since nanoTime may overflow.
+            long start = arrival - now > 0 ? arrival : now;
+            long delay = Math.max(start - tolerance - now, 0);
+            if (delay > maxDelay) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                return delay;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot that was reserved for a task that got rejected afterwards.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-interval);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.RetryPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The future of a task that runs again after a failure, following a {@link RetryPolicy}.
+ * <p>
+ * Every attempt is a fresh {@link ScheduledTask} that the {@link Launcher} either submits right away or arms on the
+ * timer for the backoff delay, so between two attempts the task only occupies a timer slot. The outcome of an attempt
+ * decides the next step on the thread that finished it. The event fires once, after the final outcome and before
+ * this future completes, just like the event of a single task. Earlier failures are attached to the final one as
+ * suppressed exceptions.
+ */
+public class RetryingTask<T> extends CompletableFuture<T> {
+    private final Callable<T> callable;
+    private final RetryPolicy policy;
+    private final Launcher<T> launcher;
+    private final long start;
+    private final long deadline;
+    private final List<Throwable> failures;
+    private String eventName;
+    private AfterTaskExecutor afterTaskExecutor;
+    private Executor eventExecutor;
+    private volatile CompletableFuture<T> attempt;
+
+    public RetryingTask(Callable<T> callable, RetryPolicy policy, Launcher<T> launcher) {
+        this.callable = callable;
+        this.policy = policy;
+        this.launcher = launcher;
+        this.failures = new ArrayList<>();
+        this.start = System.nanoTime();
+        this.deadline = policy.getDeadline(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fires the event once the final attempt finished. Has to be called before the task starts.
+     */
+    public RetryingTask<T> fireAfterCompletion(String eventName, AfterTaskExecutor afterTaskExecutor, Executor eventExecutor) {
+        this.eventName = eventName;
+        this.afterTaskExecutor = afterTaskExecutor;
+        this.eventExecutor = eventExecutor;
+        return this;
+    }
+
+    /**
+     * Starts the first attempt. A rejection of the first attempt is thrown to the caller.
+     */
+    public RetryingTask<T> start() {
+        launch(1, 0);
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        CompletableFuture<T> current = attempt;
+        if (cancelled && current != null) {
+            current.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    private void launch(int number, long delay) {
+        CompletableFuture<T> next = launcher.launch(callable, delay);
+        attempt = next;
+        if (isDone()) {
+            next.cancel(false);
+            return;
+        }
+        next.whenComplete((value, failure) -> finished(number, delay, value, failure));
+    }
+
+    private void finished(int number, long delay, T value, Throwable failure) {
+        if (isDone()) {
+            return;
+        }
+        if (failure == null) {
+            finish(value, null);
+            return;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof CancellationException) {
+            cancel(false);
+            return;
+        }
+        long nextDelay = policy.nextDelay(number, delay);
+        if (number >= policy.getMaxAttempts() || !policy.getRetryOn().test(cause) || passesDeadline(nextDelay)) {
+            finish(null, withEarlierFailures(cause));
+            return;
+        }
+        failures.add(cause);
+        try {
+            launch(number + 1, nextDelay);
+        } catch (RejectedExecutionException e) {
+            cause.addSuppressed(e);
+            finish(null, withEarlierFailures(cause));
+        }
+    }
+
+    /// Compares elapsed times instead of points in time, so neither a negative nanoTime nor a huge deadline overflows.
+    private boolean passesDeadline(long nextDelay) {
+        return deadline != Long.MAX_VALUE && nextDelay > deadline - (System.nanoTime() - start);
+    }
+
+    /// Attempts run one after another, so the failures are only touched by one thread at a time.
+    private Throwable withEarlierFailures(Throwable cause) {
+        for (Throwable earlier : failures) {
+            if (earlier != cause) {
+                cause.addSuppressed(earlier);
+            }
+        }
+        return cause;
+    }
+
+    private void finish(T value, Throwable failure) {
+        if (eventName == null) {
+            settle(value, failure);
+            return;
+        }
+        afterTaskExecutor.fireAsync(eventName, eventExecutor).whenComplete((ignored, listenerFailure) -> {
+            Throwable listenerCause = listenerFailure instanceof CompletionException && listenerFailure.getCause() != null
+                    ? listenerFailure.getCause() : listenerFailure;
+            settle(value, failure != null ? failure : listenerCause);
+        });
+    }
+
+    private void settle(T value, Throwable failure) {
+        if (failure == null) {
+            complete(value);
+        } else {
+            completeExceptionally(failure);
+        }
+    }
+
+
+    /**
+     * Starts one attempt after the delay, or right away when the delay is {@code 0}.
+     */
+    @FunctionalInterface
+    public interface Launcher<T> {
+        CompletableFuture<T> launch(Callable<T> callable, long delayNanos);
+    }
+}
@@ -0,0 +1,188 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.Timeout;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A task that runs on the executor of a {@link com.mimo.scheduler.Scheduler}, optionally after waiting inside a
+ * {@link com.mimo.scheduler.timer.TimerEngine}, and completes with the result of its {@link Callable}.
+ * Cancelling the task also cancels its {@link Timeout} and interrupts the running thread when requested.
+ * <p>
+ * When an event name is set, the {@link com.mimo.scheduler.aftertask.AfterTask} methods of the event are
+ * dispatched as a completion stage of the task, and the task completes once they were invoked.
+ */
+public class ScheduledTask<T> extends CompletableFuture<T> implements ScheduledFuture<T>, Runnable {
+    private static final VarHandle ADMISSION;
+    private static final Object RELEASED = new Object();
+    private static final Object REVOKED = new Object();
+
+    static {
+        try {
+            ADMISSION = MethodHandles.lookup().findVarHandle(ScheduledTask.class, "admission", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Callable<T> callable;
+    private volatile long deadline;
+    private volatile Timeout timeout;
+    private volatile Thread runner;
+    private String eventName;
+    private AfterTaskExecutor afterTaskExecutor;
+    private Executor eventExecutor;
+    private SchedulerMetrics metrics;
+    /// The AdmissionController whose slot the task holds until it starts, then RELEASED, or REVOKED when it was dropped.
+    private volatile Object admission;
+
+    public ScheduledTask(Callable<T> callable, long delay, TimeUnit unit) {
+        this.callable = callable;
+        this.deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+    }
+
+    /**
+     * Fires the event once the task finished, normally or exceptionally. Has to be called before the task can run.
+     */
+    public ScheduledTask<T> fireAfterCompletion(String eventName, AfterTaskExecutor afterTaskExecutor, Executor eventExecutor) {
+        this.eventName = eventName;
+        this.afterTaskExecutor = afterTaskExecutor;
+        this.eventExecutor = eventExecutor;
+        return this;
+    }
+
+    /**
+     * Records the scheduling lag and execution time of the task. Has to be called before the task can run.
+     */
+    public ScheduledTask<T> recordMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Lets the task hold a slot of the {@code controller} until it starts or is cancelled.
+     * Has to be called before the task is handed to the executor.
+     */
+    public void holdAdmission(AdmissionController controller) {
+        this.admission = controller;
+    }
+
+    /**
+     * Returns whether the task still holds its slot, so it neither started nor was cancelled.
+     */
+    public boolean holdsAdmission() {
+        return admission instanceof AdmissionController;
+    }
+
+    /**
+     * Takes the slot away from a task that did not start yet, so it never starts and the slot passes to the caller.
+     */
+    public boolean revokeAdmission(AdmissionController controller) {
+        return ADMISSION.compareAndSet(this, controller, REVOKED);
+    }
+
+    /**
+     * Moves the deadline that {@link #getDelay(TimeUnit)} reports, for tasks that are armed more than once.
+     */
+    public void resetDelay(long delay, TimeUnit unit) {
+        this.deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+    }
+
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+        if (isCancelled()) {
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (isDone()) {
+            return;
+        }
+        if (admission != null) {
+            Object slot = ADMISSION.getAndSet(this, RELEASED);
+            if (slot == REVOKED) {
+                return;
+            }
+            if (slot instanceof AdmissionController controller) {
+                controller.release();
+            }
+        }
+        SchedulerMetrics recorder = metrics;
+        boolean measured = recorder != null && recorder.isEnabled();
+        long start = measured ? System.nanoTime() : 0;
+        runner = Thread.currentThread();
+        T value = null;
+        Throwable failure = null;
+        try {
+            value = callable.call();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            runner = null;
+            if (measured) {
+                recorder.taskFinished(deadline, start, eventName);
+            }
+        }
+        if (eventName == null || isDone()) {
+            finish(value, failure);
+            return;
+        }
+        T result = value;
+        Throwable taskFailure = failure;
+        afterTaskExecutor.fireAsync(eventName, eventExecutor)
+                .whenComplete((ignored, listenerFailure) -> finish(result, taskFailure != null ? taskFailure : unwrap(listenerFailure)));
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private void finish(T value, Throwable failure) {
+        if (failure == null) {
+            complete(value);
+        } else {
+            completeExceptionally(failure);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            Object slot = admission;
+            if (slot instanceof AdmissionController controller && ADMISSION.compareAndSet(this, slot, RELEASED)) {
+                controller.release();
+            }
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+            Thread thread = runner;
+            if (mayInterruptIfRunning && thread != null) {
+                thread.interrupt();
+            }
+        }
+        return cancelled;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,287 @@
+package com.mimo.scheduler.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link ExecutorService} made of independent shards, each with one worker thread and its own lock-free
+ * {@link MpscQueue}, so producers on different shards never touch the same queue.
+ * <p>
+ * A task goes to the shard of the submitting thread, which keeps every producer on one queue, or to the shard of
+ * its key. Workers submitting tasks keep them on their own shard. A worker that ran out of tasks steals from the
+ * other shards before it parks, and producers wake an idle worker when the owner of their shard is busy.
+ * Stealing means that tasks with the same key are not guaranteed to run in submission order.
+ */
+public class ShardedExecutor extends AbstractExecutorService {
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Shard[] shards;
+    private final AtomicInteger idle;
+    private final AtomicInteger submitting;
+    private final CountDownLatch terminated;
+    private volatile boolean shutdown;
+
+    public ShardedExecutor(int numShards, String namePrefix) {
+        if (numShards < 1) {
+            throw new IllegalArgumentException("numShards must be greater than 0: " + numShards);
+        }
+        this.shards = new Shard[numShards];
+        this.idle = new AtomicInteger();
+        this.submitting = new AtomicInteger();
+        this.terminated = new CountDownLatch(numShards);
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new Shard(i, namePrefix + i);
+        }
+        for (Shard shard : shards) {
+            shard.worker.start();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the number of workers that are not parked.
+     */
+    public int activeCount() {
+        return Math.max(shards.length - idle.get(), 0);
+    }
+
+    /**
+     * Runs the task on the shard of the current thread.
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(command, currentShard());
+    }
+
+    /**
+     * Runs the task on the shard that belongs to the {@code key}.
+     */
+    public void execute(Runnable command, Object key) {
+        execute(command, shardOf(key.hashCode()));
+    }
+
+    /**
+     * Runs {@code copies} times the same command, spread round robin over the shards starting at the shard of the
+     * current thread, and wakes every shard at most once.
+     */
+    public void executeSpread(Runnable command, int copies) {
+        submitting.incrementAndGet();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("ShardedExecutor was shut down");
+            }
+            int first = currentShard();
+            for (int i = 0; i < copies; i++) {
+                shards[(first + i) % shards.length].queue.offer(command);
+            }
+            for (int i = 0; i < Math.min(copies, shards.length); i++) {
+                signal(shards[(first + i) % shards.length]);
+            }
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    private void execute(Runnable command, int index) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        submitting.incrementAndGet();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("ShardedExecutor was shut down");
+            }
+            Shard shard = shards[index];
+            shard.queue.offer(command);
+            signal(shard);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    private int currentShard() {
+        if (Thread.currentThread() instanceof Worker worker && worker.owner() == this) {
+            return worker.shard.index;
+        }
+        return shardOf(Long.hashCode(Thread.currentThread().threadId()));
+    }
+
+    private int shardOf(int hash) {
+        int spread = hash ^ (hash >>> 16);
+        return Math.floorMod(spread * 0x9E3779B9, shards.length);
+    }
+
+    /// Wakes the owner of the shard, or any idle worker to steal the task when the owner is busy.
+    private void signal(Shard shard) {
+        if (shard.waiting) {
+            LockSupport.unpark(shard.worker);
+            return;
+        }
+        if (idle.get() == 0) {
+            return;
+        }
+        for (int i = 1; i < shards.length; i++) {
+            Shard other = shards[(shard.index + i) % shards.length];
+            if (other.waiting) {
+                LockSupport.unpark(other.worker);
+                return;
+            }
+        }
+    }
+
+    private boolean allEmpty() {
+        for (Shard shard : shards) {
+            if (!shard.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.worker);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        List<Runnable> remaining = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.worker.interrupt();
+            Runnable task;
+            while ((task = shard.poll()) != null) {
+                remaining.add(task);
+            }
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+
+    private final class Shard {
+        private final int index;
+        private final MpscQueue queue;
+        private final AtomicBoolean consuming;
+        private final Worker worker;
+        private volatile boolean waiting;
+
+        private Shard(int index, String name) {
+            this.index = index;
+            this.queue = new MpscQueue();
+            this.consuming = new AtomicBoolean();
+            this.worker = new Worker(this, name);
+        }
+
+        /// The owner and stealers share the consumer side of the queue, so it is taken with a CAS.
+        private Runnable poll() {
+            if (queue.isEmpty() || !consuming.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return queue.poll();
+            } finally {
+                consuming.set(false);
+            }
+        }
+
+        private Runnable steal() {
+            for (int i = 1; i < shards.length; i++) {
+                Runnable task = shards[(index + i) % shards.length].poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private void runLoop() {
+            try {
+                while (true) {
+                    Runnable task = poll();
+                    if (task == null) {
+                        task = steal();
+                    }
+                    if (task != null) {
+                        runTask(task);
+                        continue;
+                    }
+                    if (shutdown && submitting.get() == 0 && allEmpty()) {
+                        return;
+                    }
+                    park();
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+        private void park() {
+            waiting = true;
+            idle.incrementAndGet();
+            try {
+                if (queue.isEmpty() && !shutdown) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+            } finally {
+                idle.decrementAndGet();
+                waiting = false;
+            }
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+            /// A task that was cancelled while running may leave an interrupt behind that must not hit the next task.
+            if (!shutdown) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+
+    private final class Worker extends Thread {
+        private final Shard shard;
+
+        private Worker(Shard shard, String name) {
+            super(shard::runLoop, name);
+            this.shard = shard;
+        }
+
+        private ShardedExecutor owner() {
+            return ShardedExecutor.this;
+        }
+    }
+}
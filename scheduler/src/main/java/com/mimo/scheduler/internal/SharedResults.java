@@ -0,0 +1,170 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.ResultCaching;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Shares the result of a keyed task between every caller that asks for the key while it runs, and optionally keeps
+ * completed results for a while.
+ * <p>
+ * Every key maps to at most one entry, which is created inside {@link ConcurrentMap#compute} so exactly one caller
+ * starts the task. Callers receive a copy of the shared future, so one caller cancelling its copy never fails the
+ * others. Kept results expire in the order they completed, because they share one time to live, so a queue in that
+ * order serves both the expiry and the eviction of the oldest entries without scanning the map.
+ */
+public class SharedResults {
+    private static final long IN_FLIGHT = 0;
+
+    private final ConcurrentMap<Object, Entry> entries;
+    private final Queue<Entry> completed;
+    private final AtomicInteger kept;
+    private final SchedulerMetrics metrics;
+    private volatile ResultCaching caching;
+
+    public SharedResults(SchedulerMetrics metrics) {
+        this.entries = new ConcurrentHashMap<>();
+        this.completed = new ConcurrentLinkedQueue<>();
+        this.kept = new AtomicInteger();
+        this.metrics = metrics;
+    }
+
+    public ResultCaching getCaching() {
+        return caching;
+    }
+
+    /**
+     * Replaces the caching and drops every kept result, tasks that are running keep being shared.
+     */
+    public void setCaching(ResultCaching caching) {
+        this.caching = caching;
+        Entry entry;
+        while ((entry = completed.poll()) != null) {
+            evict(entry);
+        }
+    }
+
+    /**
+     * Returns a copy of the future of the running or kept task of the key, or starts the task with the {@code launcher}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> run(Object key, Callable<T> task, Function<Callable<T>, CompletableFuture<T>> launcher) {
+        long now = System.nanoTime();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.isValid(now)) {
+            metrics.cacheHits(1);
+            return (CompletableFuture<T>) existing.result.copy();
+        }
+        Entry created = new Entry(key);
+        Entry current = entries.compute(key, (ignored, previous) -> {
+            if (previous != null && previous.isValid(now)) {
+                return previous;
+            }
+            if (previous != null) {
+                previous.dropped();
+            }
+            return created;
+        });
+        if (current != created) {
+            metrics.cacheHits(1);
+            return (CompletableFuture<T>) current.result.copy();
+        }
+        metrics.cacheMisses(1);
+        CompletableFuture<T> future;
+        try {
+            future = launcher.apply(task);
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+        future.whenComplete((value, throwable) -> finish(created, value, throwable));
+        return (CompletableFuture<T>) created.result.copy();
+    }
+
+    /**
+     * Drops the running or kept result of the key, the next call starts the task again.
+     */
+    public void invalidate(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.dropped();
+        }
+    }
+
+    private void finish(Entry entry, Object value, Throwable throwable) {
+        ResultCaching current = caching;
+        if (throwable != null || current == null) {
+            evict(entry);
+        } else {
+            entry.expiresAt = Math.max(System.nanoTime() + current.getTimeToLive(TimeUnit.NANOSECONDS), 1);
+            if (entry.keep()) {
+                kept.incrementAndGet();
+                completed.offer(entry);
+                trim(current);
+            }
+        }
+        if (throwable != null) {
+            entry.result.completeExceptionally(throwable);
+        } else {
+            entry.result.complete(value);
+        }
+    }
+
+    /// The head of the queue always expires first, so expired entries and entries beyond the limit leave from there.
+    private void trim(ResultCaching current) {
+        long now = System.nanoTime();
+        Entry head;
+        while ((head = completed.peek()) != null && (kept.get() > current.getMaxEntries() || !head.isValid(now))) {
+            if (completed.remove(head)) {
+                evict(head);
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key, entry);
+        entry.dropped();
+    }
+
+
+    private final class Entry {
+        private final Object key;
+        private final CompletableFuture<Object> result;
+        private final AtomicInteger state;
+        private volatile long expiresAt;
+
+        private Entry(Object key) {
+            this.key = key;
+            this.result = new CompletableFuture<>();
+            this.state = new AtomicInteger();
+            this.expiresAt = IN_FLIGHT;
+        }
+
+        private boolean isValid(long now) {
+            long expires = expiresAt;
+            return expires == IN_FLIGHT ? state.get() == 0 : expires - now > 0;
+        }
+
+        /// Moves a live entry into the kept state, unless it was dropped while the task ran.
+        private boolean keep() {
+            return state.compareAndSet(0, 1);
+        }
+
+        /// Only entries that were kept are counted, so only their drop gives the count back.
+        private void dropped() {
+            if (state.getAndSet(2) == 1) {
+                kept.decrementAndGet();
+            }
+        }
+    }
+}
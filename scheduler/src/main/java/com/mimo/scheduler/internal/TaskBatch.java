@@ -0,0 +1,142 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.BatchFuture;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A batch of tasks that reaches the executor as a handful of drainers instead of one submission per task.
+ * <p>
+ * Every drainer takes the next task of the batch with a single atomic increment until the batch is exhausted,
+ * so the work stays balanced between the drainers while the executor only sees {@code parallelism} submissions
+ * and wakes at most that many workers. The batch future completes once the last task finished.
+ */
+public class TaskBatch<T> implements Runnable {
+    private final List<ScheduledTask<T>> tasks;
+    private final BatchFuture<T> future;
+    private final AtomicInteger next;
+    private final AtomicInteger remaining;
+    private final AtomicReference<Throwable> failure;
+    private String eventName;
+    private AfterTaskExecutor afterTaskExecutor;
+    private Executor eventExecutor;
+
+    public TaskBatch(Collection<? extends Callable<T>> callables, long delay, TimeUnit unit) {
+        List<ScheduledTask<T>> created = new ArrayList<>(callables.size());
+        for (Callable<T> callable : callables) {
+            created.add(new ScheduledTask<>(callable, delay, unit));
+        }
+        this.tasks = created;
+        this.future = new BatchFuture<>(created);
+        this.next = new AtomicInteger();
+        this.remaining = new AtomicInteger(created.size());
+        this.failure = new AtomicReference<>();
+        for (ScheduledTask<T> task : created) {
+            task.whenComplete((ignored, throwable) -> taskDone(throwable));
+        }
+    }
+
+    /**
+     * Fires the event once after the last task finished. Has to be called before the batch is dispatched.
+     */
+    public TaskBatch<T> fireAfterCompletion(String eventName, AfterTaskExecutor afterTaskExecutor, Executor eventExecutor) {
+        this.eventName = eventName;
+        this.afterTaskExecutor = afterTaskExecutor;
+        this.eventExecutor = eventExecutor;
+        return this;
+    }
+
+    /**
+     * Records the scheduling lag and execution time of every task. Has to be called before the batch is dispatched.
+     */
+    public TaskBatch<T> recordMetrics(SchedulerMetrics metrics) {
+        for (ScheduledTask<T> task : tasks) {
+            task.recordMetrics(metrics);
+        }
+        return this;
+    }
+
+    public BatchFuture<T> future() {
+        return future;
+    }
+
+    /**
+     * Submits up to {@code parallelism} drainers. Throws when not a single drainer was accepted.
+     */
+    public BatchFuture<T> dispatch(Executor executor, int parallelism) {
+        if (tasks.isEmpty()) {
+            finish();
+            return future;
+        }
+        int drainers = Math.min(parallelism, tasks.size());
+        if (executor instanceof ShardedExecutor shardedExecutor) {
+            shardedExecutor.executeSpread(this, drainers);
+            return future;
+        }
+        for (int i = 0; i < drainers; i++) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                if (i == 0) {
+                    throw e;
+                }
+                break;
+            }
+        }
+        return future;
+    }
+
+    @Override
+    public void run() {
+        int index;
+        while ((index = next.getAndIncrement()) < tasks.size()) {
+            tasks.get(index).run();
+        }
+    }
+
+    private void taskDone(Throwable throwable) {
+        if (throwable != null) {
+            failure.compareAndSet(null, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+        }
+        if (remaining.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (eventName == null) {
+            complete();
+            return;
+        }
+        afterTaskExecutor.fireAsync(eventName, eventExecutor).whenComplete((ignored, listenerFailure) -> {
+            if (listenerFailure != null) {
+                failure.compareAndSet(null, listenerFailure instanceof CompletionException && listenerFailure.getCause() != null
+                        ? listenerFailure.getCause() : listenerFailure);
+            }
+            complete();
+        });
+    }
+
+    private void complete() {
+        Throwable first = failure.get();
+        if (first != null) {
+            future.completeExceptionally(first);
+            return;
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        for (ScheduledTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        future.complete(results);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mimo.scheduler.journal;
+
+import java.util.Objects;
+
+/**
+ * Describes a durable job by the type of the job and a serialized payload, so it can be written to a
+ * {@link JobJournal} and run again after a restart. The type selects the handler that was registered for it
+ * at the {@link com.mimo.scheduler.Scheduler}, which receives the payload.
+ * <p>
+ * The payload is not copied and must not be modified after the descriptor was created.
+ */
+public final class JobDescriptor {
+    private final String jobType;
+    private final byte[] payload;
+
+
+    /**
+     * Creates a {@code JobDescriptor} for a job of the given type.
+     *
+     * @param jobType the type of the job that selects its handler
+     * @param payload the serialized arguments of the job
+     **/
+    public JobDescriptor(String jobType, byte[] payload) {
+        this.jobType = Objects.requireNonNull(jobType, "jobType");
+        this.payload = Objects.requireNonNull(payload, "payload");
+    }
+
+
+    /**
+     * Returns the type of the job that selects its handler.
+     *
+     * @return the job type
+     **/
+    public String getJobType() {
+        return jobType;
+    }
+
+
+    /**
+     * Returns the serialized arguments of the job.
+     *
+     * @return the payload
+     **/
+    public byte[] getPayload() {
+        return payload;
+    }
+}
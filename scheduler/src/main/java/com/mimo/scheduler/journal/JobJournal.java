@@ -0,0 +1,501 @@
+package com.mimo.scheduler.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of durable jobs, stored in memory-mapped segment files inside a directory.
+ * <p>
+ * Every change of a job is appended as a record: scheduled, cancelled or completed. Appending only copies the
+ * record into the mapped segment inside a short critical section and never touches the disk. A flusher thread
+ * forces the mapped segments to disk once per flush interval and completes the futures of all records that were
+ * appended in the meantime together, so many records share a single {@code fsync}.
+ * <p>
+ * The journal keeps the jobs that are still pending in memory. Once enough segments were filled, a snapshot of
+ * the pending jobs is written and the older segments are deleted. When a journal is opened, the latest snapshot is
+ * loaded and the newer segments are replayed, which restores the pending jobs without touching any job twice.
+ * Records are checksummed, so a record that was torn by a crash ends the replay of its segment.
+ * <p>
+ * Jobs are recovered at least once: a job that was running during a crash is pending again after the restart.
+ */
+public class JobJournal implements AutoCloseable {
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private static final long DEFAULT_FLUSH_MILLIS = 10;
+    private static final int DEFAULT_COMPACTION_SEGMENTS = 4;
+    private static final byte SCHEDULED = 1;
+    private static final byte CANCELLED = 2;
+    private static final byte COMPLETED = 3;
+    private static final int ID_RECORD_SIZE = 4 + 1 + 8 + 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushNanos;
+    private final int compactionSegments;
+    private final Map<Long, PendingJob> pending;
+    private final AtomicLong nextJobId;
+    private final AtomicBoolean compacting;
+    private final Object compaction;
+    private final Object lock;
+    private final List<Segment> unforced;
+    private final Thread flusher;
+    private Segment current;
+    private long firstSegment;
+    private CompletableFuture<Void> nextFlush;
+    private boolean dirty;
+    private volatile boolean closed;
+
+
+    /**
+     * Opens the journal inside the given directory, or creates an empty one, with 64 MiB segments that are flushed
+     * every 10 milliseconds and compacted once four segments were filled.
+     *
+     * @param directory the directory of the journal files
+     *
+     * @throws IOException if the journal can not be read or created
+     **/
+    public JobJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_COMPACTION_SEGMENTS);
+    }
+
+
+    /**
+     * Opens the journal inside the given directory, or creates an empty one.
+     *
+     * @param directory the directory of the journal files
+     * @param segmentSize the size of a single segment file in bytes
+     * @param flushInterval the time between two flushes, which is the longest time a record waits to become durable
+     * @param unit the {@code TimeUnit} of the flush interval
+     * @param compactionSegments the number of filled segments after which a snapshot is written
+     *
+     * @throws IOException if the journal can not be read or created
+     **/
+    public JobJournal(Path directory, int segmentSize, long flushInterval, TimeUnit unit, int compactionSegments) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024 bytes: " + segmentSize);
+        }
+        if (compactionSegments < 1) {
+            throw new IllegalArgumentException("compactionSegments must be greater than 0: " + compactionSegments);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.flushNanos = Math.max(unit.toNanos(flushInterval), 1);
+        this.compactionSegments = compactionSegments;
+        this.pending = new ConcurrentHashMap<>();
+        this.nextJobId = new AtomicLong(1);
+        this.compacting = new AtomicBoolean();
+        this.compaction = new Object();
+        this.lock = new Object();
+        this.unforced = new ArrayList<>();
+        this.nextFlush = new CompletableFuture<>();
+        recover();
+        this.flusher = Thread.ofPlatform().daemon().name("scheduler-journal-flusher").unstarted(this::flushLoop);
+        flusher.start();
+    }
+
+
+    /**
+     * Returns a new job id that was never used in this journal.
+     *
+     * @return the job id
+     **/
+    public long nextJobId() {
+        return nextJobId.getAndIncrement();
+    }
+
+
+    /**
+     * Returns the jobs that are scheduled but neither cancelled nor completed, including the recovered ones.
+     *
+     * @return a snapshot of the pending jobs
+     **/
+    public List<PendingJob> pendingJobs() {
+        return new ArrayList<>(pending.values());
+    }
+
+
+    /**
+     * Returns the number of jobs that are scheduled but neither cancelled nor completed.
+     *
+     * @return the number of pending jobs
+     **/
+    public int pendingCount() {
+        return pending.size();
+    }
+
+
+    /**
+     * Records that a job was scheduled.
+     *
+     * @param jobId the id of the job from {@link #nextJobId()}
+     * @param dueEpochMillis the time at which the job is due in milliseconds since the epoch
+     * @param descriptor the {@code JobDescriptor} of the job
+     *
+     * @return a {@link CompletableFuture} that completes once the record is durable
+     **/
+    public CompletableFuture<Void> recordScheduled(long jobId, long dueEpochMillis, JobDescriptor descriptor) {
+        PendingJob job = new PendingJob(jobId, dueEpochMillis, descriptor);
+        return append(encode(job), jobId, job);
+    }
+
+
+    /**
+     * Records that a job was cancelled, so it is not recovered anymore.
+     *
+     * @param jobId the id of the job
+     *
+     * @return a {@link CompletableFuture} that completes once the record is durable
+     **/
+    public CompletableFuture<Void> recordCancelled(long jobId) {
+        return append(encode(CANCELLED, jobId), jobId, null);
+    }
+
+
+    /**
+     * Records that a job completed, so it is not recovered anymore.
+     *
+     * @param jobId the id of the job
+     *
+     * @return a {@link CompletableFuture} that completes once the record is durable
+     **/
+    public CompletableFuture<Void> recordCompleted(long jobId) {
+        return append(encode(COMPLETED, jobId), jobId, null);
+    }
+
+
+    /**
+     * Writes a snapshot of the pending jobs and deletes the segments and snapshots it replaces.
+     * This happens automatically once enough segments were filled. A compaction that is already running is waited for.
+     *
+     * @throws IOException if the snapshot can not be written
+     **/
+    public void compact() throws IOException {
+        synchronized (compaction) {
+            writeSnapshot();
+        }
+    }
+
+
+    /**
+     * Forces every appended record to disk, stops the flusher and waits for a running compaction.
+     * Records can not be appended anymore.
+     **/
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        /// A compaction that started before the journal was closed still writes and deletes files in the directory.
+        synchronized (compaction) {
+        }
+    }
+
+
+    private CompletableFuture<Void> append(byte[] record, long jobId, PendingJob job) {
+        if (record.length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit into a segment of " + segmentSize + " bytes");
+        }
+        boolean compact;
+        CompletableFuture<Void> durable;
+        synchronized (lock) {
+            ensureOpen();
+            if (current.position + record.length + 4 > segmentSize) {
+                roll();
+            }
+            current.buffer.put(current.position, record);
+            current.position += record.length;
+            if (job != null) {
+                pending.put(jobId, job);
+            } else {
+                pending.remove(jobId);
+            }
+            dirty = true;
+            durable = nextFlush;
+            compact = current.sequence - firstSegment >= compactionSegments;
+        }
+        if (compact && compacting.compareAndSet(false, true)) {
+            Thread.ofPlatform().daemon().name("scheduler-journal-compactor").start(this::compactInBackground);
+        }
+        return durable;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("JobJournal was closed");
+        }
+    }
+
+    /// Must be called while holding the lock.
+    private void roll() {
+        unforced.add(current);
+        try {
+            current = Segment.create(segmentPath(current.sequence + 1), current.sequence + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compactInBackground() {
+        try {
+            synchronized (compaction) {
+                writeSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            /// A failed compaction only keeps more segments around, the next filled segment tries again.
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushNanos);
+            flush();
+        }
+    }
+
+    private void flush() {
+        CompletableFuture<Void> flushed;
+        List<Segment> segments;
+        synchronized (lock) {
+            if (!dirty) {
+                return;
+            }
+            flushed = nextFlush;
+            nextFlush = new CompletableFuture<>();
+            dirty = false;
+            segments = new ArrayList<>(unforced);
+            segments.add(current);
+            unforced.clear();
+        }
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+            }
+            flushed.complete(null);
+        } catch (RuntimeException e) {
+            flushed.completeExceptionally(e);
+        }
+    }
+
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.put(sequenceOf(name, SEGMENT_PREFIX, SEGMENT_SUFFIX), file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshots.put(sequenceOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX), file);
+                }
+            }
+        }
+        long maxId = 0;
+        firstSegment = 0;
+        if (!snapshots.isEmpty()) {
+            Map.Entry<Long, Path> snapshot = snapshots.lastEntry();
+            firstSegment = snapshot.getKey();
+            try (FileChannel channel = FileChannel.open(snapshot.getValue(), StandardOpenOption.READ)) {
+                maxId = Math.max(maxId, replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+            }
+        }
+        Map.Entry<Long, Path> last = null;
+        for (Map.Entry<Long, Path> segment : segments.tailMap(firstSegment, true).entrySet()) {
+            last = segment;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                maxId = Math.max(maxId, replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+            }
+        }
+        nextJobId.set(maxId + 1);
+        long sequence = last == null ? firstSegment : last.getKey() + 1;
+        current = Segment.create(segmentPath(sequence), sequence, segmentSize);
+        deleteBefore(firstSegment);
+    }
+
+    /// Applies every valid record of the buffer to the pending jobs and returns the highest job id it saw.
+    private long replay(ByteBuffer buffer) {
+        long maxId = 0;
+        int position = 0;
+        CRC32C crc = new CRC32C();
+        while (position + 4 <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < ID_RECORD_SIZE - 4 || position + 4 + length > buffer.limit()) {
+                break;
+            }
+            int body = position + 4;
+            crc.reset();
+            crc.update(buffer.slice(body, length - 4));
+            if ((int) crc.getValue() != buffer.getInt(body + length - 4)) {
+                break;
+            }
+            byte kind = buffer.get(body);
+            long jobId = buffer.getLong(body + 1);
+            maxId = Math.max(maxId, jobId);
+            if (kind == SCHEDULED) {
+                long due = buffer.getLong(body + 9);
+                int typeLength = buffer.getInt(body + 17);
+                byte[] type = new byte[typeLength];
+                buffer.get(body + 21, type);
+                int payloadLength = buffer.getInt(body + 21 + typeLength);
+                byte[] payload = new byte[payloadLength];
+                buffer.get(body + 25 + typeLength, payload);
+                pending.put(jobId, new PendingJob(jobId, due, new JobDescriptor(new String(type, StandardCharsets.UTF_8), payload)));
+            } else {
+                pending.remove(jobId);
+            }
+            position = body + length;
+        }
+        return maxId;
+    }
+
+    /// Rolls to a new segment, so the snapshot replaces every older segment. Records appended while the pending
+    /// jobs are written can end up in the snapshot and in the new segment, which replays to the same state.
+    private void writeSnapshot() throws IOException {
+        long covered;
+        synchronized (lock) {
+            ensureOpen();
+            roll();
+            covered = current.sequence;
+        }
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + covered + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 20);
+            for (PendingJob job : pending.values()) {
+                byte[] record = encode(job);
+                if (record.length > chunk.remaining()) {
+                    writeFully(channel, chunk);
+                }
+                if (record.length > chunk.remaining()) {
+                    writeFully(channel, ByteBuffer.wrap(record));
+                } else {
+                    chunk.put(record);
+                }
+            }
+            writeFully(channel, chunk);
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath(covered), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (lock) {
+            firstSegment = Math.max(firstSegment, covered);
+        }
+        deleteBefore(covered);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void deleteBefore(long sequence) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean stale = name.endsWith(".tmp")
+                        || name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                        && sequenceOf(name, SEGMENT_PREFIX, SEGMENT_SUFFIX) < sequence
+                        || name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                        && sequenceOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sequence;
+                if (stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    private static long sequenceOf(String name, String prefix, String suffix) {
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /// Layout: length, kind, job id, due time, type length, type, payload length, payload, CRC32C of kind to payload.
+    private static byte[] encode(PendingJob job) {
+        byte[] type = job.getDescriptor().getJobType().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = job.getDescriptor().getPayload();
+        ByteBuffer record = ByteBuffer.allocate(4 + 1 + 8 + 8 + 4 + type.length + 4 + payload.length + 4);
+        record.putInt(record.capacity() - 4)
+                .put(SCHEDULED)
+                .putLong(job.getJobId())
+                .putLong(job.getDueEpochMillis())
+                .putInt(type.length).put(type)
+                .putInt(payload.length).put(payload);
+        return seal(record);
+    }
+
+    private static byte[] encode(byte kind, long jobId) {
+        ByteBuffer record = ByteBuffer.allocate(ID_RECORD_SIZE);
+        record.putInt(ID_RECORD_SIZE - 4).put(kind).putLong(jobId);
+        return seal(record);
+    }
+
+    private static byte[] seal(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+
+    private static final class Segment {
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(long sequence, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path path, long sequence, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return new Segment(sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
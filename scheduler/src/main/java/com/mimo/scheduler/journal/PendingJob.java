@@ -0,0 +1,54 @@
+package com.mimo.scheduler.journal;
+
+/**
+ * A job that a {@link JobJournal} recorded as scheduled, but neither as cancelled nor as completed.
+ */
+public final class PendingJob {
+    private final long jobId;
+    private final long dueEpochMillis;
+    private final JobDescriptor descriptor;
+
+
+    /**
+     * Creates a {@code PendingJob}.
+     *
+     * @param jobId the id of the job inside its journal
+     * @param dueEpochMillis the time at which the job is due in milliseconds since the epoch
+     * @param descriptor the {@code JobDescriptor} of the job
+     **/
+    public PendingJob(long jobId, long dueEpochMillis, JobDescriptor descriptor) {
+        this.jobId = jobId;
+        this.dueEpochMillis = dueEpochMillis;
+        this.descriptor = descriptor;
+    }
+
+
+    /**
+     * Returns the id of the job inside its journal.
+     *
+     * @return the job id
+     **/
+    public long getJobId() {
+        return jobId;
+    }
+
+
+    /**
+     * Returns the time at which the job is due in milliseconds since the epoch.
+     *
+     * @return the due time
+     **/
+    public long getDueEpochMillis() {
+        return dueEpochMillis;
+    }
+
+
+    /**
+     * Returns the {@link JobDescriptor} of the job.
+     *
+     * @return the descriptor
+     **/
+    public JobDescriptor getDescriptor() {
+        return descriptor;
+    }
+}
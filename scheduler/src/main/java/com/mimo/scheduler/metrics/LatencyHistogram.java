@@ -0,0 +1,212 @@
+package com.mimo.scheduler.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds that never allocates while recording.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is split into 16 buckets, so a reported value is at
+ * most 6.25% above the recorded one. Values above {@link #MAX_VALUE} are counted as {@code MAX_VALUE}.
+ * Recording a value is a single atomic increment. Recording threads are spread over several stripes of counters,
+ * so they rarely write to the same cache line, and readers sum the stripes up. Reading while other threads record
+ * gives a close, but not an atomic, view.
+ */
+public final class LatencyHistogram {
+    /**
+     * The largest value that is counted exactly, roughly 18 minutes in nanoseconds.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+    private static final int MAX = BUCKETS;
+    /// Every stripe holds the buckets and the max, plus one cache line of padding to the next stripe.
+    private static final int STRIPE_LENGTH = BUCKETS + 1 + 8;
+
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+
+
+    /**
+     * Creates a {@code LatencyHistogram} with one stripe per available processor, up to 8 stripes.
+     **/
+    public LatencyHistogram() {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+
+    /**
+     * Creates a {@code LatencyHistogram} with the given number of stripes, which is rounded up to a power of two.
+     * More stripes mean less contention between recording threads, but more memory and slower reads.
+     *
+     * @param stripes the number of independent counter sets
+     **/
+    public LatencyHistogram(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be greater than 0: " + stripes);
+        }
+        int rounded = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.counts = new AtomicLongArray(rounded * STRIPE_LENGTH);
+        this.stripeMask = rounded - 1;
+    }
+
+
+    /**
+     * Records a duration. Negative values are recorded as {@code 0}.
+     *
+     * @param nanos the duration in nanoseconds
+     **/
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        int base = stripe() * STRIPE_LENGTH;
+        counts.getAndIncrement(base + indexOf(value));
+        long max = counts.get(base + MAX);
+        while (value > max && !counts.compareAndSet(base + MAX, max, value)) {
+            max = counts.get(base + MAX);
+        }
+    }
+
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     **/
+    public long getCount() {
+        long count = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += counts.get(base + i);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the largest recorded value, or {@code 0} if nothing was recorded.
+     *
+     * @return the largest recorded value in nanoseconds
+     **/
+    public long getMax() {
+        long max = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            max = Math.max(max, counts.get(stripe * STRIPE_LENGTH + MAX));
+        }
+        return max;
+    }
+
+
+    /**
+     * Returns the mean of the recorded values, or {@code 0} if nothing was recorded.
+     * Every value counts as the middle of its bucket, so the mean is as precise as the buckets.
+     *
+     * @return the mean in nanoseconds
+     **/
+    public double getMean() {
+        long count = 0;
+        double sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = counts.get(base + i);
+                count += bucket;
+                sum += bucket * ((lowestValueOf(i) + highestValueOf(i)) / 2.0);
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+
+    /**
+     * Returns the value below which the given percentage of the recorded values falls, for example
+     * {@code getValueAtPercentile(99.9)}. The value is the upper bound of its bucket, but never above {@link #getMax()}.
+     *
+     * @param percentile the percentage between {@code 0} and {@code 100}
+     *
+     * @return the value at the percentile in nanoseconds, or {@code 0} if nothing was recorded
+     **/
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = counts.get(base + i);
+                merged[i] += bucket;
+                count += bucket;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+
+    /**
+     * Removes every recorded value. Values that are recorded at the same time may or may not survive the reset.
+     **/
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram[count=" + getCount()
+                + ", mean=" + Math.round(getMean())
+                + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99)
+                + ", p99.9=" + getValueAtPercentile(99.9)
+                + ", max=" + getMax() + "]";
+    }
+
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 7)) & stripeMask;
+    }
+
+    /// Values below 16 get a bucket each, above that every power of two is split into 16 buckets.
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long lowestValueOf(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        long low = index & (SUB_BUCKETS - 1);
+        if (group == 0) {
+            return low;
+        }
+        return (SUB_BUCKETS + low) << (group - 1);
+    }
+
+    private static long highestValueOf(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        long low = index & (SUB_BUCKETS - 1);
+        if (group == 0) {
+            return low;
+        }
+        return ((SUB_BUCKETS + low + 1) << (group - 1)) - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mimo.scheduler.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event that is committed after the {@link com.mimo.scheduler.aftertask.AfterTask} methods of an event ran.
+ */
+@Name("com.mimo.scheduler.ListenerDispatch")
+@Label("Listener Dispatch")
+@Category({"SchedulerLibrary", "Listeners"})
+@Description("The @AfterTask methods of an event ran")
+@StackTrace(false)
+final class ListenerDispatchEvent extends Event {
+    @Label("Event Name")
+    String eventName;
+
+    @Label("Listeners")
+    @Description("The number of @AfterTask methods that were invoked")
+    int listeners;
+
+    @Label("Dispatch Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dispatchTime;
+}
@@ -0,0 +1,34 @@
+package com.mimo.scheduler.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event that is committed when a {@link com.mimo.scheduler.Scheduler} resized its worker pool.
+ */
+@Name("com.mimo.scheduler.PoolResize")
+@Label("Pool Resize")
+@Category({"SchedulerLibrary"})
+@Description("A Scheduler changed the number of its workers")
+@StackTrace(false)
+final class PoolResizeEvent extends Event {
+    @Label("Previous Size")
+    int previousSize;
+
+    @Label("New Size")
+    int newSize;
+
+    @Label("Queue Lag")
+    @Description("The estimated time a new task waited for a worker")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueLag;
+
+    @Label("Throughput")
+    @Description("The tasks that finished per second")
+    double throughput;
+}
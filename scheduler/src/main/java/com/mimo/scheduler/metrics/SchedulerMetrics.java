@@ -0,0 +1,420 @@
+package com.mimo.scheduler.metrics;
+
+import com.mimo.scheduler.internal.ConcurrencyLimitedExecutor;
+import com.mimo.scheduler.internal.ShardedExecutor;
+import com.mimo.scheduler.timer.TimerEngine;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a {@link com.mimo.scheduler.Scheduler}.
+ * <p>
+ * Every task records its scheduling lag, the time between the moment it was meant to start and the moment it
+ * actually started, and its execution time. The {@link com.mimo.scheduler.aftertask.AfterTask} methods of an event
+ * record their dispatch time per event name. Recording a task takes two reads of {@link System#nanoTime()} and one
+ * atomic increment per histogram, without locks or allocations. Turning the metrics off with
+ * {@link #setEnabled(boolean)} leaves a single volatile read on the hot path. The gauges are read from the timer
+ * and the executor when they are asked for, so they cost nothing while tasks run.
+ * <p>
+ * While a JFR recording is running, every task and listener dispatch is also committed as a
+ * {@code com.mimo.scheduler.TaskExecution} and {@code com.mimo.scheduler.ListenerDispatch} event, and the gauges
+ * are committed once a second as a {@code com.mimo.scheduler.SchedulerStatistics} event.
+ */
+public final class SchedulerMetrics implements AutoCloseable {
+    private static final EventType TASK_EXECUTION = EventType.getEventType(TaskExecutionEvent.class);
+    private static final EventType LISTENER_DISPATCH = EventType.getEventType(ListenerDispatchEvent.class);
+    private static final EventType POOL_RESIZE = EventType.getEventType(PoolResizeEvent.class);
+
+    private final TimerEngine timerEngine;
+    private final ExecutorService executor;
+    private final LatencyHistogram schedulingLag;
+    private final LatencyHistogram executionTime;
+    private final ConcurrentMap<String, LatencyHistogram> listenerDispatchTimes;
+    private final LongAdder rejectedTasks;
+    private final LongAdder droppedTasks;
+    private final LongAdder callerRunTasks;
+    private final LongAdder missedDeadlines;
+    private final LongAdder deferredTasks;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+    private final Runnable statisticsHook;
+    private volatile boolean enabled;
+
+
+    /**
+     * Creates enabled {@code SchedulerMetrics} that read their gauges from the given {@link TimerEngine} and executor.
+     *
+     * @param timerEngine the {@code TimerEngine} of the scheduler
+     * @param executor the executor of the scheduler
+     **/
+    public SchedulerMetrics(TimerEngine timerEngine, ExecutorService executor) {
+        this.timerEngine = timerEngine;
+        this.executor = executor;
+        this.schedulingLag = new LatencyHistogram();
+        this.executionTime = new LatencyHistogram();
+        this.listenerDispatchTimes = new ConcurrentHashMap<>();
+        this.rejectedTasks = new LongAdder();
+        this.droppedTasks = new LongAdder();
+        this.callerRunTasks = new LongAdder();
+        this.missedDeadlines = new LongAdder();
+        this.deferredTasks = new LongAdder();
+        this.cacheHits = new LongAdder();
+        this.cacheMisses = new LongAdder();
+        this.enabled = true;
+        this.statisticsHook = this::commitStatistics;
+        FlightRecorder.addPeriodicEvent(SchedulerStatisticsEvent.class, statisticsHook);
+    }
+
+
+    /**
+     * Turns the recording of histograms and JFR events on or off.
+     * Tasks that are already running when the metrics are turned on are not recorded.
+     *
+     * @param enabled whether tasks and listeners are recorded
+     **/
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+
+    /**
+     * Returns whether tasks and listeners are recorded.
+     *
+     * @return {@code true} if the metrics are enabled
+     **/
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+
+    /**
+     * Returns the histogram of how much later than intended the tasks started, in nanoseconds.
+     * Tasks without a delay were meant to start when they were submitted, so their lag is the time they were queued.
+     *
+     * @return the scheduling lag {@link LatencyHistogram}
+     **/
+    public LatencyHistogram getSchedulingLag() {
+        return this.schedulingLag;
+    }
+
+
+    /**
+     * Returns the histogram of how long the tasks ran, in nanoseconds, not counting their listeners.
+     *
+     * @return the execution time {@link LatencyHistogram}
+     **/
+    public LatencyHistogram getExecutionTime() {
+        return this.executionTime;
+    }
+
+
+    /**
+     * Returns the histogram of how long the {@link com.mimo.scheduler.aftertask.AfterTask} methods of the given event
+     * took to run, in nanoseconds, or {@code null} if the event was not dispatched yet.
+     *
+     * @param eventName the name of the event
+     *
+     * @return the dispatch time {@link LatencyHistogram} of the event
+     **/
+    public LatencyHistogram getListenerDispatchTime(String eventName) {
+        return listenerDispatchTimes.get(eventName);
+    }
+
+
+    /**
+     * Returns the dispatch time histograms of every event that was dispatched, keyed by the event name.
+     *
+     * @return an unmodifiable copy of the dispatch time histograms
+     **/
+    public Map<String, LatencyHistogram> getListenerDispatchTimes() {
+        return Map.copyOf(listenerDispatchTimes);
+    }
+
+
+    /**
+     * Returns the number of timeouts that are waiting inside the {@link TimerEngine} of the scheduler.
+     *
+     * @return the number of pending timers
+     **/
+    public long getPendingTimers() {
+        return timerEngine.pendingTimeouts();
+    }
+
+
+    /**
+     * Returns the number of worker threads that are running a task at the moment. A sharded executor counts every
+     * worker that is not parked, and executors that do not report their workers count as {@code 0}.
+     *
+     * @return the number of active workers
+     **/
+    public long getActiveWorkers() {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getActiveCount();
+        }
+        if (executor instanceof ConcurrencyLimitedExecutor limitedExecutor) {
+            return limitedExecutor.activeCount();
+        }
+        if (executor instanceof ShardedExecutor shardedExecutor) {
+            return shardedExecutor.activeCount();
+        }
+        return 0;
+    }
+
+
+    /**
+     * Returns the number of tasks the scheduler did not accept, because it or its timer was shut down or because
+     * its {@link com.mimo.scheduler.AdmissionLimits} were reached.
+     *
+     * @return the number of rejected tasks
+     **/
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+
+    /**
+     * Returns the number of pending tasks that were cancelled to make room with
+     * {@link com.mimo.scheduler.OverloadPolicy#DROP_OLDEST}.
+     *
+     * @return the number of dropped tasks
+     **/
+    public long getDroppedTasks() {
+        return droppedTasks.sum();
+    }
+
+
+    /**
+     * Returns the number of tasks that ran on the submitting thread with
+     * {@link com.mimo.scheduler.OverloadPolicy#CALLER_RUNS} because there was no room.
+     *
+     * @return the number of tasks that ran on the caller
+     **/
+    public long getCallerRunTasks() {
+        return callerRunTasks.sum();
+    }
+
+
+    /**
+     * Returns the number of tasks with a deadline, submitted with
+     * {@link com.mimo.scheduler.Scheduler#runWithDeadline(com.mimo.scheduler.Priority, long, java.util.concurrent.TimeUnit, Runnable)},
+     * that started after their deadline.
+     *
+     * @return the number of missed deadlines
+     **/
+    public long getMissedDeadlines() {
+        return missedDeadlines.sum();
+    }
+
+
+    /**
+     * Returns the number of tasks that a {@link com.mimo.scheduler.RateLimit} deferred onto the timer because they
+     * arrived before their turn.
+     *
+     * @return the number of deferred tasks
+     **/
+    public long getDeferredTasks() {
+        return deferredTasks.sum();
+    }
+
+
+    /**
+     * Returns the number of {@link com.mimo.scheduler.Scheduler#runShared(Object, java.util.concurrent.Callable)}
+     * calls that reused a running or kept result instead of running their task.
+     *
+     * @return the number of cache hits
+     **/
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+
+    /**
+     * Returns the number of {@link com.mimo.scheduler.Scheduler#runShared(Object, java.util.concurrent.Callable)}
+     * calls that found no result to reuse and ran their task.
+     *
+     * @return the number of cache misses
+     **/
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+
+    /**
+     * Removes every recorded value from the histograms and resets the rejected, dropped, caller run, missed
+     * deadline, deferred and cache counters.
+     **/
+    public void reset() {
+        schedulingLag.reset();
+        executionTime.reset();
+        listenerDispatchTimes.values().forEach(LatencyHistogram::reset);
+        rejectedTasks.reset();
+        droppedTasks.reset();
+        callerRunTasks.reset();
+        missedDeadlines.reset();
+        deferredTasks.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+
+    /**
+     * Stops committing the periodic JFR statistics event. Is called once the scheduler shuts down.
+     **/
+    @Override
+    public void close() {
+        FlightRecorder.removePeriodicEvent(statisticsHook);
+    }
+
+
+    /**
+     * Records a task that was meant to start at {@code intendedStart}, started at {@code start} and just finished.
+     *
+     * @param intendedStart the {@link System#nanoTime()} the task was meant to start at
+     * @param start the {@link System#nanoTime()} the task started at
+     * @param eventName the name of the event the task fires, or {@code null}
+     **/
+    public void taskFinished(long intendedStart, long start, String eventName) {
+        long duration = System.nanoTime() - start;
+        long lag = start - intendedStart;
+        schedulingLag.record(lag);
+        executionTime.record(duration);
+        if (TASK_EXECUTION.isEnabled()) {
+            TaskExecutionEvent event = new TaskExecutionEvent();
+            event.eventName = eventName;
+            event.schedulingLag = Math.max(lag, 0);
+            event.executionTime = duration;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * Records that the {@code listeners} methods of the event started at {@code start} and just finished.
+     *
+     * @param eventName the name of the event
+     * @param listeners the number of methods that were invoked
+     * @param start the {@link System#nanoTime()} the first method started at
+     **/
+    public void listenersFinished(String eventName, int listeners, long start) {
+        long duration = System.nanoTime() - start;
+        LatencyHistogram histogram = listenerDispatchTimes.get(eventName);
+        if (histogram == null) {
+            histogram = listenerDispatchTimes.computeIfAbsent(eventName, name -> new LatencyHistogram(2));
+        }
+        histogram.record(duration);
+        if (LISTENER_DISPATCH.isEnabled()) {
+            ListenerDispatchEvent event = new ListenerDispatchEvent();
+            event.eventName = eventName;
+            event.listeners = listeners;
+            event.dispatchTime = duration;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * Counts tasks that the scheduler did not accept.
+     *
+     * @param count the number of rejected tasks
+     **/
+    public void tasksRejected(int count) {
+        rejectedTasks.add(count);
+    }
+
+
+    /**
+     * Counts pending tasks that were cancelled to make room.
+     *
+     * @param count the number of dropped tasks
+     **/
+    public void tasksDropped(int count) {
+        droppedTasks.add(count);
+    }
+
+
+    /**
+     * Counts tasks that ran on the submitting thread because there was no room.
+     *
+     * @param count the number of tasks that ran on the caller
+     **/
+    public void tasksRanOnCaller(int count) {
+        callerRunTasks.add(count);
+    }
+
+
+    /**
+     * Counts tasks that started after their deadline.
+     *
+     * @param count the number of missed deadlines
+     **/
+    public void deadlinesMissed(int count) {
+        missedDeadlines.add(count);
+    }
+
+
+    /**
+     * Counts tasks that a rate limit deferred onto the timer.
+     *
+     * @param count the number of deferred tasks
+     **/
+    public void tasksDeferred(int count) {
+        deferredTasks.add(count);
+    }
+
+
+    /**
+     * Records that the worker pool was resized, as a {@code com.mimo.scheduler.PoolResize} JFR event.
+     *
+     * @param previousSize the number of workers before
+     * @param newSize the number of workers after
+     * @param queueLag the estimated queue lag that led to the decision, in nanoseconds
+     * @param throughput the tasks that finished per second
+     **/
+    public void poolResized(int previousSize, int newSize, long queueLag, double throughput) {
+        if (POOL_RESIZE.isEnabled()) {
+            PoolResizeEvent event = new PoolResizeEvent();
+            event.previousSize = previousSize;
+            event.newSize = newSize;
+            event.queueLag = queueLag;
+            event.throughput = throughput;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * Counts shared calls that reused a result.
+     *
+     * @param count the number of cache hits
+     **/
+    public void cacheHits(int count) {
+        cacheHits.add(count);
+    }
+
+
+    /**
+     * Counts shared calls that ran their task.
+     *
+     * @param count the number of cache misses
+     **/
+    public void cacheMisses(int count) {
+        cacheMisses.add(count);
+    }
+
+
+    private void commitStatistics() {
+        SchedulerStatisticsEvent event = new SchedulerStatisticsEvent();
+        event.pendingTimers = getPendingTimers();
+        event.activeWorkers = getActiveWorkers();
+        event.rejectedTasks = getRejectedTasks();
+        event.droppedTasks = getDroppedTasks();
+        event.commit();
+    }
+}
@@ -0,0 +1,32 @@
+package com.mimo.scheduler.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic JFR event with the gauges of every {@link SchedulerMetrics} that is still open.
+ */
+@Name("com.mimo.scheduler.SchedulerStatistics")
+@Label("Scheduler Statistics")
+@Category({"SchedulerLibrary"})
+@Description("The gauges of a Scheduler")
+@StackTrace(false)
+@Period("1 s")
+final class SchedulerStatisticsEvent extends Event {
+    @Label("Pending Timers")
+    long pendingTimers;
+
+    @Label("Active Workers")
+    long activeWorkers;
+
+    @Label("Rejected Tasks")
+    long rejectedTasks;
+
+    @Label("Dropped Tasks")
+    long droppedTasks;
+}
@@ -0,0 +1,32 @@
+package com.mimo.scheduler.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event that is committed after a task of a {@link com.mimo.scheduler.Scheduler} ran.
+ */
+@Name("com.mimo.scheduler.TaskExecution")
+@Label("Task Execution")
+@Category({"SchedulerLibrary", "Tasks"})
+@Description("A task of a Scheduler ran")
+@StackTrace(false)
+final class TaskExecutionEvent extends Event {
+    @Label("Event Name")
+    @Description("The @AfterTask event the task fires, if any")
+    String eventName;
+
+    @Label("Scheduling Lag")
+    @Description("How much later the task started than it was meant to")
+    @Timespan(Timespan.NANOSECONDS)
+    long schedulingLag;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long executionTime;
+}
@@ -0,0 +1,432 @@
+package com.mimo.scheduler.timer;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link TimerEngine} based on a hierarchical hashed timing wheel.
+ * <p>
+ * The engine divides time into ticks of a fixed duration. Every level of the hierarchy is a wheel with
+ * {@code wheelSize} buckets, where one bucket of a level spans a full rotation of the level below it.
+ * New timeouts and cancellations are handed to the timer thread through lock-free queues, so scheduling and
+ * cancelling a timeout is {@code O(1)} and never contends with other producers on a lock. Timeouts are moved
+ * to a lower level once the wheel below completed a rotation, which keeps the work per tick proportional to
+ * the number of timeouts that actually expire.
+ * <p>
+ * Timeouts never expire early, but they can expire up to one tick late. The timer thread only hands expired
+ * tasks to their executor, so a slow task never delays other timeouts.
+ */
+public class HashedWheelTimerEngine implements TimerEngine {
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+    private static final int STATE_STOPPED = 3;
+
+    private final long tickNanos;
+    private final int wheelBits;
+    private final long wheelMask;
+    private final int levels;
+    private final Bucket[][] wheels;
+    private final Queue<WheelTimeout> pendingAdds;
+    private final Queue<WheelTimeout> pendingCancels;
+    private final AtomicLong pending;
+    private final AtomicInteger state;
+    private final CountDownLatch startLatch;
+    private final CompletableFuture<Void> termination;
+    private final Thread worker;
+    private volatile long startTime;
+    private volatile boolean idle;
+    private long tick;
+
+
+    /**
+     * Creates a {@code HashedWheelTimerEngine} with a tick duration of one millisecond and four levels of 512 buckets,
+     * which covers delays of more than two years before timeouts need additional rotations of the top level.
+     **/
+    public HashedWheelTimerEngine() {
+        this(1, TimeUnit.MILLISECONDS, 512, 4);
+    }
+
+
+    /**
+     * Creates a {@code HashedWheelTimerEngine} with the given tick duration and wheel sizes.
+     *
+     * @param tickDuration the duration of a single tick, which is also the precision of the engine
+     * @param unit the {@code TimeUnit} to describe the tick duration
+     * @param wheelSize the number of buckets per level, has to be a power of two
+     * @param levels the number of levels of the hierarchy
+     **/
+    public HashedWheelTimerEngine(long tickDuration, TimeUnit unit, int wheelSize, int levels) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (wheelSize < 2 || wheelSize > (1 << 16) || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two between 2 and 65536: " + wheelSize);
+        }
+        int bits = Integer.numberOfTrailingZeros(wheelSize);
+        if (levels < 1 || bits * levels > 62) {
+            throw new IllegalArgumentException("levels must be between 1 and " + (62 / bits) + ": " + levels);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheelBits = bits;
+        this.wheelMask = wheelSize - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.pendingAdds = new ConcurrentLinkedQueue<>();
+        this.pendingCancels = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicLong();
+        this.state = new AtomicInteger(STATE_INIT);
+        this.startLatch = new CountDownLatch(1);
+        this.termination = new CompletableFuture<>();
+        this.worker = new Thread(this::runWorker, "scheduler-wheel-timer");
+    }
+
+
+    @Override
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit, Executor executor) {
+        pending.incrementAndGet();
+        if (!start()) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("TimerEngine has been shut down");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        WheelTimeout timeout = new WheelTimeout(task, executor, deadline);
+        pendingAdds.add(timeout);
+        /// A shutdownNow that raced with this call may have drained the queue already, then nobody else cancels it.
+        if (state.get() == STATE_STOPPED && pendingAdds.remove(timeout)) {
+            timeout.cancelTask();
+            throw new RejectedExecutionException("TimerEngine has been shut down");
+        }
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+
+    @Override
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        if (state.compareAndSet(STATE_INIT, STATE_STOPPED)) {
+            termination.complete(null);
+        } else if (state.compareAndSet(STATE_STARTED, STATE_SHUTDOWN)) {
+            LockSupport.unpark(worker);
+        }
+        return termination;
+    }
+
+
+    @Override
+    public void shutdownNow() {
+        if (state.getAndSet(STATE_STOPPED) == STATE_INIT) {
+            termination.complete(null);
+        } else {
+            LockSupport.unpark(worker);
+        }
+    }
+
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() >= STATE_SHUTDOWN;
+    }
+
+
+    private boolean start() {
+        for (;;) {
+            int current = state.get();
+            if (current >= STATE_SHUTDOWN) {
+                return false;
+            }
+            if (current == STATE_STARTED) {
+                break;
+            }
+            if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                worker.start();
+                break;
+            }
+        }
+        while (startTime == 0) {
+            try {
+                startLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+
+    private void runWorker() {
+        long now = System.nanoTime();
+        startTime = now == 0 ? 1 : now;
+        startLatch.countDown();
+
+        while (isRunning()) {
+            if (!awaitTick()) {
+                continue;
+            }
+            transferCancellations();
+            transferTimeouts();
+            cascade();
+            expire(wheels[0][(int) (tick & wheelMask)]);
+            tick++;
+        }
+        if (state.get() == STATE_STOPPED) {
+            cancelRemaining();
+        }
+        termination.complete(null);
+    }
+
+
+    private boolean isRunning() {
+        int current = state.get();
+        return current == STATE_STARTED || (current == STATE_SHUTDOWN && pending.get() > 0);
+    }
+
+
+    private boolean awaitTick() {
+        if (pending.get() == 0 && pendingAdds.isEmpty()) {
+            transferCancellations();
+            idle = true;
+            if (pending.get() == 0 && pendingAdds.isEmpty() && state.get() == STATE_STARTED) {
+                LockSupport.park(this);
+            }
+            idle = false;
+            tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+            return false;
+        }
+        long deadline = tickNanos * (tick + 1);
+        long sleepNanos = deadline - (System.nanoTime() - startTime);
+        if (sleepNanos > 0) {
+            LockSupport.parkNanos(this, sleepNanos);
+            return false;
+        }
+        return true;
+    }
+
+
+    private void transferTimeouts() {
+        for (int i = 0; i < 100_000; i++) {
+            WheelTimeout timeout = pendingAdds.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == WheelTimeout.ST_INIT) {
+                place(timeout);
+            }
+        }
+    }
+
+
+    private void transferCancellations() {
+        WheelTimeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+
+    private void place(WheelTimeout timeout) {
+        long ticks = Math.max(timeout.deadline / tickNanos, tick);
+        for (int level = 0; level < levels; level++) {
+            int shift = wheelBits * (level + 1);
+            if (level == levels - 1 || (ticks >>> shift) == (tick >>> shift)) {
+                int index = (int) ((ticks >>> (wheelBits * level)) & wheelMask);
+                wheels[level][index].add(timeout);
+                return;
+            }
+        }
+    }
+
+
+    private void cascade() {
+        for (int level = levels - 1; level > 0; level--) {
+            long lowerMask = (1L << (wheelBits * level)) - 1;
+            if ((tick & lowerMask) == 0) {
+                Bucket bucket = wheels[level][(int) ((tick >>> (wheelBits * level)) & wheelMask)];
+                WheelTimeout timeout = bucket.clear();
+                while (timeout != null) {
+                    WheelTimeout next = timeout.next;
+                    timeout.next = null;
+                    timeout.prev = null;
+                    if (timeout.state.get() == WheelTimeout.ST_INIT) {
+                        place(timeout);
+                    }
+                    timeout = next;
+                }
+            }
+        }
+    }
+
+
+    private void expire(Bucket bucket) {
+        WheelTimeout timeout = bucket.clear();
+        while (timeout != null) {
+            WheelTimeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            if (timeout.deadline / tickNanos > tick) {
+                place(timeout);
+            } else {
+                timeout.expire();
+            }
+            timeout = next;
+        }
+    }
+
+
+    private void cancelRemaining() {
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                WheelTimeout timeout = bucket.clear();
+                while (timeout != null) {
+                    WheelTimeout next = timeout.next;
+                    timeout.cancelTask();
+                    timeout = next;
+                }
+            }
+        }
+        WheelTimeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            timeout.cancelTask();
+        }
+    }
+
+
+    private final class WheelTimeout implements Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final Executor executor;
+        private final long deadline;
+        private final AtomicInteger state;
+        private WheelTimeout next;
+        private WheelTimeout prev;
+        private Bucket bucket;
+
+        private WheelTimeout(Runnable task, Executor executor, long deadline) {
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+            this.state = new AtomicInteger(ST_INIT);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            pendingCancels.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - (System.nanoTime() - startTime), TimeUnit.NANOSECONDS);
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                if (task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        private void cancelTask() {
+            if (cancel() && task instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+    }
+
+
+    private static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.next = null;
+            timeout.prev = null;
+            timeout.bucket = null;
+        }
+
+        private WheelTimeout clear() {
+            WheelTimeout first = head;
+            for (WheelTimeout timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+            }
+            head = tail = null;
+            return first;
+        }
+    }
+}
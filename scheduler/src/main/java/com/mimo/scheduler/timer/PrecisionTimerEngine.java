@@ -0,0 +1,303 @@
+package com.mimo.scheduler.timer;
+
+import com.mimo.scheduler.metrics.LatencyHistogram;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link TimerEngine} for deadlines that need sub-millisecond precision.
+ * <p>
+ * A dedicated thread parks until the {@code spinThreshold} before the earliest deadline and then spins with
+ * {@link Thread#onSpinWait()} until the deadline passed, so the wake-up latency of parking never delays a timeout.
+ * The spinning costs up to {@code spinThreshold} of CPU time per timeout, and timeouts are kept in a binary heap, so the
+ * engine is meant for a moderate number of timing critical jobs next to a regular engine. How late every timeout
+ * expired is recorded in {@link #getJitter()}.
+ */
+public class PrecisionTimerEngine implements TimerEngine {
+    private static final int STATE_RUNNING = 0;
+    private static final int STATE_SHUTDOWN = 1;
+    private static final int STATE_STOPPED = 2;
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+    private final long spinNanos;
+    private final PriorityQueue<PreciseTimeout> queue;
+    private final ReentrantLock lock;
+    private final Condition changed;
+    private final AtomicLong pending;
+    private final LatencyHistogram jitter;
+    private final CompletableFuture<Void> termination;
+    private final Thread worker;
+    private volatile int state;
+    private long sequence;
+
+
+    /**
+     * Creates a {@code PrecisionTimerEngine} that spins for the last 100 microseconds before every deadline.
+     **/
+    public PrecisionTimerEngine() {
+        this(100, TimeUnit.MICROSECONDS);
+    }
+
+
+    /**
+     * Creates a {@code PrecisionTimerEngine} that spins for the given threshold before every deadline. The threshold
+     * should cover the wake-up latency of a parked thread on the machine, which {@link #getJitter()} reveals.
+     *
+     * @param spinThreshold the time before a deadline from which the timer thread spins instead of parking
+     * @param unit the {@code TimeUnit} of the threshold
+     **/
+    public PrecisionTimerEngine(long spinThreshold, TimeUnit unit) {
+        if (spinThreshold < 0) {
+            throw new IllegalArgumentException("spinThreshold must not be negative: " + spinThreshold);
+        }
+        this.spinNanos = unit.toNanos(spinThreshold);
+        this.queue = new PriorityQueue<>();
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+        this.pending = new AtomicLong();
+        this.jitter = new LatencyHistogram(1);
+        this.termination = new CompletableFuture<>();
+        this.worker = new Thread(this::runWorker, "scheduler-precision-timer");
+        this.worker.start();
+    }
+
+
+    /**
+     * Returns the time before a deadline from which the timer thread spins.
+     *
+     * @param unit the {@code TimeUnit} of the returned threshold
+     *
+     * @return the spin threshold
+     **/
+    public long getSpinThreshold(TimeUnit unit) {
+        return unit.convert(spinNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Returns the histogram of how much later than their deadline the timeouts were handed to their executor,
+     * in nanoseconds.
+     *
+     * @return the jitter {@link LatencyHistogram}
+     **/
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+
+
+    @Override
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit, Executor executor) {
+        pending.incrementAndGet();
+        if (state != STATE_RUNNING) {
+            release();
+            throw new RejectedExecutionException("TimerEngine has been shut down");
+        }
+        long delayNanos = Math.min(unit.toNanos(Math.max(delay, 0)), MAX_DELAY_NANOS);
+        PreciseTimeout timeout = new PreciseTimeout(task, executor, System.nanoTime() + delayNanos);
+        lock.lock();
+        try {
+            /// The worker cancels what is queued once it saw the stop, so later timeouts must not be queued anymore.
+            if (state == STATE_STOPPED) {
+                release();
+                throw new RejectedExecutionException("TimerEngine has been shut down");
+            }
+            timeout.sequence = sequence++;
+            queue.add(timeout);
+            if (queue.peek() == timeout) {
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+
+    @Override
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        if (state == STATE_RUNNING) {
+            state = STATE_SHUTDOWN;
+        }
+        signal();
+        return termination;
+    }
+
+
+    @Override
+    public void shutdownNow() {
+        state = STATE_STOPPED;
+        signal();
+    }
+
+
+    @Override
+    public boolean isShutdown() {
+        return state != STATE_RUNNING;
+    }
+
+
+    private void runWorker() {
+        lock.lock();
+        try {
+            while (true) {
+                if (state == STATE_STOPPED) {
+                    cancelRemaining();
+                    return;
+                }
+                PreciseTimeout head = queue.peek();
+                if (head == null) {
+                    if (state == STATE_SHUTDOWN && pending.get() == 0) {
+                        return;
+                    }
+                    changed.awaitUninterruptibly();
+                    continue;
+                }
+                long remaining = head.deadline - System.nanoTime();
+                if (remaining > spinNanos) {
+                    awaitNanos(remaining - spinNanos);
+                    continue;
+                }
+                queue.poll();
+                lock.unlock();
+                try {
+                    while (head.deadline - System.nanoTime() > 0) {
+                        Thread.onSpinWait();
+                    }
+                    head.expire();
+                } finally {
+                    lock.lock();
+                }
+            }
+        } finally {
+            lock.unlock();
+            termination.complete(null);
+        }
+    }
+
+
+    private void awaitNanos(long nanos) {
+        try {
+            changed.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            /// The worker is never interrupted on purpose, the loop re-checks the state and the queue anyway.
+        }
+    }
+
+
+    private void signal() {
+        lock.lock();
+        try {
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private void release() {
+        if (pending.decrementAndGet() == 0 && state == STATE_SHUTDOWN) {
+            signal();
+        }
+    }
+
+
+    private void cancelRemaining() {
+        PreciseTimeout timeout;
+        while ((timeout = queue.poll()) != null) {
+            if (timeout.state.compareAndSet(PreciseTimeout.ST_INIT, PreciseTimeout.ST_CANCELLED)) {
+                pending.decrementAndGet();
+                if (timeout.task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+
+    private final class PreciseTimeout implements Timeout, Comparable<PreciseTimeout> {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final Executor executor;
+        private final long deadline;
+        private final AtomicInteger state;
+        private long sequence;
+
+        private PreciseTimeout(Runnable task, Executor executor, long deadline) {
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+            this.state = new AtomicInteger(ST_INIT);
+        }
+
+        @Override
+        public int compareTo(PreciseTimeout other) {
+            long difference = deadline - other.deadline;
+            return difference != 0 ? Long.signum(difference) : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            lock.lock();
+            try {
+                queue.remove(this);
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+            release();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            jitter.record(System.nanoTime() - deadline);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                if (task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            } finally {
+                release();
+            }
+        }
+    }
+}
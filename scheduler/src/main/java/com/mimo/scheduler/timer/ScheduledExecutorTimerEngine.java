@@ -0,0 +1,207 @@
+package com.mimo.scheduler.timer;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TimerEngine} that keeps its timeouts inside a {@link ScheduledExecutorService}.
+ * Every timeout costs an {@code O(log n)} insert into the delay queue of the executor, which is fine for a moderate
+ * amount of pending timers. Use the {@link HashedWheelTimerEngine} for very large amounts of pending timers.
+ */
+public class ScheduledExecutorTimerEngine implements TimerEngine {
+    private final ScheduledExecutorService executor;
+    private final boolean ownsExecutor;
+    private final AtomicLong pending;
+    private final Set<ExecutorTimeout> live;
+    private final CompletableFuture<Void> termination;
+    private volatile boolean shutdown;
+
+
+    /**
+     * Creates a {@code ScheduledExecutorTimerEngine} with its own single threaded {@link ScheduledThreadPoolExecutor}.
+     **/
+    public ScheduledExecutorTimerEngine() {
+        this(newTimerExecutor(), true);
+    }
+
+
+    /**
+     * Creates a {@code ScheduledExecutorTimerEngine} that keeps its timeouts in the given {@link ScheduledExecutorService}.
+     * The executor is not shut down by the engine.
+     *
+     * @param executor the {@code ScheduledExecutorService} to keep the timeouts in
+     **/
+    public ScheduledExecutorTimerEngine(ScheduledExecutorService executor) {
+        this(executor, false);
+    }
+
+
+    private ScheduledExecutorTimerEngine(ScheduledExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.pending = new AtomicLong();
+        this.live = ConcurrentHashMap.newKeySet();
+        this.termination = new CompletableFuture<>();
+    }
+
+
+    private static ScheduledExecutorService newTimerExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+
+    @Override
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit, Executor executor) {
+        pending.incrementAndGet();
+        ExecutorTimeout timeout = new ExecutorTimeout(task, executor);
+        /// Registered before the shutdown check, so shutdownNow either sees the timeout or the timeout sees the shutdown.
+        live.add(timeout);
+        /// A racing shutdownNow may cancel the timeout as well, the state decides who releases it.
+        if (shutdown) {
+            timeout.cancel();
+            throw new RejectedExecutionException("TimerEngine has been shut down");
+        }
+        try {
+            timeout.future = this.executor.schedule(timeout, delay, unit);
+            if (timeout.isCancelled()) {
+                timeout.future.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            timeout.cancel();
+            throw e;
+        }
+        return timeout;
+    }
+
+
+    @Override
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        shutdown = true;
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        if (pending.get() == 0) {
+            termination.complete(null);
+        }
+        return termination;
+    }
+
+
+    @Override
+    public void shutdownNow() {
+        shutdown = true;
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+        for (ExecutorTimeout timeout : live) {
+            timeout.cancelTask();
+        }
+        termination.complete(null);
+    }
+
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+
+    private void release() {
+        if (pending.decrementAndGet() == 0 && shutdown) {
+            termination.complete(null);
+        }
+    }
+
+
+    private final class ExecutorTimeout implements Timeout, Runnable {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final Executor target;
+        private final AtomicInteger state;
+        private volatile ScheduledFuture<?> future;
+
+        private ExecutorTimeout(Runnable task, Executor target) {
+            this.task = task;
+            this.target = target;
+            this.state = new AtomicInteger(ST_INIT);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                if (target == executor) {
+                    task.run();
+                } else {
+                    target.execute(task);
+                }
+            } catch (RejectedExecutionException e) {
+                if (task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            } finally {
+                live.remove(this);
+                release();
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            ScheduledFuture<?> scheduledFuture = future;
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
+            live.remove(this);
+            release();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            ScheduledFuture<?> scheduledFuture = future;
+            return scheduledFuture == null ? 0 : scheduledFuture.getDelay(unit);
+        }
+
+        private void cancelTask() {
+            if (cancel() && task instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mimo.scheduler.timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TimerEngine} that spreads its timeouts over several independent engines, so threads that schedule
+ * timeouts at a high rate do not all contend on the same engine. Every thread always uses the same shard.
+ * <p>
+ * The engines are owned by the {@code ShardedTimerEngine} and are shut down together with it.
+ */
+public class ShardedTimerEngine implements TimerEngine {
+    private final TimerEngine[] shards;
+
+
+    /**
+     * Creates a {@code ShardedTimerEngine} with {@code numShards} {@link HashedWheelTimerEngine} instances.
+     * Every shard starts its timer thread when it receives its first timeout.
+     *
+     * @param numShards the number of independent engines
+     **/
+    public ShardedTimerEngine(int numShards) {
+        if (numShards < 1) {
+            throw new IllegalArgumentException("numShards must be greater than 0: " + numShards);
+        }
+        this.shards = new TimerEngine[numShards];
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new HashedWheelTimerEngine();
+        }
+    }
+
+
+    /**
+     * Creates a {@code ShardedTimerEngine} that spreads its timeouts over the given engines.
+     *
+     * @param shards the independent engines
+     **/
+    public ShardedTimerEngine(TimerEngine... shards) {
+        if (shards.length == 0) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards.clone();
+    }
+
+
+    @Override
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit, Executor executor) {
+        int hash = Long.hashCode(Thread.currentThread().threadId());
+        int spread = (hash ^ (hash >>> 16)) * 0x9E3779B9;
+        return shards[Math.floorMod(spread, shards.length)].newTimeout(task, delay, unit, executor);
+    }
+
+
+    @Override
+    public long pendingTimeouts() {
+        long pending = 0;
+        for (TimerEngine shard : shards) {
+            pending += shard.pendingTimeouts();
+        }
+        return pending;
+    }
+
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        CompletableFuture<?>[] terminations = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            terminations[i] = shards[i].shutdown();
+        }
+        return CompletableFuture.allOf(terminations);
+    }
+
+
+    @Override
+    public void shutdownNow() {
+        for (TimerEngine shard : shards) {
+            shard.shutdownNow();
+        }
+    }
+
+
+    @Override
+    public boolean isShutdown() {
+        for (TimerEngine shard : shards) {
+            if (shard.isShutdown()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
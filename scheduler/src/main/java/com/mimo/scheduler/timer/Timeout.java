@@ -0,0 +1,43 @@
+package com.mimo.scheduler.timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A handle to a task that was handed to a {@link TimerEngine} and waits for its deadline.
+ */
+public interface Timeout {
+
+    /**
+     * Cancels the timeout so the task is never handed to its executor.
+     * Cancelling an expired or already cancelled timeout has no effect.
+     *
+     * @return {@code true} if the timeout was cancelled by this call, {@code false} otherwise
+     **/
+    boolean cancel();
+
+
+    /**
+     * Returns whether the timeout was cancelled before it expired.
+     *
+     * @return {@code true} if the timeout was cancelled
+     **/
+    boolean isCancelled();
+
+
+    /**
+     * Returns whether the deadline of the timeout passed and the task was handed to its executor.
+     *
+     * @return {@code true} if the timeout expired
+     **/
+    boolean isExpired();
+
+
+    /**
+     * Returns the remaining delay until the deadline of the timeout in the given {@link TimeUnit}.
+     *
+     * @param unit the {@code TimeUnit} of the returned delay
+     *
+     * @return the remaining delay, zero or negative if the deadline already passed
+     **/
+    long getDelay(TimeUnit unit);
+}
@@ -0,0 +1,55 @@
+package com.mimo.scheduler.timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of delayed tasks for a {@link com.mimo.scheduler.Scheduler} and hands every task to an {@link Executor}
+ * once its deadline passed. The engine itself never runs the tasks, so expensive tasks can not delay other timers.
+ */
+public interface TimerEngine {
+
+    /**
+     * Schedules the {@code task} to be handed to the {@code executor} after the {@code delay} in the given {@link TimeUnit}.
+     *
+     * @param task the {@code Runnable} to hand to the executor
+     * @param delay the delay after which the task is handed over
+     * @param unit the {@code TimeUnit} to describe the delay length
+     * @param executor the {@code Executor} that runs the task
+     *
+     * @return a {@link Timeout} that can be used to cancel the task before its deadline
+     * @throws java.util.concurrent.RejectedExecutionException if the engine was already shut down
+     **/
+    Timeout newTimeout(Runnable task, long delay, TimeUnit unit, Executor executor);
+
+
+    /**
+     * Returns the number of timeouts that neither expired nor got cancelled yet.
+     *
+     * @return the number of pending timeouts
+     **/
+    long pendingTimeouts();
+
+
+    /**
+     * Stops accepting new timeouts. Timeouts that are already pending still expire at their deadline.
+     *
+     * @return a {@link CompletableFuture} that completes once the last pending timeout expired or got cancelled
+     **/
+    CompletableFuture<Void> shutdown();
+
+
+    /**
+     * Stops accepting new timeouts and cancels every pending timeout immediately.
+     **/
+    void shutdownNow();
+
+
+    /**
+     * Returns whether {@link #shutdown()} or {@link #shutdownNow()} was called on the engine.
+     *
+     * @return {@code true} if the engine does not accept new timeouts anymore
+     **/
+    boolean isShutdown();
+}
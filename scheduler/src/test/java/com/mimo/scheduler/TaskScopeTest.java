@@ -0,0 +1,118 @@
+package com.mimo.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TaskScopeTest {
+    private final Scheduler scheduler = new Scheduler(4);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /// A timeout that expired is only released once the timer handed its task over, which can finish after the task.
+    private void awaitNoPendingTimers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.getTimerEngine().pendingTimeouts() != 0) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("pending timeouts never dropped to 0: " + scheduler.getTimerEngine().pendingTimeouts());
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void awaitAllWaitsForEverySubtask() throws Exception {
+        try (TaskScope<Integer> scope = scheduler.openScope(ScopePolicy.AWAIT_ALL)) {
+            CompletableFuture<Integer> first = scope.fork(() -> 1);
+            CompletableFuture<Integer> second = scope.fork(() -> 2, 20, TimeUnit.MILLISECONDS);
+            CompletableFuture<Integer> failed = scope.fork(() -> {
+                throw new IllegalStateException("failed");
+            });
+            assertNull(scope.joinAsync().get(2, TimeUnit.SECONDS));
+            assertEquals(1, first.join());
+            assertEquals(2, second.join());
+            assertTrue(failed.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    void sharedFailureInstanceDoesNotStallTheScope() throws Exception {
+        CompletableFuture<Object> shared = CompletableFuture.failedFuture(new IllegalStateException("shared"));
+        try (TaskScope<Object> scope = scheduler.openScope(ScopePolicy.AWAIT_ALL)) {
+            scope.fork(shared::join);
+            scope.fork(shared::join);
+            assertNull(scope.joinAsync().get(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void firstFailureCancelsTheOtherSubtasks() throws Exception {
+        try (TaskScope<Object> scope = scheduler.openScope(ScopePolicy.SHUTDOWN_ON_FAILURE)) {
+            CompletableFuture<Object> slow = scope.fork(() -> {
+                Thread.sleep(10_000);
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalStateException("failed");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> scope.joinAsync().get(2, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertTrue(slow.isCancelled());
+        }
+    }
+
+    @Test
+    void firstSuccessWinsAndLeavesNoTimerBehind() throws Exception {
+        try (TaskScope<String> scope = scheduler.openScope(ScopePolicy.SHUTDOWN_ON_SUCCESS)) {
+            scope.fork(() -> {
+                Thread.sleep(10_000);
+                return "slow";
+            });
+            scope.fork(() -> "hedge", 20, TimeUnit.MILLISECONDS);
+            scope.fork(() -> "late", 1, TimeUnit.HOURS);
+            assertEquals("hedge", scope.joinAsync().get(2, TimeUnit.SECONDS));
+        }
+        awaitNoPendingTimers();
+    }
+
+    @Test
+    void deadlineCancelsTheScopeAndItsChildren() throws Exception {
+        AtomicReference<TaskScope<Object>> child = new AtomicReference<>();
+        try (TaskScope<Object> scope = scheduler.openScope(ScopePolicy.AWAIT_ALL, 50, TimeUnit.MILLISECONDS)) {
+            scope.fork(() -> {
+                TaskScope<Object> nested = scheduler.openScope(ScopePolicy.AWAIT_ALL);
+                child.set(nested);
+                nested.fork(() -> null, 1, TimeUnit.HOURS);
+                return nested.join();
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> scope.joinAsync().get(2, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+        TaskScope<Object> nested = child.get();
+        assertTrue(nested.getParent() != null);
+        assertTrue(nested.isDone());
+        assertTrue(nested.getRemaining(TimeUnit.MILLISECONDS) <= 50);
+    }
+
+    @Test
+    void forkAfterCompletionIsRejected() throws Exception {
+        TaskScope<Object> scope = scheduler.openScope(ScopePolicy.AWAIT_ALL);
+        scope.join();
+        assertThrows(IllegalStateException.class, () -> scope.fork(() -> null));
+    }
+}
@@ -0,0 +1,100 @@
+package com.mimo.scheduler.cron;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CronExpressionTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    private static ZonedDateTime at(int year, int month, int day, int hour, int minute, int second, ZoneId zone) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, zone);
+    }
+
+    @Test
+    void nextIsStrictlyAfterTheGivenTime() {
+        CronExpression cron = CronExpression.parse("*/15 * * * *");
+        assertEquals(at(2024, 3, 5, 10, 15, 0, UTC), cron.next(at(2024, 3, 5, 10, 0, 0, UTC)));
+        assertEquals(at(2024, 3, 5, 10, 15, 0, UTC), cron.next(at(2024, 3, 5, 10, 14, 59, UTC)));
+    }
+
+    @Test
+    void secondsFieldRollsOverIntoTheNextMinute() {
+        CronExpression cron = CronExpression.parse("10,40 * * * * *");
+        assertEquals(at(2024, 3, 5, 10, 0, 40, UTC), cron.next(at(2024, 3, 5, 10, 0, 10, UTC)));
+        assertEquals(at(2024, 3, 5, 10, 1, 10, UTC), cron.next(at(2024, 3, 5, 10, 0, 40, UTC)));
+    }
+
+    @Test
+    void carriesOverMonthAndYearBoundaries() {
+        CronExpression cron = CronExpression.parse("0 0 31 * *");
+        assertEquals(at(2024, 5, 31, 0, 0, 0, UTC), cron.next(at(2024, 4, 1, 0, 0, 0, UTC)));
+        assertEquals(at(2025, 1, 1, 0, 0, 0, UTC), CronExpression.parse("@yearly").next(at(2024, 6, 1, 0, 0, 0, UTC)));
+    }
+
+    @Test
+    void leapDayOnlyFiresInLeapYears() {
+        CronExpression cron = CronExpression.parse("0 12 29 FEB *");
+        assertEquals(at(2028, 2, 29, 12, 0, 0, UTC), cron.next(at(2024, 3, 1, 0, 0, 0, UTC)));
+    }
+
+    @Test
+    void dayOfWeekRotatesThroughTheWeek() {
+        CronExpression fridays = CronExpression.parse("0 9 * * FRI");
+        /// 2024-03-05 is a Tuesday.
+        assertEquals(at(2024, 3, 8, 9, 0, 0, UTC), fridays.next(at(2024, 3, 5, 0, 0, 0, UTC)));
+        assertEquals(at(2024, 3, 15, 9, 0, 0, UTC), fridays.next(at(2024, 3, 8, 9, 0, 0, UTC)));
+        CronExpression sunday = CronExpression.parse("0 0 * * 7");
+        assertEquals(at(2024, 3, 10, 0, 0, 0, UTC), sunday.next(at(2024, 3, 5, 0, 0, 0, UTC)));
+        assertEquals(sunday.next(at(2024, 3, 5, 0, 0, 0, UTC)), CronExpression.parse("0 0 * * 0").next(at(2024, 3, 5, 0, 0, 0, UTC)));
+    }
+
+    @Test
+    void restrictedDayOfMonthAndDayOfWeekMatchEitherOne() {
+        CronExpression cron = CronExpression.parse("0 0 13 * FRI");
+        /// The next Friday comes before the 13th.
+        assertEquals(at(2024, 3, 8, 0, 0, 0, UTC), cron.next(at(2024, 3, 5, 0, 0, 0, UTC)));
+        assertEquals(at(2024, 3, 13, 0, 0, 0, UTC), cron.next(at(2024, 3, 8, 0, 0, 0, UTC)));
+    }
+
+    @Test
+    void rangesWithStepsAndNames() {
+        CronExpression cron = CronExpression.parse("0 8-18/5 * * MON-FRI");
+        assertEquals(at(2024, 3, 8, 13, 0, 0, UTC), cron.next(at(2024, 3, 8, 8, 0, 0, UTC)));
+        assertEquals(at(2024, 3, 11, 8, 0, 0, UTC), cron.next(at(2024, 3, 8, 18, 0, 0, UTC)));
+    }
+
+    @Test
+    void daylightSavingGapMovesTheFireTimeForward() {
+        CronExpression cron = CronExpression.parse("30 2 * * *");
+        /// Berlin skips from 02:00 to 03:00 on 2024-03-31.
+        assertEquals(at(2024, 3, 31, 3, 30, 0, BERLIN), cron.next(at(2024, 3, 31, 0, 0, 0, BERLIN)));
+    }
+
+    @Test
+    void daylightSavingOverlapFiresOnce() {
+        CronExpression cron = CronExpression.parse("30 2 * * *");
+        /// Berlin repeats 02:00 to 03:00 on 2024-10-27.
+        ZonedDateTime first = cron.next(at(2024, 10, 27, 0, 0, 0, BERLIN));
+        assertEquals(at(2024, 10, 27, 2, 30, 0, BERLIN).withEarlierOffsetAtOverlap(), first);
+        assertEquals(at(2024, 10, 28, 2, 30, 0, BERLIN), cron.next(first));
+    }
+
+    @Test
+    void impossibleDateNeverFires() {
+        assertNull(CronExpression.parse("0 0 30 2 *").next(at(2024, 1, 1, 0, 0, 0, UTC)));
+    }
+
+    @Test
+    void malformedExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 0 * FOO *"));
+    }
+}
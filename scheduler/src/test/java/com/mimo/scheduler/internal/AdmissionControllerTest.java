@@ -0,0 +1,138 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.AdmissionLimits;
+import com.mimo.scheduler.OverloadPolicy;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+    private final SchedulerMetrics metrics = new SchedulerMetrics(null, null);
+    /// Holds the tasks like a busy executor, so they only start once a test runs them.
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final Executor executor = queued::add;
+
+    @AfterEach
+    void closeMetrics() {
+        metrics.close();
+    }
+
+    private AdmissionController controller(int maxPendingTasks, OverloadPolicy policy) {
+        AdmissionLimits limits = new AdmissionLimits(maxPendingTasks, AdmissionLimits.UNBOUNDED);
+        limits.setOverloadPolicy(policy);
+        limits.setBlockTimeout(10, TimeUnit.MILLISECONDS);
+        return new AdmissionController(limits, metrics);
+    }
+
+    private static ScheduledTask<Object> task() {
+        return new ScheduledTask<>(() -> null, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Test
+    void rejectsBeyondTheLimitUntilATaskStarted() {
+        AdmissionController admission = controller(2, OverloadPolicy.REJECT);
+        admission.execute(task(), executor);
+        admission.execute(task(), executor);
+        assertThrows(RejectedExecutionException.class, () -> admission.execute(task(), executor));
+
+        queued.poll().run();
+        admission.execute(task(), executor);
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    void callerRunsWhenFull() {
+        AdmissionController admission = controller(1, OverloadPolicy.CALLER_RUNS);
+        admission.execute(task(), executor);
+        ScheduledTask<Object> overflow = task();
+        admission.execute(overflow, executor);
+
+        assertTrue(overflow.isDone());
+        assertEquals(1, queued.size());
+        assertEquals(1, metrics.getCallerRunTasks());
+    }
+
+    @Test
+    void blockRejectsOnceTheTimeoutPassed() {
+        AdmissionController admission = controller(1, OverloadPolicy.BLOCK);
+        admission.execute(task(), executor);
+        assertThrows(RejectedExecutionException.class, () -> admission.execute(task(), executor));
+    }
+
+    @Test
+    void dropOldestCancelsTheOldestPendingTask() {
+        AdmissionController admission = controller(1, OverloadPolicy.DROP_OLDEST);
+        ScheduledTask<Object> oldest = task();
+        ScheduledTask<Object> newest = task();
+        admission.execute(oldest, executor);
+        admission.execute(newest, executor);
+
+        assertTrue(oldest.isCancelled());
+        assertFalse(newest.isDone());
+        assertEquals(1, metrics.getDroppedTasks());
+        /// The dropped task stays in the executor but never runs, its slot passed to the newest task.
+        queued.poll().run();
+        assertTrue(oldest.isCancelled());
+        queued.poll().run();
+        assertTrue(newest.isDone());
+    }
+
+    @Test
+    void asyncTasksWaitUntilATaskStarted() {
+        AdmissionController admission = controller(1, OverloadPolicy.ASYNC);
+        ScheduledTask<Object> waiting = task();
+        admission.execute(task(), executor);
+        admission.execute(waiting, executor);
+        assertEquals(1, queued.size());
+        assertTrue(admission.hasWaiting());
+
+        queued.poll().run();
+        assertSame(waiting, queued.poll());
+        assertFalse(admission.hasWaiting());
+    }
+
+    @Test
+    void asyncRejectsOnceTooManyTasksWait() {
+        AdmissionController admission = controller(1, OverloadPolicy.ASYNC);
+        admission.execute(task(), executor);
+        admission.execute(task(), executor);
+        assertThrows(RejectedExecutionException.class, () -> admission.execute(task(), executor));
+    }
+
+    @Test
+    void cancelWaitingCancelsEveryWaitingTask() {
+        AdmissionController admission = controller(1, OverloadPolicy.ASYNC);
+        ScheduledTask<Object> waiting = task();
+        admission.execute(task(), executor);
+        admission.execute(waiting, executor);
+
+        admission.cancelWaiting();
+        assertTrue(waiting.isCancelled());
+        assertFalse(admission.hasWaiting());
+    }
+
+    @Test
+    void taskRejectedByTheExecutorGivesItsSlotBack() {
+        AdmissionController admission = controller(1, OverloadPolicy.REJECT);
+        ScheduledTask<Object> rejected = task();
+        assertThrows(RejectedExecutionException.class, () -> admission.execute(rejected, command -> {
+            throw new RejectedExecutionException("shut down");
+        }));
+
+        assertTrue(rejected.isCancelled());
+        admission.execute(task(), executor);
+        assertEquals(1, queued.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.aftertask.AfterTask;
+import com.mimo.scheduler.aftertask.AfterTaskDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AfterTaskExecutorTest {
+    private final AfterTaskExecutor executor = new AfterTaskExecutor();
+
+    @Test
+    void listenerWithGeneratedDispatcherRunsInheritedMethods() throws Exception {
+        /// Both classes are compiled with the processor, so the subclass has a dispatcher of its own methods only.
+        List<Class<?>> targets = ServiceLoader.load(AfterTaskDispatcher.class).stream()
+                .<Class<?>>map(provider -> provider.get().target())
+                .toList();
+        assertTrue(targets.contains(BaseListener.class));
+        assertTrue(targets.contains(SubListener.class));
+
+        SubListener listener = new SubListener();
+        executor.addListener(listener);
+        executor.fire("done");
+        executor.fire("finished");
+
+        assertEquals(List.of("sub done", "sub finished", "base finished"), listener.calls);
+    }
+
+    @Test
+    void removedListenerIsNotInvoked() throws Exception {
+        BaseListener listener = new BaseListener();
+        executor.addListener(listener);
+        assertTrue(executor.removeListener(listener));
+        executor.fire("done");
+
+        assertEquals(List.of(), listener.calls);
+    }
+
+    @Test
+    void listenerWithoutMethodsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> executor.addListener(new Object()));
+    }
+
+    static class BaseListener {
+        final List<String> calls = new ArrayList<>();
+
+        @AfterTask(name = "done")
+        void done() {
+            calls.add("base done");
+        }
+
+        @AfterTask(name = "finished", order = 1)
+        void baseFinished() {
+            calls.add("base finished");
+        }
+    }
+
+    static class SubListener extends BaseListener {
+        @Override
+        void done() {
+            calls.add("sub done");
+        }
+
+        @AfterTask(name = "finished")
+        void finished() {
+            calls.add("sub finished");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import com.mimo.scheduler.timer.ScheduledExecutorTimerEngine;
+import com.mimo.scheduler.timer.TimerEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedTasksTest {
+    private final TimerEngine timerEngine = new ScheduledExecutorTimerEngine();
+    private final SchedulerMetrics metrics = new SchedulerMetrics(timerEngine, null);
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+    private volatile boolean timersFull;
+    private final KeyedTasks keyed = new KeyedTasks(timerEngine, Runnable::run, metrics, () -> {
+        if (timersFull) {
+            throw new RejectedExecutionException("Too many pending timers");
+        }
+    });
+
+    @AfterEach
+    void shutdown() {
+        metrics.close();
+        timerEngine.shutdownNow();
+    }
+
+    @Test
+    void debounceRunsTheLatestTaskOnce() {
+        CompletableFuture<?> first = keyed.debounce("key", 50, TimeUnit.MILLISECONDS, () -> ran.add("first"));
+        CompletableFuture<?> second = keyed.debounce("key", 50, TimeUnit.MILLISECONDS, () -> ran.add("second"));
+        CompletableFuture<?> latest = keyed.debounce("key", 50, TimeUnit.MILLISECONDS, () -> ran.add("latest"));
+        assertSame(first, second);
+        assertSame(first, latest);
+
+        latest.orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(List.of("latest"), ran);
+        assertEquals(0, keyed.pendingKeys());
+    }
+
+    @Test
+    void throttleRunsTheLeadingCallAndOneTrailingRun() throws InterruptedException {
+        keyed.throttle("key", 100, TimeUnit.MILLISECONDS, () -> ran.add("leading")).orTimeout(2, TimeUnit.SECONDS).join();
+        CompletableFuture<?> second = keyed.throttle("key", 100, TimeUnit.MILLISECONDS, () -> ran.add("second"));
+        CompletableFuture<?> third = keyed.throttle("key", 100, TimeUnit.MILLISECONDS, () -> ran.add("third"));
+        assertSame(second, third);
+
+        third.orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(List.of("leading", "third"), ran);
+    }
+
+    @Test
+    void coalesceHandsEveryPayloadToOneRun() {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> run = keyed.coalesce("key", 50, TimeUnit.MILLISECONDS, 1, batches::add);
+        keyed.coalesce("key", 50, TimeUnit.MILLISECONDS, 2, batches::add);
+        keyed.coalesce("key", 50, TimeUnit.MILLISECONDS, 3, batches::add);
+
+        run.orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(List.of(List.of(1, 2, 3)), batches);
+    }
+
+    @Test
+    void cancelledRunDropsItsKey() {
+        CompletableFuture<?> run = keyed.debounce("key", 1, TimeUnit.HOURS, () -> ran.add("cancelled"));
+        assertEquals(1, keyed.pendingKeys());
+
+        assertTrue(run.cancel(false));
+        assertEquals(0, keyed.pendingKeys());
+        assertEquals(0, timerEngine.pendingTimeouts());
+    }
+
+    @Test
+    void timerAdmissionOnlyLimitsNewKeys() {
+        CompletableFuture<?> pending = keyed.debounce("known", 1, TimeUnit.HOURS, () -> ran.add("known"));
+        timersFull = true;
+
+        assertSame(pending, keyed.debounce("known", 1, TimeUnit.HOURS, () -> ran.add("known")));
+        assertThrows(RejectedExecutionException.class, () -> keyed.debounce("new", 1, TimeUnit.HOURS, () -> ran.add("new")));
+        assertThrows(RejectedExecutionException.class, () -> keyed.throttle("new", 1, TimeUnit.HOURS, () -> ran.add("new")));
+        assertThrows(RejectedExecutionException.class, () -> keyed.coalesce("new", 1, TimeUnit.HOURS, 1, payloads -> { }));
+        assertEquals(1, keyed.pendingKeys());
+    }
+}
@@ -0,0 +1,81 @@
+package com.mimo.scheduler.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscQueueTest {
+
+    @Test
+    void pollsInOfferOrder() {
+        MpscQueue queue = new MpscQueue();
+        Runnable first = () -> { };
+        Runnable second = () -> { };
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        queue.offer(first);
+        queue.offer(second);
+        assertFalse(queue.isEmpty());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscQueue queue = new MpscQueue();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    queue.offer(new Numbered(producer, i));
+                }
+            }));
+        }
+        start.countDown();
+
+        int[] next = new int[producers];
+        int polled = 0;
+        while (polled < producers * perProducer) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Numbered numbered = (Numbered) task;
+            assertEquals(next[numbered.producer], numbered.index, "producer " + numbered.producer + " out of order");
+            next[numbered.producer]++;
+            polled++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    private record Numbered(int producer, int index) implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.Priority;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityDispatcherTest {
+    private static final long AGING = TimeUnit.SECONDS.toNanos(10);
+
+    private final SchedulerMetrics metrics = new SchedulerMetrics(null, null);
+    /// Holds the drain tokens like a busy executor, so the tasks only start once a test runs the tokens.
+    private final Queue<Runnable> tokens = new ArrayDeque<>();
+    private final List<String> started = new ArrayList<>();
+
+    @AfterEach
+    void closeMetrics() {
+        metrics.close();
+    }
+
+    private Runnable task(String name) {
+        return () -> started.add(name);
+    }
+
+    private void runTokens() {
+        Runnable token;
+        while ((token = tokens.poll()) != null) {
+            token.run();
+        }
+    }
+
+    @Test
+    void moreUrgentClassesStartFirst() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(tokens::add, metrics, AGING);
+        dispatcher.executor(Priority.LOW).execute(task("low"));
+        dispatcher.executor(Priority.NORMAL).execute(task("normal"));
+        dispatcher.executor(Priority.CRITICAL).execute(task("critical"));
+        dispatcher.executor(Priority.HIGH).execute(task("high"));
+        runTokens();
+
+        assertEquals(List.of("critical", "high", "normal", "low"), started);
+    }
+
+    @Test
+    void earlierDeadlineStartsFirstWithinAClass() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(tokens::add, metrics, AGING);
+        long now = System.nanoTime();
+        dispatcher.execute(task("later"), Priority.NORMAL, now + TimeUnit.SECONDS.toNanos(2));
+        dispatcher.execute(task("sooner"), Priority.NORMAL, now + TimeUnit.SECONDS.toNanos(1));
+        dispatcher.executor(Priority.NORMAL).execute(task("ready"));
+        runTokens();
+
+        assertEquals(List.of("ready", "sooner", "later"), started);
+    }
+
+    @Test
+    void waitingTasksAgeIntoMoreUrgentClasses() throws InterruptedException {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(tokens::add, metrics, TimeUnit.MILLISECONDS.toNanos(1));
+        dispatcher.executor(Priority.LOW).execute(task("low"));
+        Thread.sleep(20);
+        dispatcher.executor(Priority.CRITICAL).execute(task("critical"));
+        runTokens();
+
+        assertEquals(List.of("low", "critical"), started);
+    }
+
+    @Test
+    void tasksPastTheirDeadlineCountAsMissedButRun() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(tokens::add, metrics, AGING);
+        dispatcher.execute(task("late"), Priority.HIGH, System.nanoTime() - 1);
+        runTokens();
+
+        assertEquals(List.of("late"), started);
+        assertEquals(1, metrics.getMissedDeadlines());
+    }
+
+    @Test
+    void cancelPendingCancelsQueuedTasks() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(tokens::add, metrics, AGING);
+        FutureTask<Object> queued = new FutureTask<>(() -> null);
+        dispatcher.executor(Priority.NORMAL).execute(queued);
+        dispatcher.cancelPending();
+        runTokens();
+
+        assertTrue(queued.isCancelled());
+    }
+
+    @Test
+    void rejectedTokenRejectsTheTask() {
+        PriorityDispatcher dispatcher = new PriorityDispatcher(command -> {
+            throw new RejectedExecutionException("shut down");
+        }, metrics, AGING);
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.executor(Priority.NORMAL).execute(task("rejected")));
+
+        dispatcher.cancelPending();
+        assertEquals(List.of(), started);
+    }
+}
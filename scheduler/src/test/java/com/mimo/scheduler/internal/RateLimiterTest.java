@@ -0,0 +1,58 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.RateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    /// Generous bound for the time that passes between two reservations of one test.
+    private static final long SLACK = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static void assertAbout(long expected, long actual) {
+        assertTrue(actual <= expected && actual >= expected - SLACK, "expected about " + expected + " but was " + actual);
+    }
+
+    @Test
+    void spacesReservationsOneIntervalApart() {
+        RateLimiter limiter = new RateLimiter(new RateLimit(10, 1, TimeUnit.SECONDS));
+        assertEquals(0, limiter.reserve());
+        assertAbout(INTERVAL, limiter.reserve());
+        assertAbout(2 * INTERVAL, limiter.reserve());
+    }
+
+    @Test
+    void burstStartsRightAway() {
+        RateLimit limit = new RateLimit(10, 1, TimeUnit.SECONDS);
+        limit.setBurst(3);
+        RateLimiter limiter = new RateLimiter(limit);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertAbout(INTERVAL, limiter.reserve());
+    }
+
+    @Test
+    void rejectsBeyondTheMaximumDelayWithoutReserving() {
+        RateLimit limit = new RateLimit(10, 1, TimeUnit.SECONDS);
+        limit.setMaxDelay(150, TimeUnit.MILLISECONDS);
+        RateLimiter limiter = new RateLimiter(limit);
+        assertEquals(0, limiter.reserve());
+        assertAbout(INTERVAL, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+    }
+
+    @Test
+    void refundGivesTheSlotBack() {
+        RateLimiter limiter = new RateLimiter(new RateLimit(10, 1, TimeUnit.SECONDS));
+        assertEquals(0, limiter.reserve());
+        assertAbout(INTERVAL, limiter.reserve());
+        limiter.refund();
+        assertAbout(INTERVAL, limiter.reserve());
+    }
+}
@@ -0,0 +1,112 @@
+package com.mimo.scheduler.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedExecutorTest {
+    private ShardedExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsEveryTaskOfManyProducers() throws InterruptedException {
+        executor = new ShardedExecutor(4, "test-shard-");
+        int producers = 8;
+        int perProducer = 1_000;
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    executor.execute(done::countDown);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void idleShardsStealFromABusyShard() throws InterruptedException {
+        executor = new ShardedExecutor(2, "test-shard-");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stolen = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "key");
+        executor.execute(stolen::countDown, "key");
+
+        /// Whichever worker took the blocking task, the other one runs the second task of the key.
+        assertTrue(stolen.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void executeSpreadRunsEveryCopy() throws InterruptedException {
+        executor = new ShardedExecutor(3, "test-shard-");
+        CountDownLatch copies = new CountDownLatch(5);
+        executor.executeSpread(copies::countDown, 5);
+        assertTrue(copies.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownRunsQueuedTasksAndRejectsNewOnes() throws InterruptedException {
+        executor = new ShardedExecutor(2, "test-shard-");
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+        executor.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(ran::incrementAndGet));
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertEquals(100, ran.get());
+    }
+
+    @Test
+    void shutdownNowReturnsTheTasksThatDidNotRun() throws InterruptedException {
+        executor = new ShardedExecutor(1, "test-shard-");
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            blocked.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+
+        List<Runnable> remaining = executor.shutdownNow();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        /// The interrupted worker may still take one of them before they were drained.
+        assertEquals(3, remaining.size() + ran.get());
+    }
+}
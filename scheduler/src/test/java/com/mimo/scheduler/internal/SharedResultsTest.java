@@ -0,0 +1,128 @@
+package com.mimo.scheduler.internal;
+
+import com.mimo.scheduler.ResultCaching;
+import com.mimo.scheduler.metrics.SchedulerMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedResultsTest {
+    private final SchedulerMetrics metrics = new SchedulerMetrics(null, null);
+    private final SharedResults results = new SharedResults(metrics);
+    /// Every launch hands out a future that the test completes, like a task that is still running.
+    private final List<CompletableFuture<String>> launched = new ArrayList<>();
+    private final Function<Callable<String>, CompletableFuture<String>> launcher = task -> {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        launched.add(future);
+        return future;
+    };
+    private final Callable<String> task = () -> "value";
+
+    @AfterEach
+    void closeMetrics() {
+        metrics.close();
+    }
+
+    @Test
+    void callersOfARunningKeyShareOneRun() {
+        CompletableFuture<String> first = results.run("key", task, launcher);
+        CompletableFuture<String> second = results.run("key", task, launcher);
+        assertEquals(1, launched.size());
+
+        launched.get(0).complete("value");
+        assertEquals("value", first.join());
+        assertEquals("value", second.join());
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(1, metrics.getCacheMisses());
+    }
+
+    @Test
+    void cancellingOneCopyKeepsTheOthers() {
+        CompletableFuture<String> first = results.run("key", task, launcher);
+        CompletableFuture<String> second = results.run("key", task, launcher);
+        first.cancel(false);
+
+        launched.get(0).complete("value");
+        assertEquals("value", second.join());
+    }
+
+    @Test
+    void completedResultsAreNotKeptWithoutCaching() {
+        results.run("key", task, launcher);
+        launched.get(0).complete("value");
+        results.run("key", task, launcher);
+
+        assertEquals(2, launched.size());
+    }
+
+    @Test
+    void keptResultsExpireAfterTheTimeToLive() throws InterruptedException {
+        results.setCaching(new ResultCaching(10, 50, TimeUnit.MILLISECONDS));
+        results.run("key", task, launcher);
+        launched.get(0).complete("value");
+
+        assertEquals("value", results.run("key", task, launcher).join());
+        assertEquals(1, launched.size());
+        Thread.sleep(100);
+        assertFalse(results.run("key", task, launcher).isDone());
+        assertEquals(2, launched.size());
+    }
+
+    @Test
+    void theOldestResultIsEvictedBeyondTheMaximum() {
+        results.setCaching(new ResultCaching(1, 1, TimeUnit.HOURS));
+        results.run("a", task, launcher);
+        launched.get(0).complete("a");
+        results.run("b", task, launcher);
+        launched.get(1).complete("b");
+
+        assertEquals("b", results.run("b", task, launcher).join());
+        assertEquals(2, launched.size());
+        results.run("a", task, launcher);
+        assertEquals(3, launched.size());
+    }
+
+    @Test
+    void failedResultsAreNotKept() {
+        results.setCaching(new ResultCaching(10, 1, TimeUnit.HOURS));
+        CompletableFuture<String> failed = results.run("key", task, launcher);
+        launched.get(0).completeExceptionally(new IllegalStateException("failed"));
+
+        assertTrue(failed.isCompletedExceptionally());
+        results.run("key", task, launcher);
+        assertEquals(2, launched.size());
+    }
+
+    @Test
+    void invalidateDropsTheKeptResult() {
+        results.setCaching(new ResultCaching(10, 1, TimeUnit.HOURS));
+        results.run("key", task, launcher);
+        launched.get(0).complete("value");
+        results.invalidate("key");
+        results.run("key", task, launcher);
+
+        assertEquals(2, launched.size());
+    }
+
+    @Test
+    void rejectedLaunchLetsTheNextCallerStartAgain() {
+        assertThrows(RejectedExecutionException.class, () -> results.run("key", task, ignored -> {
+            throw new RejectedExecutionException("shut down");
+        }));
+        results.run("key", task, launcher);
+
+        assertEquals(1, launched.size());
+    }
+}
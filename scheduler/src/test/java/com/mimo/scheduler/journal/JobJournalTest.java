@@ -0,0 +1,120 @@
+package com.mimo.scheduler.journal;
+
+import com.mimo.scheduler.Scheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobJournalTest {
+    @TempDir
+    Path directory;
+
+    private static JobDescriptor job(String payload) {
+        return new JobDescriptor("test", payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<PendingJob> sorted(JobJournal journal) {
+        List<PendingJob> jobs = journal.pendingJobs();
+        jobs.sort(Comparator.comparingLong(PendingJob::getJobId));
+        return jobs;
+    }
+
+    private long count(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    @Test
+    void pendingJobsSurviveARestart() throws IOException {
+        long kept;
+        try (JobJournal journal = new JobJournal(directory)) {
+            kept = journal.nextJobId();
+            long completed = journal.nextJobId();
+            long cancelled = journal.nextJobId();
+            journal.recordScheduled(kept, 1000, job("kept"));
+            journal.recordScheduled(completed, 2000, job("completed"));
+            journal.recordScheduled(cancelled, 3000, job("cancelled"));
+            journal.recordCompleted(completed);
+            journal.recordCancelled(cancelled).join();
+        }
+        try (JobJournal journal = new JobJournal(directory)) {
+            List<PendingJob> jobs = sorted(journal);
+            assertEquals(1, jobs.size());
+            assertEquals(kept, jobs.get(0).getJobId());
+            assertEquals(1000, jobs.get(0).getDueEpochMillis());
+            assertEquals("test", jobs.get(0).getDescriptor().getJobType());
+            assertArrayEquals("kept".getBytes(StandardCharsets.UTF_8), jobs.get(0).getDescriptor().getPayload());
+            assertTrue(journal.nextJobId() > kept + 2, "job ids are never reused after a restart");
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyPendingJobs() throws IOException {
+        try (JobJournal journal = new JobJournal(directory, 1024, 1, TimeUnit.MILLISECONDS, 1)) {
+            for (int i = 0; i < 200; i++) {
+                long jobId = journal.nextJobId();
+                journal.recordScheduled(jobId, i, job("job-" + i));
+                if (i % 2 == 0) {
+                    journal.recordCompleted(jobId);
+                }
+            }
+            journal.compact();
+            assertEquals(100, journal.pendingCount());
+        }
+        assertTrue(count("snapshot-") >= 1, "compaction writes a snapshot");
+        assertTrue(count("segment-") < 20, "compaction deletes the segments the snapshot replaces");
+        try (JobJournal journal = new JobJournal(directory, 1024, 1, TimeUnit.MILLISECONDS, 1)) {
+            List<PendingJob> jobs = sorted(journal);
+            assertEquals(100, jobs.size());
+            for (PendingJob job : jobs) {
+                assertEquals(1, job.getDueEpochMillis() % 2);
+                assertArrayEquals(("job-" + job.getDueEpochMillis()).getBytes(StandardCharsets.UTF_8), job.getDescriptor().getPayload());
+            }
+        }
+    }
+
+    @Test
+    void recoverRunsEveryPendingJobOnceAfterARestart() throws Exception {
+        try (JobJournal journal = new JobJournal(directory)) {
+            Scheduler scheduler = new Scheduler(1);
+            scheduler.setJournal(journal);
+            scheduler.registerJobHandler("test", payload -> { });
+            scheduler.scheduleDurable(Instant.now().plusMillis(300), job("first"));
+            scheduler.scheduleDurable(Instant.now().plusMillis(300), job("second"));
+            scheduler.shutdownNow();
+        }
+        try (JobJournal journal = new JobJournal(directory)) {
+            assertEquals(2, journal.pendingCount());
+            Scheduler scheduler = new Scheduler(1);
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(2);
+            scheduler.setJournal(journal);
+            scheduler.registerJobHandler("test", payload -> {
+                runs.incrementAndGet();
+                done.countDown();
+            });
+            assertEquals(2, scheduler.recover());
+            assertEquals(0, scheduler.recover(), "jobs that are armed already are not loaded again");
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            assertEquals(2, runs.get());
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mimo.scheduler.timer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TimerEngineTest {
+    private static final Executor DIRECT = Runnable::run;
+    private static final ScheduledExecutorService EXTERNAL = Executors.newSingleThreadScheduledExecutor();
+
+    static Stream<Supplier<TimerEngine>> engines() {
+        return Stream.of(
+                named("ScheduledExecutorTimerEngine", ScheduledExecutorTimerEngine::new),
+                named("ScheduledExecutorTimerEngine(external)", () -> new ScheduledExecutorTimerEngine(EXTERNAL)),
+                named("HashedWheelTimerEngine", HashedWheelTimerEngine::new),
+                named("PrecisionTimerEngine", PrecisionTimerEngine::new),
+                named("ShardedTimerEngine", () -> new ShardedTimerEngine(2)));
+    }
+
+    private static Supplier<TimerEngine> named(String name, Supplier<TimerEngine> supplier) {
+        return new Supplier<>() {
+            @Override
+            public TimerEngine get() {
+                return supplier.get();
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    @AfterAll
+    static void stopExternal() {
+        EXTERNAL.shutdownNow();
+    }
+
+    private static void awaitNoPending(TimerEngine engine) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (engine.pendingTimeouts() != 0) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("pending timeouts never dropped to 0: " + engine.pendingTimeouts());
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void timeoutExpiresAfterItsDelay(Supplier<TimerEngine> factory) throws Exception {
+        TimerEngine engine = factory.get();
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        Timeout timeout = engine.newTimeout(expired::countDown, 20, TimeUnit.MILLISECONDS, DIRECT);
+        assertTrue(expired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(timeout.isExpired());
+        awaitNoPending(engine);
+        engine.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void cancelledTimeoutNeverRuns(Supplier<TimerEngine> factory) throws Exception {
+        TimerEngine engine = factory.get();
+        AtomicInteger runs = new AtomicInteger();
+        Timeout timeout = engine.newTimeout(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS, DIRECT);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel(), "only the first cancel succeeds");
+        assertTrue(timeout.isCancelled());
+        awaitNoPending(engine);
+        Thread.sleep(60);
+        assertEquals(0, runs.get());
+        engine.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void shutdownLetsPendingTimeoutsExpire(Supplier<TimerEngine> factory) throws Exception {
+        TimerEngine engine = factory.get();
+        AtomicInteger runs = new AtomicInteger();
+        engine.newTimeout(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS, DIRECT);
+        engine.shutdown().get(2, TimeUnit.SECONDS);
+        assertEquals(1, runs.get());
+        assertTrue(engine.isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> engine.newTimeout(() -> { }, 1, TimeUnit.MILLISECONDS, DIRECT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void shutdownNowCancelsPendingTasks(Supplier<TimerEngine> factory) throws Exception {
+        TimerEngine engine = factory.get();
+        FutureTask<Object> task = new FutureTask<>(() -> 1);
+        engine.newTimeout(task, 1, TimeUnit.HOURS, DIRECT);
+        engine.shutdownNow();
+        assertThrows(CancellationException.class, () -> task.get(2, TimeUnit.SECONDS));
+        awaitNoPending(engine);
+        assertThrows(RejectedExecutionException.class, () -> engine.newTimeout(() -> { }, 1, TimeUnit.MILLISECONDS, DIRECT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void shutdownNowRacingWithNewTimeoutLeavesNoTaskBehind(Supplier<TimerEngine> factory) throws Exception {
+        for (int round = 0; round < 50; round++) {
+            TimerEngine engine = factory.get();
+            List<FutureTask<Object>> accepted = new CopyOnWriteArrayList<>();
+            CountDownLatch started = new CountDownLatch(2);
+            List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                producers.add(Thread.ofPlatform().start(() -> {
+                    started.countDown();
+                    while (true) {
+                        FutureTask<Object> task = new FutureTask<>(() -> 1);
+                        try {
+                            engine.newTimeout(task, 1, TimeUnit.HOURS, DIRECT);
+                        } catch (RejectedExecutionException e) {
+                            return;
+                        }
+                        accepted.add(task);
+                    }
+                }));
+            }
+            started.await();
+            engine.shutdownNow();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            for (FutureTask<Object> task : accepted) {
+                assertThrows(CancellationException.class, () -> task.get(2, TimeUnit.SECONDS));
+            }
+            awaitNoPending(engine);
+        }
+    }
+}
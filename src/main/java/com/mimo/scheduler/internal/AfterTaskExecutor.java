@@ -1,47 +0,0 @@
-package com.mimo.scheduler.internal;
-
-import com.mimo.scheduler.aftertask.AfterTask;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.List;
-
-public class AfterTaskExecutor {
-
-    public ArrayList<Method> getSpecificMethods(String eventName, ArrayList<Class<?>> classes) {
-        ArrayList<Method> methods = new ArrayList<>();
-        for (Class<?> clazz : classes) {
-            for(Method method : clazz.getDeclaredMethods()){
-                if(method.isAnnotationPresent(AfterTask.class)){
-                    if (method.getAnnotation(AfterTask.class).name().equals(eventName)) {
-                        methods.add(method);
-                    }
-                }
-            }
-        }
-        return methods;
-    }
-
-    public ArrayList<Method> getAllMethods(List<Class<?>> classes) {
-        ArrayList<Method> methods = new ArrayList<>();
-        for (Class<?> clazz : classes) {
-            for(Method method : clazz.getDeclaredMethods()){
-                if(method.isAnnotationPresent(AfterTask.class)){
-                    methods.add(method);
-                }
-            }
-        }
-        return methods;
-    }
-
-    public void invokeMethods(ArrayList<Method> methods) throws InvocationTargetException, IllegalAccessException {
-        for (Method method : methods) {
-            if (Modifier.isStatic(method.getModifiers())) {
-                method.invoke(null);
-            }
-        }
-    }
-}
-